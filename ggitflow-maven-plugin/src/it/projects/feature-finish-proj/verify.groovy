@@ -0,0 +1,28 @@
+import com.dkirrane.maven.plugins.ggitflow.SetupVerifyScriptHelper;
+
+try {
+
+    println "verify.groovy start"
+
+    def helper = new SetupVerifyScriptHelper(basedir, localRepositoryPath, context)
+
+    // feature-finish goal successful
+    helper.assertBuildLogContains(":feature-finish")
+
+    // the feature is merged into develop and its branch deleted
+    helper.assertCurrentBranch("develop")
+    helper.assertBranchContains("develop", "feature.txt")
+    helper.assertBranchVersion("develop", "1.0-SNAPSHOT")
+    helper.featureBranchDeleted("Feature-123")
+
+    // git spawns, Maven forks and reactor reloads within budget.properties
+    helper.assertWithinBudget()
+
+    helper.tearDown()
+
+    println "verify.groovy complete"
+
+} catch (Exception e) {
+    System.err.println(e.getMessage())
+    return false;
+}
@@ -0,0 +1,21 @@
+import com.dkirrane.maven.plugins.ggitflow.SetupVerifyScriptHelper;
+
+try {
+
+    println "setup.groovy start"
+
+    def helper = new SetupVerifyScriptHelper(basedir, localRepositoryPath, context)
+    helper.setUp()
+
+    // develop and a feature branch with two commits
+    helper.createBranch("develop")
+    helper.createBranch("feature/Feature-123")
+    helper.commitFile("feature.txt", "Feature-123")
+    helper.commitFile("feature.txt", "Feature-123 done")
+
+    println "setup.groovy complete"
+
+} catch (Exception e) {
+    System.err.println(e.getMessage())
+    return false;
+}
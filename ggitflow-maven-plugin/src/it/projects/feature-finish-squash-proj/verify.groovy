@@ -0,0 +1,34 @@
+import com.dkirrane.maven.plugins.ggitflow.SetupVerifyScriptHelper;
+
+try {
+
+    println "verify.groovy start"
+
+    def helper = new SetupVerifyScriptHelper(basedir, localRepositoryPath, context)
+
+    // feature-finish goal successful
+    helper.assertBuildLogContains(":feature-finish")
+
+    // the feature is squashed into develop and its branch deleted
+    helper.assertCurrentBranch("develop")
+    helper.assertBranchContains("develop", "feature.txt")
+    helper.assertBranchVersion("develop", "1.0-SNAPSHOT")
+    helper.featureBranchDeleted("Feature-123")
+    if (helper.git("git", "rev-list", "--merges", "--count", "develop").trim() != "0") {
+        throw new Exception("Feature was not squashed into develop")
+    }
+    if (!helper.git("git", "log", "-1", "--format=%s", "develop").contains("Merge branch 'feature/Feature-123' into develop")) {
+        throw new Exception("Unexpected squash commit message")
+    }
+
+    // git spawns, Maven forks and reactor reloads within budget.properties
+    helper.assertWithinBudget()
+
+    helper.tearDown()
+
+    println "verify.groovy complete"
+
+} catch (Exception e) {
+    System.err.println(e.getMessage())
+    return false;
+}
@@ -6,15 +6,15 @@ try {
 
     def helper = new SetupVerifyScriptHelper(basedir, localRepositoryPath, context)
 
-    // vagrant-maven-plugin invoked
-    helper.assertBuildLogContains("vagrant-maven-plugin:")
-
     // feature-start goal successful
     helper.assertBuildLogContains(":feature-start")
 
     // the feature branch should be created
     helper.featureBranchExists("Feature-123")
 
+    // git spawns, Maven forks and reactor reloads within budget.properties
+    helper.assertWithinBudget()
+
     helper.tearDown()
 
     println "verify.groovy complete"
@@ -0,0 +1,24 @@
+import com.dkirrane.maven.plugins.ggitflow.SetupVerifyScriptHelper;
+
+try {
+
+    println "setup.groovy start"
+
+    def helper = new SetupVerifyScriptHelper(basedir, localRepositoryPath, context)
+    helper.setUp()
+
+    // 1.0 released on master, develop on 1.1-SNAPSHOT, hotfix/1.0.1 started from master
+    helper.tag("1.0")
+    helper.createBranch("develop")
+    helper.commitVersion("1.1-SNAPSHOT")
+    helper.checkout("master")
+    helper.createBranch("hotfix/1.0.1")
+    helper.commitVersion("1.0.1-SNAPSHOT")
+    helper.commitFile("hotfix.txt", "1.0.1")
+
+    println "setup.groovy complete"
+
+} catch (Exception e) {
+    System.err.println(e.getMessage())
+    return false;
+}
@@ -0,0 +1,23 @@
+import com.dkirrane.maven.plugins.ggitflow.SetupVerifyScriptHelper;
+
+try {
+
+    println "setup.groovy start"
+
+    def helper = new SetupVerifyScriptHelper(basedir, localRepositoryPath, context)
+    helper.setUp()
+
+    // release/1.0 started from develop, develop moved on to 1.1-SNAPSHOT
+    helper.createBranch("develop")
+    helper.createBranch("release/1.0")
+    helper.commitFile("release.txt", "1.0")
+    helper.checkout("develop")
+    helper.commitVersion("1.1-SNAPSHOT")
+    helper.checkout("release/1.0")
+
+    println "setup.groovy complete"
+
+} catch (Exception e) {
+    System.err.println(e.getMessage())
+    return false;
+}
@@ -0,0 +1,30 @@
+import com.dkirrane.maven.plugins.ggitflow.SetupVerifyScriptHelper;
+
+try {
+
+    println "verify.groovy start"
+
+    def helper = new SetupVerifyScriptHelper(basedir, localRepositoryPath, context)
+
+    // release-finish goal successful
+    helper.assertBuildLogContains(":release-finish")
+
+    // the release is tagged and merged into master and develop
+    helper.assertCurrentBranch("develop")
+    helper.tagExists("1.0")
+    helper.assertBranchVersion("master", "1.0")
+    helper.assertBranchContains("master", "release.txt")
+    helper.assertBranchVersion("develop", "1.1-SNAPSHOT")
+    helper.assertBranchContains("develop", "release.txt")
+
+    // git spawns, Maven forks and reactor reloads within budget.properties
+    helper.assertWithinBudget()
+
+    helper.tearDown()
+
+    println "verify.groovy complete"
+
+} catch (Exception e) {
+    System.err.println(e.getMessage())
+    return false;
+}
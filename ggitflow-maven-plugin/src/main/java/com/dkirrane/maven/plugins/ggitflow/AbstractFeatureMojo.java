@@ -16,6 +16,7 @@
 package com.dkirrane.maven.plugins.ggitflow;
 
 import static com.dkirrane.gitflow.groovy.Constants.DEFAULT_FEATURE_BRN_PREFIX;
+import com.google.common.base.CharMatcher;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.StringUtils;
@@ -57,7 +58,7 @@ public class AbstractFeatureMojo extends AbstractGitflowMojo {
         }
 
         // remove whitespace
-        name = name.replaceAll("\\s+", "");
+        name = CharMatcher.whitespace().removeFrom(name);
 
         // trim off starting any leading 'feature/' prefix
         String prefix = getFeatureBranchPrefix();
@@ -20,39 +20,68 @@ import com.dkirrane.gitflow.groovy.GitflowInit;
 import com.dkirrane.gitflow.groovy.ex.GitCommandException;
 import com.dkirrane.gitflow.groovy.ex.GitflowException;
 import com.dkirrane.maven.plugins.ggitflow.ex.ExceptionMapper;
+import com.dkirrane.maven.plugins.ggitflow.git.ChangedFiles;
+import com.dkirrane.maven.plugins.ggitflow.git.CommitGraph;
+import com.dkirrane.maven.plugins.ggitflow.git.GitProcess;
+import com.dkirrane.maven.plugins.ggitflow.git.PomMergeDriver;
+import com.dkirrane.maven.plugins.ggitflow.git.RefIndex;
+import com.dkirrane.maven.plugins.ggitflow.git.RemoteRefs;
+import com.dkirrane.maven.plugins.ggitflow.model.ChangedModules;
+import com.dkirrane.maven.plugins.ggitflow.model.ModelCache;
+import com.dkirrane.maven.plugins.ggitflow.model.ParallelProjectBuilder;
+import com.dkirrane.maven.plugins.ggitflow.model.ReactorSnapshot;
+import com.dkirrane.maven.plugins.ggitflow.model.ReactorSorter;
 import com.dkirrane.maven.plugins.ggitflow.name.Namer;
 import com.dkirrane.maven.plugins.ggitflow.prompt.Prompter;
+import com.dkirrane.maven.plugins.ggitflow.timing.JfrTimingListener;
+import com.dkirrane.maven.plugins.ggitflow.timing.ReactorSummary;
+import com.dkirrane.maven.plugins.ggitflow.timing.Timings;
 import com.dkirrane.maven.plugins.ggitflow.util.MavenUtil;
+import com.dkirrane.maven.plugins.ggitflow.versions.ArtifactPatternMatcher;
+import com.dkirrane.maven.plugins.ggitflow.versions.MetadataCache;
+import com.dkirrane.maven.plugins.ggitflow.versions.NextVersionsResolver;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
 import static com.google.common.collect.Lists.newArrayList;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.exception.ExceptionUtils;
-import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenSession;
-import org.apache.maven.execution.ReactorManager;
-import org.apache.maven.model.Dependency;
-import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
 import org.apache.maven.model.Plugin;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.BuildPluginManager;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
@@ -88,8 +117,6 @@ public class AbstractGitflowMojo extends AbstractMojo {
 
     Scanner scanner = new Scanner(System.in);
 
-    public final Pattern matchSnapshotRegex = Pattern.compile("-SNAPSHOT");
-
     public static final ImmutableList<String> DEFAULT_INSTALL_ARGS = ImmutableList.of(
             "-DinstallAtEnd=false");
 
@@ -100,12 +127,26 @@ public class AbstractGitflowMojo extends AbstractMojo {
     public static final Splitter PROFILES_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
     public static final Joiner PROFILES_JOINER = Joiner.on(',').skipNulls();
 
+    private static final int NEXT_VERSIONS_THREADS = 8;
+
+    /* how long a goal waits, once the user has answered, for work started during a prompt */
+    private static final int PREFETCH_TIMEOUT_SECONDS = 10;
+
+    private static final String FAIL_FAST = "fail-fast";
+    private static final String FAIL_AT_END = "fail-at-end";
+
     private static final Plugin VERSIONS_MVN_PLUGIN = plugin(
             groupId("org.codehaus.mojo"),
             artifactId("versions-maven-plugin"),
             version("2.3")
     );
 
+    /**
+     * Plugins executed in-process by the gitflow goals, resolved ahead of time
+     * by <code>gitflow:download</code>.
+     */
+    static final ImmutableList<Plugin> DELEGATED_PLUGINS = ImmutableList.of(VERSIONS_MVN_PLUGIN);
+
     @Parameter(defaultValue = "${session}", readonly = true)
     protected MavenSession session;
 
@@ -115,6 +156,9 @@ public class AbstractGitflowMojo extends AbstractMojo {
     @Parameter(defaultValue = "${reactorProjects}", readonly = true, required = true)
     protected List<MavenProject> reactorProjects;
 
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    protected MojoExecution mojoExecution;
+
     @Component
     private ProjectBuilder projectBuilder;
 
@@ -127,6 +171,9 @@ public class AbstractGitflowMojo extends AbstractMojo {
     @Component(role = Prompter.class)
     protected Prompter prompter;
 
+    @Component(role = Prompter.class, hint = "batch")
+    private Prompter batchPrompter;
+
     @Component(role = Namer.class)
     protected Namer namer;
 
@@ -157,15 +204,199 @@ public class AbstractGitflowMojo extends AbstractMojo {
     @Parameter(property = "msgSuffix", defaultValue = "", required = false)
     protected String msgSuffix;
 
-    private GitflowInit init;
+    /**
+     * If <code>true</code>, a per-phase timing summary is logged at the end of
+     * the goal.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "reportTimings", defaultValue = "true", required = false)
+    protected boolean reportTimings;
+
+    /**
+     * File the timings are also written to as JSON at the end of the goal,
+     * e.g. for a build to check them. Not written unless set; a file inside
+     * the work tree should be ignored by git, or later goals commit it.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "timingsFile", required = false)
+    protected File timingsFile;
+
+    /**
+     * If <code>true</code>, reactor reloads reuse the effective models cached
+     * in <code>.git/ggitflow/model-cache</code> when no <code>pom.xml</code>,
+     * parent POM, <code>settings.xml</code>, active profile or property the
+     * models depend on changed.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "modelCache", defaultValue = "true", required = false)
+    protected boolean useModelCache;
+
+    /**
+     * Number of threads used to build the module POMs when the reactor is
+     * reloaded after a checkout. With the default of <code>1</code> the
+     * reactor is built recursively from the root POM as Maven does. Larger
+     * reactors reload faster with e.g. <code>4</code>.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "reloadThreads", defaultValue = "1", required = false)
+    protected int reloadThreads;
+
+    /**
+     * If <code>true</code>, <code>updateParent</code> and
+     * <code>updateDependencies</code> read the <code>maven-metadata.xml</code>
+     * of every included artifact concurrently and edit the POMs directly
+     * instead of running the versions-maven-plugin goals. The versions plugin
+     * is still used offline and for repositories that need authentication.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "inProcessVersions", defaultValue = "false", required = false)
+    protected boolean inProcessVersions;
+
+    /**
+     * Number of threads used by the builds the release goals run, passed to
+     * Maven as <code>-T</code>, e.g. <code>4</code> or <code>1C</code> for
+     * one thread per core. Serial if empty.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "buildThreads", defaultValue = "", required = false)
+    protected String buildThreads;
+
+    /**
+     * How the builds the release goals run react to a failed module, one of
+     * <code>fail-fast</code> (stop at the first failure) or
+     * <code>fail-at-end</code> (build every module that does not depend on a
+     * failed one, then fail).
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "buildFailurePolicy", defaultValue = FAIL_FAST, required = false)
+    protected String buildFailurePolicy;
+
+    /**
+     * If <code>true</code>, the finish goals merge into develop with a Git
+     * merge driver for <code>pom.xml</code> that resolves conflicts limited
+     * to reactor <code>&lt;version&gt;</code> elements in favour of the
+     * branch merged into. The release and hotfix branches are then merged
+     * into develop without first committing develop's version to them. The
+     * driver is passed to those merges with <code>-c</code> options, the
+     * repository's configuration and attributes are left alone.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "pomMergeDriver", defaultValue = "false", required = false)
+    protected boolean pomMergeDriver;
+
+    private Timings timings;
+    private PluginGitflowInit init;
+    private CommitGraph commitGraph;
+    private File mergeAttributes;
+    private ModelCache modelCache;
+    private ReactorSnapshot reactorSnapshot;
+    private ArtifactPatternMatcher includesMatcher;
+    private boolean reactorProjectsStale;
     private Path tempDir;
+    private final Speculator speculator = new Speculator();
+    private final StepScheduler steps = new StepScheduler();
 
+    /**
+     * @return the root project of the current reactor, built first if the
+     * last reload only restored the {@link ReactorSnapshot} from the model
+     * cache
+     */
     protected final MavenProject getProject() {
+        if (reactorProjectsStale) {
+            getReactorProjects();
+        }
         return project;
     }
 
     @Override
-    public void execute() throws MojoExecutionException, MojoFailureException {
+    public final void execute() throws MojoExecutionException, MojoFailureException {
+        String goal = (null == mojoExecution) ? getClass().getSimpleName() : mojoExecution.getGoal();
+        timings = new Timings(goal);
+        JfrTimingListener jfr = JfrTimingListener.create(goal);
+        if (null != jfr) {
+            timings.addListener(jfr);
+        }
+        GitProcess.setTimings(timings);
+        if (null != session && !session.getRequest().isInteractiveMode()) {
+            prompter = batchPrompter;
+        }
+        try {
+            phase("init");
+            initGitflow();
+            executeGoal();
+        } finally {
+            speculator.close();
+            steps.close();
+            if (null != init) {
+                init.close();
+            }
+            if (null != mergeAttributes) {
+                if (!mergeAttributes.delete()) {
+                    getLog().debug("Unable to delete " + mergeAttributes);
+                }
+                mergeAttributes = null;
+            }
+            timings.finish();
+            GitProcess.setTimings(null);
+            if (reportTimings) {
+                logTimings();
+            }
+            if (null != timingsFile) {
+                writeTimings();
+            }
+        }
+    }
+
+    /**
+     * Run the goal once the Git repo has been checked and Gitflow initialised.
+     *
+     * @throws MojoExecutionException
+     * @throws MojoFailureException
+     */
+    protected void executeGoal() throws MojoExecutionException, MojoFailureException {
+    }
+
+    /**
+     * Start a new named timing phase. Git commands, reloads and Maven
+     * executions that follow are attributed to this phase.
+     *
+     * @param name phase name
+     */
+    protected final void phase(String name) {
+        getLog().debug("Phase '" + name + "'");
+        timings.phase(name);
+    }
+
+    protected final Timings getTimings() {
+        return timings;
+    }
+
+    private void logTimings() {
+        getLog().info("------------------------------------------------------------------------");
+        for (String line : timings.summary()) {
+            getLog().info(line);
+        }
+        getLog().info("------------------------------------------------------------------------");
+    }
+
+    private void writeTimings() {
+        try {
+            timings.writeJson(timingsFile);
+            getLog().debug("Timings written to " + timingsFile);
+        } catch (IOException ioe) {
+            getLog().warn("Failed to write timings to " + timingsFile, ioe);
+        }
+    }
+
+    private void initGitflow() throws MojoExecutionException, MojoFailureException {
         if (null == project) {
             throw new NullPointerException("MavenProject is null");
         } else {
@@ -215,7 +446,7 @@ public class AbstractGitflowMojo extends AbstractMojo {
     protected final GitflowInit getGitflowInit() {
         if (null == init) {
             getLog().debug("Initialising Gitflow");
-            init = new GitflowInit();
+            init = new PluginGitflowInit(timings);
             File basedir = getProject().getBasedir();
             getLog().debug("Setting base directory " + basedir);
             init.setRepoDir(basedir);
@@ -264,6 +495,197 @@ public class AbstractGitflowMojo extends AbstractMojo {
         return init;
     }
 
+    /**
+     * @return local branches and tags, kept until a git command that may
+     * change them runs
+     */
+    protected final RefIndex getRefIndex() {
+        getGitflowInit();
+        return init.getRefIndex();
+    }
+
+    /**
+     * Check if origin has a branch, using the branches listed once for the
+     * goal and kept up to date with its pushes.
+     *
+     * @param branch branch name e.g. <code>develop</code>
+     * @return <code>true</code> if origin has <code>branch</code>
+     */
+    protected final boolean remoteBranchExists(String branch) {
+        getGitflowInit();
+        RemoteRefs remoteRefs = init.getRemoteRefs();
+        if (null == remoteRefs) {
+            return init.gitRemoteBranchExists(branch);
+        }
+        return remoteRefs.hasBranch(branch);
+    }
+
+    /**
+     * Start listing origin's branches and tags for
+     * {@link #remoteBranchExists}, alongside the following steps.
+     */
+    protected final void readRemoteRefs() {
+        getGitflowInit();
+        steps.read("list " + init.getOrigin() + " refs", new Callable<RemoteRefs>() {
+            @Override
+            public RemoteRefs call() {
+                return init.getRemoteRefs();
+            }
+        });
+    }
+
+    protected final CommitGraph getCommitGraph() {
+        if (null == commitGraph) {
+            commitGraph = new CommitGraph(getGitflowInit().getRepoDir());
+        }
+        return commitGraph;
+    }
+
+    private ModelCache getModelCache() {
+        if (null == modelCache) {
+            File baseDir = ReleaseUtil.getRootProject(reactorProjects).getBasedir();
+            modelCache = new ModelCache(baseDir, new File(getGitflowInit().getRepoDir(), ".git"), session.getRequest());
+        }
+        return modelCache;
+    }
+
+    /**
+     * Start checking if a tag is reachable from a branch e.g. a previous
+     * finish run already merged to master and created the version tag,
+     * alongside the following steps. Call {@link #beforeWrite} before
+     * changing the branch.
+     *
+     * @param tagName the tag name
+     * @param branch local branch name
+     * @return the check for {@link #isTagMerged}
+     */
+    protected final Future<Boolean> readTagMerged(String tagName, String branch) {
+        return readMerged("refs/tags/" + tagName, branch);
+    }
+
+    /**
+     * If git cannot tell, the tag is taken to be merged as it was before
+     * reachability was checked, i.e. the merge to master is skipped.
+     *
+     * @param merged result of {@link #readTagMerged}
+     * @param tagName the tag name
+     * @param branch local branch name
+     * @return <code>true</code> if the tag commit is on the branch
+     */
+    protected final boolean isTagMerged(Future<Boolean> merged, String tagName, String branch) {
+        Boolean tagMerged = getMerged(merged);
+        if (null == tagMerged) {
+            getLog().warn("Unable to check if tag " + tagName + " is on branch '" + branch + "', assuming it is");
+            return true;
+        }
+        return tagMerged;
+    }
+
+    /**
+     * Start checking if the tip of a branch is reachable from another branch
+     * e.g. a previous finish run already merged a release branch into
+     * develop, alongside the following steps. Call {@link #beforeWrite}
+     * before changing either branch.
+     *
+     * @param branch local branch that may be merged
+     * @param target local branch it may be merged into
+     * @return the check for {@link #isBranchMerged}
+     */
+    protected final Future<Boolean> readBranchMerged(String branch, String target) {
+        return readMerged("refs/heads/" + branch, target, StepScheduler.branch(branch));
+    }
+
+    /**
+     * If git cannot tell, the branch is taken not to be merged and the merge
+     * is run as it was before reachability was checked.
+     *
+     * @param merged result of {@link #readBranchMerged}
+     * @param branch local branch that may be merged
+     * @param target local branch it may be merged into
+     * @return <code>true</code> if the tip of <code>branch</code> is on
+     * <code>target</code>
+     */
+    protected final boolean isBranchMerged(Future<Boolean> merged, String branch, String target) {
+        Boolean branchMerged = getMerged(merged);
+        if (null == branchMerged) {
+            getLog().warn("Unable to check if branch '" + branch + "' is on branch '" + target + "', merging it");
+            return false;
+        }
+        return branchMerged;
+    }
+
+    private Future<Boolean> readMerged(final String ref, final String target, String... reads) {
+        final CommitGraph commitGraph = getCommitGraph();
+        String[] resources = Arrays.copyOf(reads, reads.length + 1);
+        resources[reads.length] = StepScheduler.branch(target);
+        return steps.read("check " + ref + " on " + target, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return isMerged(commitGraph, ref, target);
+            }
+        }, resources);
+    }
+
+    private Boolean getMerged(Future<Boolean> merged) {
+        try {
+            return merged.get();
+        } catch (ExecutionException ex) {
+            getLog().debug("Unable to check reachability", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * @return <code>null</code> if neither <code>for-each-ref --merged</code>
+     * nor <code>merge-base --is-ancestor</code> can tell
+     */
+    private static Boolean isMerged(CommitGraph commitGraph, String ref, String target) {
+        Set<String> merged = commitGraph.mergedInto(target, Arrays.asList(ref));
+        if (null != merged) {
+            return merged.contains(ref);
+        }
+        return commitGraph.isAncestor(ref, target);
+    }
+
+    /**
+     * Find the modules changed since the last release tag reachable from the
+     * current branch, with a single <code>git diff --name-only</code>. POMs
+     * whose only change is the reactor version are not counted.
+     *
+     * @return the changed modules, their dependents and the modules those
+     * need, in build order, or <code>null</code> if there is no previous
+     * release tag to compare with
+     * @throws MojoExecutionException if the reactor cannot be sorted
+     */
+    protected final List<ReactorSnapshot.Module> getChangedModules() throws MojoExecutionException {
+        ChangedFiles changedFiles = new ChangedFiles(getGitflowInit().getRepoDir());
+        String tagPrefix = getVersionTagPrefix();
+        String lastTag = changedFiles.lastTag(tagPrefix);
+        if (null == lastTag) {
+            getLog().info("No previous release tag, all modules are treated as changed");
+            return null;
+        }
+
+        ReactorSnapshot snapshot = getReactorSnapshot();
+        List<String> versions = Arrays.asList(lastTag.substring(tagPrefix.length()), snapshot.getVersion());
+        List<String> paths = changedFiles.since(lastTag, versions);
+        if (null == paths) {
+            getLog().warn("Failed to diff with " + lastTag + ", all modules are treated as changed");
+            return null;
+        }
+        getLog().debug(paths.size() + " files changed since " + lastTag);
+
+        try {
+            List<ReactorSnapshot.Module> modules = ChangedModules.select(snapshot, getGitflowInit().getRepoDir(), paths);
+            getLog().info(modules.size() + " of " + snapshot.size() + " modules changed since " + lastTag);
+            return modules;
+        } catch (CycleDetectedException | DuplicateProjectException ex) {
+            throw new MojoExecutionException("Failed to sort reactor projects", ex);
+        }
+    }
+
     public String getVersionTagPrefix() {
         String prefix = getGitflowInit().getVersionTagPrefix();
         if (null == prefix) {
@@ -273,9 +695,10 @@ public class AbstractGitflowMojo extends AbstractMojo {
     }
 
     protected final boolean setVersion(String version, String branch, boolean push) throws MojoExecutionException, MojoFailureException {
-        MavenProject rootProject = MavenUtil.getRootProject(reactorProjects);
+        List<MavenProject> projects = getReactorProjects();
+        MavenProject rootProject = MavenUtil.getRootProject(projects);
         session.setCurrentProject(rootProject);
-        session.setProjects(reactorProjects);
+        session.setProjects(projects);
         MavenProject topLevelProject = session.getTopLevelProject();
         session.setCurrentProject(topLevelProject);
 
@@ -300,7 +723,7 @@ public class AbstractGitflowMojo extends AbstractMojo {
             getGitflowInit().executeLocal(cmtPom);
 
             String currentBranch = getGitflowInit().gitCurrentBranch();
-            if (push && getGitflowInit().gitRemoteBranchExists(currentBranch)) {
+            if (push && remoteBranchExists(currentBranch)) {
                 String origin = getGitflowInit().getOrigin();
                 String[] cmtPush = {"git", "push", origin, currentBranch};
                 Integer exitCode = getGitflowInit().executeRemote(cmtPush);
@@ -321,9 +744,58 @@ public class AbstractGitflowMojo extends AbstractMojo {
     protected final boolean setNextVersions(Boolean allowSnapshots, Boolean updateParent, String includes) throws MojoExecutionException, MojoFailureException {
         getLog().debug("setNextVersions");
 
-        MavenProject rootProject = MavenUtil.getRootProject(reactorProjects);
+        List<String> repositoryUrls = inProcessVersions ? getMetadataRepositoryUrls() : null;
+        if (null != repositoryUrls) {
+            resolveNextVersions(repositoryUrls, allowSnapshots, updateParent, includes);
+        } else {
+            executeNextVersions(allowSnapshots, updateParent, includes);
+        }
+
+        boolean commitMade = false;
+        if (!getGitflowInit().gitIsCleanWorkingTree()) {
+            String msg;
+            if (allowSnapshots) {
+                msg = getMsgPrefix() + "Replaces any release versions with the next snapshot version (if it has been deployed)." + getMsgSuffix();
+            } else {
+                msg = getMsgPrefix() + "Replaces snapshot versions with the corresponding release version" + getMsgSuffix();
+            }
+
+            getGitflowInit().executeLocal("git add -A .");
+            String[] cmtPom = {"git", "commit", "-m", "\"" + msg + "\""};
+            getGitflowInit().executeLocal(cmtPom);
+
+            String currentBranch = getGitflowInit().gitCurrentBranch();
+            if (remoteBranchExists(currentBranch)) {
+                String origin = getGitflowInit().getOrigin();
+                String[] cmtPush = {"git", "push", origin, currentBranch};
+                Integer exitCode = getGitflowInit().executeRemote(cmtPush);
+                if (exitCode != 0) {
+                    throw new MojoExecutionException("Failed to push version change to origin. ExitCode:" + exitCode);
+                }
+            }
+            commitMade = true;
+        }
+        return commitMade;
+    }
+
+    /**
+     * Run <code>versions:update-parent</code> and
+     * <code>versions:use-next-versions</code> on the reactor.
+     */
+    private void executeNextVersions(Boolean allowSnapshots, Boolean updateParent, String includes) throws MojoExecutionException, MojoFailureException {
+        boolean useNextVersions = !StringUtils.isBlank(includes);
+        if (useNextVersions && !hasIncludedDependency(getIncludesMatcher(includes))) {
+            getLog().info("No dependency matches <includes> " + includes + ". Skipping dependency updates");
+            useNextVersions = false;
+            if (!updateParent) {
+                return;
+            }
+        }
+
+        List<MavenProject> projects = getReactorProjects();
+        MavenProject rootProject = MavenUtil.getRootProject(projects);
         session.setCurrentProject(rootProject);
-        session.setProjects(reactorProjects);
+        session.setProjects(projects);
         MavenProject topLevelProject = session.getTopLevelProject();
         session.setCurrentProject(topLevelProject);
 
@@ -341,7 +813,7 @@ public class AbstractGitflowMojo extends AbstractMojo {
             getLog().info("------------------------------------------------------------------------");
         }
 
-        if (!StringUtils.isBlank(includes)) {
+        if (useNextVersions) {
             String useNextVersionsGoal = goal("use-next-versions");
             Xpp3Dom configuration = configuration(
                     element(name("generateBackupPoms"), "false"),
@@ -354,35 +826,93 @@ public class AbstractGitflowMojo extends AbstractMojo {
             getLog().info("--- " + mavenCommand + " " + topLevelProject.getArtifactId() + " ---");
             executeMyMojo(VERSIONS_MVN_PLUGIN, useNextVersionsGoal, configuration);
             getLog().info("------------------------------------------------------------------------");
-        } else {
+        } else if (StringUtils.isBlank(includes)) {
             getLog().warn("Parameter <includes> is not set. Skipping dependency updates");
         }
+    }
 
-        boolean commitMade = false;
-        if (!getGitflowInit().gitIsCleanWorkingTree()) {
-            String msg;
-            if (allowSnapshots) {
-                msg = getMsgPrefix() + "Replaces any release versions with the next snapshot version (if it has been deployed)." + getMsgSuffix();
-            } else {
-                msg = getMsgPrefix() + "Replaces snapshot versions with the corresponding release version" + getMsgSuffix();
+    /**
+     * @param includes comma separated <code>includes</code> patterns
+     * @return the patterns compiled, reused while <code>includes</code> does
+     * not change
+     */
+    protected final ArtifactPatternMatcher getIncludesMatcher(String includes) {
+        if (null == includesMatcher || !includesMatcher.toString().equals(Strings.nullToEmpty(includes))) {
+            includesMatcher = new ArtifactPatternMatcher(includes);
+        }
+        return includesMatcher;
+    }
+
+    /**
+     * @return <code>true</code> if a dependency or managed dependency of the
+     * reactor, other than a reactor module, matches
+     */
+    private boolean hasIncludedDependency(ArtifactPatternMatcher matcher) {
+        ReactorSnapshot snapshot = getReactorSnapshot();
+        Set<String> reactorIds = new HashSet<>();
+        for (ReactorSnapshot.Module module : snapshot.getModules()) {
+            reactorIds.add(module.getGroupId() + ':' + module.getArtifactId());
+        }
+        for (ReactorSnapshot.Module module : snapshot.getModules()) {
+            for (List<ReactorSnapshot.Gav> dependencies : Arrays.asList(module.getDependencies(), module.getManagedDependencies())) {
+                for (ReactorSnapshot.Gav dependency : dependencies) {
+                    if (!reactorIds.contains(dependency.getGroupId() + ':' + dependency.getArtifactId())
+                            && matcher.matches(dependency.getGroupId(), dependency.getArtifactId(), null, null, dependency.getVersion())) {
+                        return true;
+                    }
+                }
             }
+        }
+        return false;
+    }
 
-            getGitflowInit().executeLocal("git add -A .");
-            String[] cmtPom = {"git", "commit", "-m", "\"" + msg + "\""};
-            getGitflowInit().executeLocal(cmtPom);
+    /**
+     * Update the parent and dependency versions of the reactor POMs in
+     * process, see {@link #inProcessVersions}.
+     */
+    private void resolveNextVersions(List<String> repositoryUrls, Boolean allowSnapshots, Boolean updateParent, String includes) throws MojoExecutionException {
+        if (StringUtils.isBlank(includes)) {
+            getLog().warn("Parameter <includes> is not set. Skipping dependency updates");
+        }
+        Timings.Invocation invocation = timings.start(Timings.MOJO, "ggitflow:next-versions");
+        try {
+            ReactorSnapshot snapshot = getReactorSnapshot();
+            invocation.setProjectCount(snapshot.size());
+            NextVersionsResolver resolver = new NextVersionsResolver(repositoryUrls, MetadataCache.shared(), NEXT_VERSIONS_THREADS);
+            getLog().info("");
+            getLog().info("--- ggitflow:next-versions " + snapshot.getRoot().getArtifactId() + " ---");
+            List<NextVersionsResolver.Update> updates = resolver.update(snapshot, getIncludesMatcher(includes), allowSnapshots, updateParent);
+            for (NextVersionsResolver.Update update : updates) {
+                getLog().info("Updated " + update + " in " + update.getPomFile());
+            }
+            getLog().info("------------------------------------------------------------------------");
+            invocation.setExitCode(0);
+        } catch (IOException ex) {
+            invocation.setExitCode(1);
+            throw new MojoExecutionException("Failed to update versions", ex);
+        } finally {
+            invocation.stop();
+        }
+    }
 
-            String currentBranch = getGitflowInit().gitCurrentBranch();
-            if (getGitflowInit().gitRemoteBranchExists(currentBranch)) {
-                String origin = getGitflowInit().getOrigin();
-                String[] cmtPush = {"git", "push", origin, currentBranch};
-                Integer exitCode = getGitflowInit().executeRemote(cmtPush);
-                if (exitCode != 0) {
-                    throw new MojoExecutionException("Failed to push version change to origin. ExitCode:" + exitCode);
-                }
+    /**
+     * @return URLs of the project's remote repositories or <code>null</code>
+     * if the versions-maven-plugin must be used to read their metadata
+     */
+    private List<String> getMetadataRepositoryUrls() {
+        if (session.isOffline()) {
+            getLog().debug("Offline, using versions-maven-plugin");
+            return null;
+        }
+        List<String> urls = new ArrayList<>();
+        for (ArtifactRepository repository : getProject().getRemoteArtifactRepositories()) {
+            if (null != repository.getAuthentication() || null != repository.getProxy()) {
+                getLog().debug("Repository " + repository.getId() + " needs authentication or a proxy, using versions-maven-plugin");
+                return null;
             }
-            commitMade = true;
+            urls.add(repository.getUrl());
         }
-        return commitMade;
+        return urls;
     }
 
     protected final void executeMyMojo(Plugin plugin, String goal, Xpp3Dom configuration) throws MojoExecutionException, MojoFailureException {
@@ -391,6 +921,8 @@ public class AbstractGitflowMojo extends AbstractMojo {
         String projArtifactId = topLevelProject.getArtifactId();
         getLog().debug("START " + mavenCommand + " on " + projArtifactId);
         getLog().debug("configuration " + configuration.toUnescapedString());
+        Timings.Invocation invocation = timings.start(Timings.MOJO, mavenCommand);
+        invocation.setProjectCount(session.getProjects().size());
 
         /* Maven 3.3.x log settings */
         session.getRequest().setLoggingLevel(MavenExecutionRequest.LOGGING_LEVEL_ERROR);
@@ -455,6 +987,7 @@ public class AbstractGitflowMojo extends AbstractMojo {
                     }
                 }
             }
+            invocation.stop();
             getLog().debug("DONE " + mavenCommand);
         }
     }
@@ -474,18 +1007,58 @@ public class AbstractGitflowMojo extends AbstractMojo {
         env.setSettings(session.getSettings());
         MavenExecutor mavenExecutor = mavenExecutors.get(env.getMavenExecutorId());
 
+        List<String> args = new ArrayList<>(additionalArgs);
+        if (!StringUtils.isBlank(buildThreads)) {
+            args.add("-T");
+            args.add(buildThreads.trim());
+        }
+        if (FAIL_AT_END.equals(buildFailurePolicy)) {
+            args.add("--fail-at-end");
+        } else if (StringUtils.isBlank(buildFailurePolicy) || FAIL_FAST.equals(buildFailurePolicy)) {
+            args.add("--fail-fast");
+        } else {
+            throw new MojoFailureException("Unknown buildFailurePolicy '" + buildFailurePolicy + "', expected " + FAIL_FAST + " or " + FAIL_AT_END);
+        }
+
         Joiner joiner = Joiner.on(" ").skipNulls();
-        String additionalArguments = joiner.join(additionalArgs);
+        String additionalArguments = joiner.join(args);
         getLog().debug("additionalArguments " + additionalArguments);
 
+        Timings.Invocation invocation = timings.start(Timings.MAVEN, goals + " " + additionalArguments);
         try {
             mavenExecutor.executeGoals(basedir, goals, env, false, additionalArguments, result);
+            invocation.setExitCode(0);
+            logReactorSummary(result, invocation);
         } catch (MavenExecutorException ex) {
-            throw new MojoExecutionException(result.getOutput(), ex);
+            invocation.setExitCode(1);
+            List<ReactorSummary.Module> failures = logReactorSummary(result, invocation);
+            String message = failures.isEmpty() ? result.getOutput() : "Build failed in " + failures;
+            throw new MojoExecutionException(message, ex);
+        } finally {
+            invocation.stop();
         }
         getLog().debug("DONE executing " + goals);
     }
 
+    /**
+     * Log the per-module times of a forked build, slowest first.
+     *
+     * @return the modules that failed or were skipped
+     */
+    private List<ReactorSummary.Module> logReactorSummary(ReleaseResult result, Timings.Invocation invocation) {
+        ReactorSummary summary = ReactorSummary.parse(result.getOutput());
+        if (summary.getModules().isEmpty()) {
+            return summary.getFailures();
+        }
+        invocation.setProjectCount(summary.getModules().size());
+        getLog().info("------------------------------------------------------------------------");
+        for (String line : summary.table()) {
+            getLog().info(line);
+        }
+        getLog().info("------------------------------------------------------------------------");
+        return summary.getFailures();
+    }
+
     protected final String getReleaseVersion(String version) throws MojoFailureException {
         getLog().debug("Current Develop version '" + version + "'");
 
@@ -506,29 +1079,36 @@ public class AbstractGitflowMojo extends AbstractMojo {
     }
 
     protected final void checkForSnapshotDependencies() throws MojoExecutionException {
+        checkForSnapshotDependencies(null);
+    }
+
+    /**
+     * @param includes the <code>includes</code> the dependencies were just
+     * updated with or <code>null</code>, used to explain each SNAPSHOT found
+     * @throws MojoExecutionException if a SNAPSHOT parent or dependency exists
+     */
+    protected final void checkForSnapshotDependencies(String includes) throws MojoExecutionException {
         getLog().info("Checking for SNAPSHOT dependencies");
+        ArtifactPatternMatcher matcher = StringUtils.isBlank(includes) ? null : getIncludesMatcher(includes);
         Boolean hasDepSnapshots = false;
         Boolean hasParentSnapshot = false;
-        for (MavenProject mavenProject : reactorProjects) {
-            String artifactId = mavenProject.getArtifactId();
+        for (ReactorSnapshot.Module module : getReactorSnapshot().getModules()) {
+            String artifactId = module.getArtifactId();
 
             /* Check <parent> */
-            Artifact parentArtifact = mavenProject.getParentArtifact();
-            if (parentArtifact != null && parentArtifact.isSnapshot()) {
-                getLog().error("Parent of project " + artifactId + " is a SNAPSHOT " + parentArtifact.getId());
+            ReactorSnapshot.Gav parent = module.getParent();
+            if (parent != null && parent.isSnapshot()) {
+                getLog().error("Parent of project " + artifactId + " is a SNAPSHOT " + parent);
                 hasParentSnapshot = true;
             }
 
             /* Check <dependencyManagement> */
-            DependencyManagement dependencyManagement = mavenProject.getDependencyManagement();
-            if (null != dependencyManagement) {
-                if (checkForSnapshot(artifactId, dependencyManagement.getDependencies())) {
-                    hasDepSnapshots = true;
-                }
+            if (checkForSnapshot(artifactId, module.getManagedDependencies(), matcher)) {
+                hasDepSnapshots = true;
             }
 
             /* Check <dependencies> */
-            if (checkForSnapshot(artifactId, mavenProject.getDependencies())) {
+            if (checkForSnapshot(artifactId, module.getDependencies(), matcher)) {
                 hasDepSnapshots = true;
             }
         }
@@ -538,13 +1118,17 @@ public class AbstractGitflowMojo extends AbstractMojo {
         getLog().info("No SNAPSHOT dependencies found");
     }
 
-    private boolean checkForSnapshot(String artifactId, List<Dependency> dependencies) throws MojoExecutionException {
+    private boolean checkForSnapshot(String artifactId, List<ReactorSnapshot.Gav> dependencies, ArtifactPatternMatcher matcher) throws MojoExecutionException {
         Boolean hasSnapshotDependency = false;
-        for (Dependency dependency : dependencies) {
-            String version = dependency.getVersion();
-            Matcher versionMatcher = matchSnapshotRegex.matcher(version);
-            if (versionMatcher.find() && versionMatcher.end() == version.length()) {
-                getLog().error("Project " + artifactId + " contains SNAPSHOT dependency: " + dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" + version);
+        for (ReactorSnapshot.Gav dependency : dependencies) {
+            if (dependency.isSnapshot()) {
+                String reason = "";
+                if (null != matcher) {
+                    reason = matcher.matches(dependency.getGroupId(), dependency.getArtifactId(), null, null, dependency.getVersion())
+                            ? " (matches <includes> but no release was found)"
+                            : " (not matched by <includes>)";
+                }
+                getLog().error("Project " + artifactId + " contains SNAPSHOT dependency: " + dependency + reason);
                 hasSnapshotDependency = true;
             }
         }
@@ -553,19 +1137,295 @@ public class AbstractGitflowMojo extends AbstractMojo {
 
     protected final void reloadReactorProjects() {
         getLog().debug("Reloading poms...");
+        Timings.Invocation invocation = timings.start(Timings.RELOAD, String.valueOf(project));
+        try {
+            doReloadReactorProjects();
+            invocation.setProjectCount(getReactorSnapshot().size());
+        } finally {
+            invocation.stop();
+        }
+        getLog().debug("Reloading poms complete");
+    }
 
-        List<MavenProject> updatedReactorProjects = new ArrayList<>();
+    private void doReloadReactorProjects() {
 
         MavenProject rootProject = ReleaseUtil.getRootProject(reactorProjects);
         getLog().debug("rootProject = " + rootProject);
+
+        String cacheKey = null;
+        if (useModelCache) {
+            cacheKey = getModelCache().key();
+            ReactorSnapshot cachedSnapshot = (null == cacheKey) ? null : getModelCache().getSnapshot(cacheKey);
+            if (null != cachedSnapshot) {
+                getLog().debug("Using cached reactor " + cacheKey + ", projects are built when a plugin needs them");
+                reactorSnapshot = cachedSnapshot;
+                reactorProjectsStale = true;
+                /* release the previous branch's projects, keep the root for its basedir, getProject() builds the new one */
+                reactorProjects = newArrayList(rootProject);
+                session.setProjects(reactorProjects);
+                return;
+            }
+        }
+        buildReactorProjects(rootProject, cacheKey);
+    }
+
+    /**
+     * @return the reactor projects, built first if the last reload only
+     * restored the {@link ReactorSnapshot} from the model cache
+     */
+    protected final List<MavenProject> getReactorProjects() {
+        if (reactorProjectsStale) {
+            getLog().debug("Building reactor projects for delegated plugin");
+            Timings.Invocation invocation = timings.start(Timings.RELOAD, String.valueOf(project));
+            try {
+                buildReactorProjects(ReleaseUtil.getRootProject(reactorProjects), null);
+                invocation.setProjectCount(reactorProjects.size());
+            } finally {
+                invocation.stop();
+            }
+        }
+        return reactorProjects;
+    }
+
+    /**
+     * @return GAVs, parents and dependency versions of the current reactor
+     */
+    protected final ReactorSnapshot getReactorSnapshot() {
+        if (null == reactorSnapshot) {
+            reactorSnapshot = ReactorSnapshot.of(reactorProjects);
+        }
+        return reactorSnapshot;
+    }
+
+    /**
+     * @return version of the root project of the current reactor
+     */
+    protected final String getProjectVersion() {
+        return getReactorSnapshot().getVersion();
+    }
+
+    /**
+     * Start reading the project version committed on <code>branch</code>
+     * with <code>git show</code>, alongside the following steps and without
+     * checking the branch out. Call {@link #beforeWrite} before changing the
+     * branch.
+     *
+     * @param branch local branch
+     * @return the version, <code>null</code> if it cannot be read this way,
+     * e.g. it is set by a property
+     */
+    protected final Future<String> readBranchVersion(final String branch) {
+        final File repoDir = getGitflowInit().getRepoDir();
+        final String pomPath;
+        try {
+            File pomFile = ReleaseUtil.getRootProject(reactorProjects).getFile().getAbsoluteFile();
+            pomPath = repoDir.getAbsoluteFile().toPath().relativize(pomFile.toPath()).toString().replace(File.separatorChar, '/');
+        } catch (IllegalArgumentException ex) {
+            getLog().debug("POM is not below " + repoDir + ": " + ex.getMessage());
+            return Futures.immediateFuture(null);
+        }
+        return steps.read("read " + branch + " version", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                GitProcess.Result result = GitProcess.run(repoDir, "show", branch + ':' + pomPath);
+                if (!result.isSuccess()) {
+                    getLog().debug("Unable to read " + pomPath + " on " + branch + ": " + result.getStderr());
+                    return null;
+                }
+                Model model = new MavenXpp3Reader().read(new StringReader(result.getStdout()), false);
+                String version = model.getVersion();
+                if (null == version && null != model.getParent()) {
+                    version = model.getParent().getVersion();
+                }
+                return (null == version || version.contains("${")) ? null : version;
+            }
+        }, StepScheduler.branch(branch));
+    }
+
+    /**
+     * @param version result of {@link #readBranchVersion}
+     * @param branch the branch it was read from
+     * @return the version read or, if that failed, the version after checking
+     * <code>branch</code> out and reloading the reactor
+     * @throws MojoExecutionException
+     * @throws MojoFailureException
+     */
+    protected final String getBranchVersion(Future<String> version, String branch) throws MojoExecutionException, MojoFailureException {
+        String branchVersion = null;
+        try {
+            branchVersion = version.get();
+        } catch (ExecutionException ex) {
+            getLog().debug("Unable to read version of " + branch, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (null == branchVersion) {
+            getGitflowInit().executeLocal("git checkout " + branch);
+            reloadReactorProjects();
+            branchVersion = getProjectVersion();
+        }
+        return branchVersion;
+    }
+
+    /**
+     * Wait for the background steps reading <code>branches</code> before
+     * changing them.
+     *
+     * @param branches local branches about to be written
+     */
+    protected final void beforeWrite(String... branches) {
+        String[] resources = new String[branches.length];
+        for (int i = 0; i < branches.length; i++) {
+            resources[i] = StepScheduler.branch(branches[i]);
+        }
+        steps.write(resources);
+    }
+
+    /**
+     * Use {@link PomMergeDriver} for <code>pom.xml</code> in the goal's
+     * following merges if <code>pomMergeDriver</code> is set.
+     *
+     * The driver is defined with <code>-c merge.&lt;name&gt;.driver</code>
+     * and assigned to <code>pom.xml</code> in a temporary copy of the user's
+     * attributes file, passed with <code>-c core.attributesFile</code>.
+     * Nothing is written to the repository.
+     *
+     * @return <code>true</code> if merges now resolve version-only POM
+     * conflicts in favour of the branch merged into
+     */
+    protected final boolean registerPomMergeDriver() {
+        if (!pomMergeDriver) {
+            return false;
+        }
+        String driver = pomMergeDriverCommand();
+        if (null == driver) {
+            getLog().warn("Unable to locate the plugin jar, not using the POM merge driver");
+            return false;
+        }
+        try {
+            if (null == mergeAttributes) {
+                mergeAttributes = writePomMergeAttributes(getGitflowInit().getRepoDir());
+            }
+        } catch (IOException ex) {
+            getLog().warn("Unable to write the POM merge driver attributes: " + ex.getMessage());
+            return false;
+        }
+        init.setMergeOptions(pomMergeOptions(driver, mergeAttributes));
+        getLog().debug("Merging with POM merge driver: " + driver);
+        return true;
+    }
+
+    /**
+     * @return the command git runs {@link PomMergeDriver} with, from the
+     * plugin jar, <code>null</code> if the jar cannot be located
+     */
+    static String pomMergeDriverCommand() {
+        CodeSource codeSource = PomMergeDriver.class.getProtectionDomain().getCodeSource();
+        if (null == codeSource) {
+            return null;
+        }
+        String classPath;
+        try {
+            classPath = new File(codeSource.getLocation().toURI()).getAbsolutePath();
+        } catch (URISyntaxException | IllegalArgumentException ex) {
+            return null;
+        }
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getAbsolutePath();
+        return shellQuote(java) + " -cp " + shellQuote(classPath) + " " + PomMergeDriver.class.getName() + " %O %A %B %L %P";
+    }
+
+    /**
+     * @param driver merge driver command
+     * @param attributes attributes file that assigns <code>pom.xml</code> to
+     * the driver
+     * @return the git options that merge with the driver
+     */
+    static String[] pomMergeOptions(String driver, File attributes) {
+        String key = "merge." + PomMergeDriver.NAME;
+        return new String[]{
+            "-c", key + ".name=ggitflow POM version merge driver",
+            "-c", key + ".driver=" + driver,
+            "-c", "core.attributesFile=" + attributes.getAbsolutePath()};
+    }
+
+    /**
+     * Copy the attributes file git would use for <code>repoDir</code> to a
+     * temporary file and assign <code>pom.xml</code> to
+     * {@link PomMergeDriver} in it.
+     *
+     * @param repoDir repository directory
+     * @return the temporary attributes file
+     * @throws IOException if it cannot be written
+     */
+    static File writePomMergeAttributes(File repoDir) throws IOException {
+        GitProcess.Result configured = GitProcess.run(repoDir, "config", "--path", "--get", "core.attributesFile");
+        File userAttributes;
+        if (configured.isSuccess()) {
+            userAttributes = new File(configured.getStdout().trim());
+        } else {
+            String xdg = System.getenv("XDG_CONFIG_HOME");
+            File configHome = StringUtils.isBlank(xdg) ? new File(System.getProperty("user.home"), ".config") : new File(xdg);
+            userAttributes = new File(new File(configHome, "git"), "attributes");
+        }
+        List<String> lines = userAttributes.isFile()
+                ? new ArrayList<>(Files.readAllLines(userAttributes.toPath(), StandardCharsets.UTF_8))
+                : new ArrayList<String>();
+        lines.add("pom.xml merge=" + PomMergeDriver.NAME);
+
+        File file = File.createTempFile("ggitflow-attributes", null);
+        file.deleteOnExit();
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String shellQuote(String path) {
+        /* Git runs merge drivers with sh, also on Windows */
+        return "'" + path.replace(File.separatorChar, '/').replace("'", "'\\''") + "'";
+    }
+
+    /**
+     * Check that a merge into <code>branch</code> kept its version and set it
+     * back otherwise. The POM merge driver only sees a version the branch
+     * merged in changed if <code>branch</code> changed it as well.
+     *
+     * @param version the version of <code>branch</code> before the merge
+     * @param branch the branch merged into
+     * @throws MojoExecutionException
+     * @throws MojoFailureException
+     */
+    protected final void keepBranchVersion(String version, String branch) throws MojoExecutionException, MojoFailureException {
+        String merged = getBranchVersion(readBranchVersion(branch), branch);
+        if (version.equals(merged)) {
+            return;
+        }
+        getLog().info("Merge changed '" + branch + "' to version " + merged + ", setting it back to " + version);
+        if (!branch.equals(getGitflowInit().gitCurrentBranch())) {
+            getGitflowInit().executeLocal("git checkout " + branch);
+        }
+        reloadReactorProjects();
+        setVersion(version, branch, false);
+    }
+
+    private void buildReactorProjects(MavenProject rootProject, String cacheKey) {
+        List<MavenProject> updatedReactorProjects = new ArrayList<>();
         try {
             if (rootProject.getFile().exists() && rootProject.getFile().canRead()) {
                 MavenExecutionRequest mavenExecutionRequest = session.getRequest();
                 ProjectBuildingRequest projectBuildingRequest = mavenExecutionRequest.getProjectBuildingRequest();
                 try {
-                    List<ProjectBuildingResult> buildResults = projectBuilder.build(newArrayList(rootProject.getFile()), true, projectBuildingRequest);
-                    for (ProjectBuildingResult buildResult : buildResults) {
-                        MavenProject reloadProject = buildResult.getProject();
+                    List<MavenProject> builtProjects = null;
+                    if (reloadThreads > 1) {
+                        ParallelProjectBuilder parallelBuilder = new ParallelProjectBuilder(projectBuilder, reloadThreads);
+                        builtProjects = parallelBuilder.build(rootProject.getFile(), projectBuildingRequest, mavenExecutionRequest.getActiveProfiles());
+                    }
+                    if (null == builtProjects) {
+                        builtProjects = new ArrayList<>();
+                        List<ProjectBuildingResult> buildResults = projectBuilder.build(newArrayList(rootProject.getFile()), true, projectBuildingRequest);
+                        for (ProjectBuildingResult buildResult : buildResults) {
+                            builtProjects.add(buildResult.getProject());
+                        }
+                    }
+                    for (MavenProject reloadProject : builtProjects) {
                         reloadProject.setActiveProfiles(rootProject.getActiveProfiles());
                         updatedReactorProjects.add(reloadProject);
                     }
@@ -578,13 +1438,23 @@ public class AbstractGitflowMojo extends AbstractMojo {
             throw ex;
         }
 
+        /* a snapshot restored from the model cache describes the same POMs, reuse its order */
+        ReactorSnapshot cachedSnapshot = reactorProjectsStale ? reactorSnapshot : null;
         try {
-            ReactorManager reactorManager = new ReactorManager(updatedReactorProjects);
-            updatedReactorProjects = reactorManager.getSortedProjects();
+            updatedReactorProjects = ReactorSorter.sort(updatedReactorProjects, cachedSnapshot);
         } catch (CycleDetectedException | DuplicateProjectException ex) {
             getLog().error("Failed to sort reactor projects", ex);
         }
 
+        reactorSnapshot = cachedSnapshot;
+        if (null != cacheKey && !updatedReactorProjects.isEmpty()) {
+            reactorSnapshot = getModelCache().put(cacheKey, updatedReactorProjects);
+        }
+        reactorProjectsStale = false;
+        setReactorProjects(updatedReactorProjects);
+    }
+
+    private void setReactorProjects(List<MavenProject> updatedReactorProjects) {
         session.setProjects(updatedReactorProjects);
         project = ReleaseUtil.getRootProject(updatedReactorProjects);
         reactorProjects = updatedReactorProjects;
@@ -613,8 +1483,118 @@ public class AbstractGitflowMojo extends AbstractMojo {
 //                }
             }
         }
+    }
 
-        getLog().debug("Reloading poms complete");
+    /**
+     * Order local branches by the date of their last commit, most recent
+     * first, using a single <code>git for-each-ref</code>.
+     *
+     * @param branches local branch names
+     * @return the branches, most recently committed to first
+     */
+    protected final List<String> sortByRecency(List<String> branches) {
+        GitProcess.Result result = GitProcess.run(getGitflowInit().getRepoDir(),
+                "for-each-ref", "--sort=-committerdate", "--format=%(refname:short)", "refs/heads");
+        if (!result.isSuccess()) {
+            getLog().debug("Failed to sort branches by commit date: " + result.getStderr());
+            return new ArrayList<>(branches);
+        }
+        Set<String> remaining = new LinkedHashSet<>(branches);
+        List<String> sorted = new ArrayList<>(branches.size());
+        for (String branch : result.getLines()) {
+            if (remaining.remove(branch)) {
+                sorted.add(branch);
+            }
+        }
+        sorted.addAll(remaining);
+        return sorted;
+    }
+
+    /**
+     * While the user answers the next prompt, fetch <code>branches</code> from
+     * origin in the background. Tags are not fetched, so local branches and
+     * tags stay as they are. Does nothing in batch mode.
+     *
+     * @param branches branches to fetch
+     */
+    protected final void prefetchBranches(String... branches) {
+        if (!session.getRequest().isInteractiveMode()) {
+            return;
+        }
+        final File repoDir = getGitflowInit().getRepoDir();
+        final List<String> args = newArrayList("fetch", "--quiet", "--no-tags", getGitflowInit().getOrigin());
+        args.addAll(Arrays.asList(branches));
+        speculator.submit("fetch of " + Arrays.toString(branches), new Runnable() {
+            @Override
+            public void run() {
+                GitProcess.Result result = GitProcess.runUnattended(repoDir, args.toArray(new String[args.size()]));
+                if (!result.isSuccess()) {
+                    throw new IllegalStateException(result.getStderr().trim());
+                }
+            }
+        });
+    }
+
+    /**
+     * While the user answers the next prompt, read the repository metadata a
+     * following in-process {@link #setNextVersions} of the current reactor
+     * needs into {@link MetadataCache#shared()}. Entries are revalidated when
+     * used, so metadata that changes in the meantime is read again. Does
+     * nothing in batch mode.
+     *
+     * @param updateParent if the parent will be updated
+     * @param includes artifact patterns that will be updated
+     */
+    protected final void prefetchNextVersions(boolean updateParent, String includes) {
+        if (!session.getRequest().isInteractiveMode() || !inProcessVersions) {
+            return;
+        }
+        List<String> repositoryUrls = getMetadataRepositoryUrls();
+        if (null == repositoryUrls) {
+            return;
+        }
+        final NextVersionsResolver resolver = new NextVersionsResolver(repositoryUrls, MetadataCache.shared(), NEXT_VERSIONS_THREADS);
+        final Set<String> artifactIds;
+        try {
+            artifactIds = resolver.artifactIds(getReactorSnapshot(), getIncludesMatcher(includes), updateParent);
+        } catch (IOException ex) {
+            getLog().debug("Not prefetching metadata: " + ex.getMessage());
+            return;
+        }
+        speculator.submit("metadata of " + artifactIds.size() + " artifacts", new Runnable() {
+            @Override
+            public void run() {
+                resolver.prefetch(artifactIds);
+            }
+        });
+    }
+
+    /**
+     * Wait for the work started by {@link #prefetchBranches} and
+     * {@link #prefetchNextVersions}, dropping whatever is not done within a
+     * few seconds.
+     *
+     * @return <code>true</code> if all of it finished
+     */
+    protected final boolean awaitPrefetch() {
+        return speculator.await(PREFETCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Warn about branches whose remote-tracking branch has commits the local
+     * branch does not, as origin will reject pushing them.
+     *
+     * @param branches local branches about to be pushed
+     */
+    protected final void warnIfBehindOrigin(String... branches) {
+        String origin = getGitflowInit().getOrigin();
+        for (String branch : branches) {
+            String remoteRef = "refs/remotes/" + origin + '/' + branch;
+            GitProcess.Result exists = GitProcess.run(getGitflowInit().getRepoDir(), "rev-parse", "--verify", "--quiet", remoteRef);
+            if (exists.isSuccess() && Boolean.FALSE.equals(getCommitGraph().isAncestor(remoteRef, branch))) {
+                getLog().warn("'" + origin + '/' + branch + "' has commits that are not on '" + branch + "'. Pushing '" + branch + "' will be rejected until they are merged");
+            }
+        }
     }
 
     protected List<String> rearrange(String input, List<String> strings) {
@@ -623,4 +1603,36 @@ public class AbstractGitflowMojo extends AbstractMojo {
         return strings;
     }
 
+    /**
+     * Ask which of the existing <code>type</code> branches to finish, most
+     * recently committed to first and the current branch as the default.
+     *
+     * @param type branch type, e.g. <code>feature</code>
+     * @param prefix branch prefix of the type
+     * @param branches local branches of the type
+     * @return the selected branch
+     * @throws MojoFailureException if the answer cannot be read
+     */
+    protected final String promptForExistingBranch(String type, String prefix, List<String> branches) throws MojoFailureException {
+        return promptForBranch(prompter, type, prefix, getGitflowInit().gitCurrentBranch(), sortByRecency(branches));
+    }
+
+    static String promptForBranch(Prompter prompter, String type, String prefix, String currentBranch, List<String> choices) throws MojoFailureException {
+        /* if current branch is of this type add it to start of list so it is the default in prompt */
+        if (null != currentBranch && currentBranch.startsWith(prefix)) {
+            choices = new ArrayList<>(choices);
+            choices.remove(currentBranch);
+            choices.add(0, currentBranch);
+        }
+
+        String header = Character.toUpperCase(type.charAt(0)) + type.substring(1) + " branches";
+        String name;
+        try {
+            name = prompter.promptChoice(header, "Please select a " + type + " branch to finish", choices);
+        } catch (IOException ex) {
+            throw new MojoFailureException("Error reading " + type + " name from command line " + ex.getMessage());
+        }
+        return name.trim();
+    }
+
 }
@@ -16,6 +16,7 @@
 package com.dkirrane.maven.plugins.ggitflow;
 
 import static com.dkirrane.gitflow.groovy.Constants.DEFAULT_HOTFIX_BRN_PREFIX;
+import com.google.common.base.CharMatcher;
 import org.apache.maven.plugin.MojoFailureException;
 import org.codehaus.plexus.util.StringUtils;
 
@@ -35,7 +36,7 @@ public class AbstractHotfixMojo extends AbstractGitflowMojo {
         }
 
         // remove whitespace
-        name = name.replaceAll("\\s+", "");
+        name = CharMatcher.whitespace().removeFrom(name);
 
         // trim off starting any leading 'hotfix/' prefix
         String prefix = getHotfixBranchPrefix();
@@ -16,10 +16,21 @@
 package com.dkirrane.maven.plugins.ggitflow;
 
 import static com.dkirrane.gitflow.groovy.Constants.DEFAULT_RELEASE_BRN_PREFIX;
+import com.dkirrane.gitflow.groovy.GitflowRelease;
+import com.dkirrane.gitflow.groovy.ex.GitCommandException;
+import com.dkirrane.gitflow.groovy.ex.GitflowException;
+import com.dkirrane.gitflow.groovy.ex.GitflowMergeConflictException;
+import com.google.common.base.CharMatcher;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.StringUtils;
 import org.jfrog.hudson.util.GenericArtifactVersion;
+import static org.jfrog.hudson.util.GenericArtifactVersion.SNAPSHOT_QUALIFIER;
 
 public class AbstractReleaseMojo extends AbstractGitflowMojo {
 
@@ -45,7 +56,7 @@ public class AbstractReleaseMojo extends AbstractGitflowMojo {
         }
 
         // remove whitespace
-        name = name.replaceAll("\\s+", "");
+        name = CharMatcher.whitespace().removeFrom(name);
 
         // trim off starting any leading 'release/' prefix
         String prefix = getReleaseBranchPrefix();
@@ -65,4 +76,376 @@ public class AbstractReleaseMojo extends AbstractGitflowMojo {
         getLog().debug("Project version '" + nextDevelopVersion + "'");
         return nextDevelopVersion.toString();
     }
+
+    /**
+     * Creates the release branch off of the develop branch, moves develop on
+     * to the next development version and leaves the release branch checked
+     * out.
+     *
+     * @param startCommit commit to start the release branch from
+     * @param updateDependencies replace <code>-SNAPSHOT</code> dependencies
+     * with their release versions on the release branch
+     * @param updateParent replace a <code>-SNAPSHOT</code> parent with its
+     * release version on the release branch
+     * @param includes artifact patterns to update
+     * @return the release branch
+     * @throws MojoExecutionException
+     * @throws MojoFailureException
+     */
+    protected final String startRelease(String startCommit, boolean updateDependencies, boolean updateParent, String includes) throws MojoExecutionException, MojoFailureException {
+        /* Switch to develop branch and get its current version */
+        phase("read develop version");
+        getGitflowInit().executeLocal("git checkout " + getGitflowInit().getDevelopBranch());
+        reloadReactorProjects();
+
+        String developVersion = getProjectVersion();
+        getLog().info("Current develop version = " + developVersion);
+
+        /* Get next development version */
+        phase("prompt");
+        String developBranch = getGitflowInit().getDevelopBranch();
+        prefetchBranches(developBranch, getGitflowInit().getMasterBranch());
+        if (updateDependencies) {
+            prefetchNextVersions(updateParent, includes);
+        }
+        String nextDevelopVersion = getNextDevelopVersion(developVersion);
+        if (session.getRequest().isInteractiveMode()) {
+            try {
+                nextDevelopVersion = prompter.promptWithDefault("Please enter the next development version? ", nextDevelopVersion);
+            } catch (IOException ex) {
+                exceptionMapper.handle(new MojoExecutionException("Error reading next development version from command line " + ex.getMessage(), ex));
+            }
+        }
+        GenericArtifactVersion nextDevelopArtifactVersion = new GenericArtifactVersion(developVersion);
+        getLog().debug("Next development version = " + nextDevelopArtifactVersion);
+
+        /* Get suggested release version */
+        String releaseVersion = getReleaseVersion(developVersion);
+        getLog().debug("release version = " + releaseVersion);
+
+        /* create release branch */
+        String prefix = getReleaseBranchPrefix();
+        if (!StringUtils.isBlank(releaseName)) {
+            getLog().debug("Using releaseName passed  '" + releaseName + "'");
+        } else if (session.getRequest().isInteractiveMode()) {
+            try {
+                releaseName = prompter.promptWithDefault("Please enter the release branch name? " + prefix, releaseVersion);
+            } catch (IOException ex) {
+                exceptionMapper.handle(new MojoExecutionException("Error reading release name from command line " + ex.getMessage(), ex));
+            }
+        } else {
+            releaseName = releaseVersion;
+        }
+        if (session.getRequest().isInteractiveMode() && awaitPrefetch()) {
+            warnIfBehindOrigin(developBranch);
+        }
+
+        releaseName = trimReleaseName(releaseName);
+
+        if (StringUtils.isBlank(releaseName)) {
+            exceptionMapper.handle(new MojoFailureException("Parameter <releaseName> cannot be null or empty."));
+        }
+
+        GenericArtifactVersion releaseArtifactVersion;
+        try {
+            releaseArtifactVersion = new GenericArtifactVersion(releaseName);
+            if (SNAPSHOT_QUALIFIER.equals(releaseArtifactVersion.getBuildSpecifier())) {
+                throw new IllegalArgumentException("Parameter <releaseName> is not a release version as it contains SNAPSHOT build specifier");
+            }
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException("Parameter <releaseName> value '" + releaseName + "' is not a valid Maven release version.");
+        }
+
+        getLog().info("Starting release '" + releaseName + "'");
+        getLog().debug("msgPrefix '" + getMsgPrefix() + "'");
+        getLog().debug("msgSuffix '" + getMsgSuffix() + "'");
+
+        phase("create release branch");
+        GitflowRelease gitflowRelease = new GitflowRelease();
+        gitflowRelease.setInit(getGitflowInit());
+        gitflowRelease.setMsgPrefix(getMsgPrefix());
+        gitflowRelease.setMsgSuffix(getMsgSuffix());
+        gitflowRelease.setPush(true);
+        gitflowRelease.setStartCommit(startCommit);
+
+        try {
+            gitflowRelease.start(releaseName);
+        } catch (GitCommandException gce) {
+            String header = "Failed to run release start";
+            exceptionMapper.handle(header, gce);
+        } catch (GitflowException ge) {
+            String header = "Failed to run release start";
+            exceptionMapper.handle(header, ge);
+        }
+
+        // current branch should be the release branch
+        String releaseBranch = getGitflowInit().gitCurrentBranch();
+        if (!releaseBranch.startsWith(prefix)) {
+            exceptionMapper.handle(new MojoFailureException("Failed to create release version."));
+        }
+
+        /* Update release branch dependencies to release version */
+        if (updateDependencies) {
+            phase("update release dependencies");
+            reloadReactorProjects();
+            setNextVersions(false, updateParent, includes);
+        }
+
+        // checkout develop branch and update it's version
+        phase("set develop version");
+        getGitflowInit().executeLocal("git checkout " + developBranch);
+        reloadReactorProjects();
+        setVersion(nextDevelopVersion, developBranch, true);
+
+        // checkout release branch again and update it's version to required release version
+        phase("set release version");
+        getGitflowInit().executeLocal("git checkout " + releaseBranch);
+        reloadReactorProjects();
+        setVersion(releaseArtifactVersion.setBuildSpecifier(SNAPSHOT_QUALIFIER).toString(), releaseBranch, true);
+        return releaseBranch;
+    }
+
+    /**
+     * Merges the release branch into master and develop, tags the release
+     * and pushes.
+     *
+     * @param updateDependencies update dependencies to their release versions
+     * before the merge and to the next <code>-SNAPSHOT</code> versions on
+     * develop after it
+     * @param updateParent update the parent along with the dependencies
+     * @param includes artifact patterns to update
+     * @param allowSnapshots finish even if <code>-SNAPSHOT</code> dependencies
+     * remain
+     * @param squash squash the release branch commits before the merge
+     * @param tagMsg release tag message
+     * @param sign sign the release tag
+     * @param signingkey GPG key used to sign the tag
+     * @throws MojoExecutionException
+     * @throws MojoFailureException
+     */
+    protected final void finishRelease(boolean updateDependencies, boolean updateParent, String includes, boolean allowSnapshots,
+            boolean squash, String tagMsg, boolean sign, String signingkey) throws MojoExecutionException, MojoFailureException {
+        getLog().debug("Finishing release");
+        phase("select release branch");
+
+        /* Get release branch name */
+        String prefix = getReleaseBranchPrefix();
+        List<String> releaseBranches = getRefIndex().branches(prefix);
+        if (releaseBranches.isEmpty()) {
+            exceptionMapper.handle(new MojoFailureException("Could not find any local release branch!"));
+        }
+
+        if (StringUtils.isBlank(releaseName)) {
+            if (releaseBranches.size() == 1) {
+                String releaseBranch = releaseBranches.get(0);
+                releaseName = trimReleaseName(releaseBranch);
+            } else {
+                String releaseBranch = promptForExistingBranch("release", prefix, releaseBranches);
+                releaseName = trimReleaseName(releaseBranch);
+            }
+
+        } else {
+            releaseName = trimReleaseName(releaseName);
+            if (!getRefIndex().hasBranch(prefix + releaseName)) {
+                exceptionMapper.handle(new MojoFailureException("No local release branch named '" + prefix + releaseName + "' exists!"));
+            }
+        }
+
+        getLog().info("Finishing release '" + releaseName + "'");
+
+        String releaseBranch = prefix + releaseName;
+        String tagName = getVersionTagPrefix() + releaseName;
+        String developBranch = getGitflowInit().getDevelopBranch();
+        String masterBranch = getGitflowInit().getMasterBranch();
+        String origin = getGitflowInit().getOrigin();
+
+        /* develop is not written before the merge to develop so read its version alongside the release branch steps */
+        Future<String> developVersionStep = readBranchVersion(developBranch);
+
+        /* If tag exists on master we skip merge to master as merge already took place. Possible re-run after merge conflict */
+        boolean tagExists = getRefIndex().hasTag(tagName);
+        Future<Boolean> tagMergedStep = tagExists ? readTagMerged(tagName, masterBranch) : null;
+
+        GitflowRelease gitflowRelease = new GitflowRelease();
+        gitflowRelease.setInit(getGitflowInit());
+        gitflowRelease.setMsgPrefix(getMsgPrefix());
+        gitflowRelease.setMsgSuffix(getMsgSuffix());
+        gitflowRelease.setPush(false);
+        gitflowRelease.setSquash(squash);
+        gitflowRelease.setTagMsg(tagMsg);
+        gitflowRelease.setSign(sign);
+        gitflowRelease.setSigningkey(signingkey);
+
+        /* Switch to release branch and set poms to release version */
+        phase("set release version");
+        getGitflowInit().executeLocal("git checkout " + releaseBranch);
+        reloadReactorProjects();
+        GenericArtifactVersion artifactVersion = new GenericArtifactVersion(getProjectVersion());
+        String releaseVersion;
+        if ("SNAPSHOT".equals(artifactVersion.getBuildSpecifier())) {
+            releaseVersion = getReleaseVersion(getProjectVersion());
+        } else {
+            releaseVersion = getProjectVersion();
+        }
+        getLog().debug("release version = " + releaseVersion);
+
+        if (tagExists && !isTagMerged(tagMergedStep, tagName, masterBranch)) {
+            exceptionMapper.handle(new MojoFailureException("Tag " + tagName + " already exists but is not on branch '" + masterBranch + "'"));
+        }
+        Future<Boolean> developMergedStep;
+        if (!tagExists) {
+
+            /* Before setting release version check if release branch was already merged to master */
+            boolean setVersion = setVersion(releaseVersion, releaseBranch, false); // don't push so can can reset if needed
+
+            /* Update release branch dependencies to release version */
+            boolean setNextVersions = false;
+            if (updateDependencies) {
+                phase("update release dependencies");
+                reloadReactorProjects();
+                setNextVersions = setNextVersions(false, updateParent, includes);
+            }
+
+            if (!allowSnapshots) {
+                phase("check snapshots");
+                reloadReactorProjects();
+                try {
+                    checkForSnapshotDependencies(updateDependencies ? includes : null);
+                } catch (MojoExecutionException mee) {
+                    // reset setNextVersions and/or setVersion commits to allow user fix & push SNAPSHOT dependencies
+                    // but can only reset if it the commits have not been pushed */
+                    if (setNextVersions) {
+                        getGitflowInit().executeLocal("git reset --hard HEAD~1");
+                    }
+                    if (setVersion) {
+                        getGitflowInit().executeLocal("git reset --hard HEAD~1");
+                    }
+                    exceptionMapper.handle(mee);
+                }
+            }
+
+            /* the release branch is not written again so check if it is on develop alongside the merge to master */
+            developMergedStep = readBranchMerged(releaseBranch, developBranch);
+
+            /* 1. merge to master */
+            phase("merge to master");
+            try {
+                gitflowRelease.finishToMaster(releaseBranch, tagName);
+            } catch (GitCommandException gce) {
+                String header = "Error merging branch '" + releaseBranch + "' into '" + masterBranch + "'";
+                exceptionMapper.handle(header, gce);
+            } catch (GitflowException ge) {
+                String header = "Error merging branch '" + releaseBranch + "' into '" + masterBranch + "'";
+                exceptionMapper.handle(header, ge);
+            } catch (GitflowMergeConflictException gmce) {
+                String header = "Merge conflict merging branch '" + releaseBranch + "' into '" + masterBranch + "'";
+                exceptionMapper.handle(header, gmce);
+            }
+        } else {
+            getLog().warn("Tag " + tagName + " already exists. Skipping merge of release branch '" + releaseBranch + "' into '" + masterBranch + "'");
+            developMergedStep = readBranchMerged(releaseBranch, developBranch);
+        }
+
+        /* If release branch is already on develop we skip merge to develop. Possible re-run after merge conflict was resolved */
+        if (!isBranchMerged(developMergedStep, releaseBranch, developBranch)) {
+            /* 2. make versions in release and develop branches match to avoid conflicts */
+            phase("sync develop version");
+            String developVersion = getBranchVersion(developVersionStep, developBranch);
+            getLog().debug("develop version = " + developVersion);
+            boolean mergeDriver = registerPomMergeDriver();
+            boolean setDevVersion = false;
+            if (!mergeDriver) {
+                getGitflowInit().executeLocal("git checkout " + releaseBranch);
+                reloadReactorProjects();
+                setDevVersion = setVersion(developVersion, releaseBranch, false); // don't push so can can reset if needed
+            }
+
+            /* 3. merge to develop */
+            phase("merge to develop");
+            beforeWrite(developBranch);
+            try {
+                gitflowRelease.finishToDevelop(releaseBranch, tagName);
+            } catch (GitCommandException gce) {
+                // reset setVersion commit and allow user fix whatever exception occurred
+                // but can only reset if the commit has not been pushed
+                if (setDevVersion) {
+                    getGitflowInit().executeLocal("git reset --hard HEAD~1");
+                }
+                String header = "Error merging branch '" + releaseBranch + "' into '" + developBranch + "'";
+                exceptionMapper.handle(header, gce);
+            } catch (GitflowException ge) {
+                // reset setVersion commit and allow user fix whatever exception occurred
+                // but can only reset if the commit has not been pushed
+                if (setDevVersion) {
+                    getGitflowInit().executeLocal("git reset --hard HEAD~1");
+                }
+                String header = "Error merging branch '" + releaseBranch + "' into '" + developBranch + "'";
+                exceptionMapper.handle(header, ge);
+            } catch (GitflowMergeConflictException gmce) {
+                String header = "Merge conflict merging branch '" + releaseBranch + "' into '" + developBranch + "'";
+                exceptionMapper.handle(header, gmce);
+            }
+            if (mergeDriver) {
+                keepBranchVersion(developVersion, developBranch);
+            }
+        } else {
+            getLog().warn("Branch '" + releaseBranch + "' already merged into '" + developBranch + "'. Skipping merge of release branch into '" + developBranch + "'");
+            getGitflowInit().executeLocal("git checkout " + developBranch);
+        }
+
+        /* make sure we're on the develop branch */
+        String currentBranch = getGitflowInit().gitCurrentBranch();
+        if (!currentBranch.equals(developBranch)) {
+            throw new MojoFailureException("Current branch should be " + developBranch + " but was " + currentBranch);
+        }
+
+        /* Push merges and tag */
+        phase("push");
+        try {
+            if (session.getRequest().isInteractiveMode()) {
+                prefetchBranches(masterBranch, developBranch);
+                if (updateDependencies) {
+                    prefetchNextVersions(updateParent, includes);
+                }
+                prompter.pushPrompt("Are you ready to push?", Arrays.asList(tagName), Arrays.asList(masterBranch, developBranch), Arrays.asList(releaseBranch, origin + '/' + releaseBranch));
+                boolean yes;
+                try {
+                    yes = prompter.promptYesNo("Do you want to continue");
+                } catch (IOException e) {
+                    throw new MojoFailureException("Error reading user input from command line " + e.getMessage());
+                }
+
+                if (awaitPrefetch() && yes) {
+                    warnIfBehindOrigin(masterBranch, developBranch);
+                }
+                if (yes) {
+                    gitflowRelease.publish(releaseBranch, tagName, true);
+                } else {
+                    gitflowRelease.publish(releaseBranch, tagName, false);
+                }
+            } else {
+                gitflowRelease.publish(releaseBranch, tagName, true);
+            }
+        } catch (GitCommandException gce) {
+            String header = "Failed to push release finish";
+            exceptionMapper.handle(header, gce);
+        } catch (GitflowException ge) {
+            String header = "Failed to push release finish";
+            exceptionMapper.handle(header, ge);
+        }
+
+        /* Update develop branch dependencies to next snapshot version (if deployed) */
+        if (updateDependencies) {
+            phase("update develop dependencies");
+            reloadReactorProjects();
+            setNextVersions(true, updateParent, includes);
+        }
+    }
+
+    private String getNextDevelopVersion(String developVersion) {
+        GenericArtifactVersion artifactVersion = new GenericArtifactVersion(developVersion);
+        artifactVersion.upgradeLeastSignificantPrimaryNumber();
+
+        return artifactVersion.toString();
+    }
 }
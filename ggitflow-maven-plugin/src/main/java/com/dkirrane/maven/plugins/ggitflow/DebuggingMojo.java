@@ -25,9 +25,7 @@ import org.apache.maven.plugin.MojoFailureException;
 public class DebuggingMojo extends AbstractGitflowMojo {
 
     @Override
-    public void execute() throws MojoExecutionException, MojoFailureException {
-        super.execute();
-
+    protected void executeGoal() throws MojoExecutionException, MojoFailureException {
         reloadReactorProjects();
 
         setVersion("1.4", "someBranchName", false);
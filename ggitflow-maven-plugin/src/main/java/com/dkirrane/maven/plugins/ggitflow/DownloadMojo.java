@@ -15,19 +15,174 @@
  */
 package com.dkirrane.maven.plugins.ggitflow;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.BuildPluginManager;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
 
 /**
- * Mojo to just download Gitflow plugin. Does nothing
+ * Mojo to download the Gitflow plugin and everything the Gitflow goals
+ * delegate to.
+ *
+ * The plugins run in-process by the Gitflow goals (versions-maven-plugin) and
+ * the build plugins of the reactor, which the forked install/deploy builds
+ * use, are resolved with their dependencies into the local repository
+ * concurrently, so a later release does not stop half way to download them.
  */
 @Mojo(name = "download", aggregator = true, defaultPhase = LifecyclePhase.PROCESS_SOURCES)
 public class DownloadMojo extends AbstractMojo {
 
+    @Parameter(defaultValue = "${session}", readonly = true)
+    protected MavenSession session;
+
+    @Parameter(defaultValue = "${project}", readonly = true)
+    protected MavenProject project;
+
+    @Parameter(defaultValue = "${reactorProjects}", readonly = true, required = true)
+    protected List<MavenProject> reactorProjects;
+
+    @Component
+    protected BuildPluginManager pluginManager;
+
+    /**
+     * Number of plugins resolved at the same time.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "downloadThreads", defaultValue = "4", required = false)
+    protected int downloadThreads;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
+        Map<String, Plugin> plugins = new LinkedHashMap<>();
+        for (Plugin plugin : AbstractGitflowMojo.DELEGATED_PLUGINS) {
+            plugins.put(plugin.getKey() + ':' + plugin.getVersion(), plugin);
+        }
+        for (MavenProject reactorProject : reactorProjects) {
+            for (Plugin plugin : reactorProject.getBuildPlugins()) {
+                if (null == plugin.getVersion()) {
+                    getLog().debug("Skipping " + plugin.getKey() + " without version");
+                    continue;
+                }
+                plugins.put(plugin.getKey() + ':' + plugin.getVersion(), plugin);
+            }
+        }
+
+        int threads = Math.max(1, Math.min(downloadThreads, plugins.size()));
+        getLog().info("Resolving " + plugins.size() + " plugins with " + threads + " threads");
+        long start = System.nanoTime();
+
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ggitflow-download-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setContextClassLoader(contextClassLoader);
+                return thread;
+            }
+        });
+        Map<String, Future<Resolved>> futures = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Plugin> entry : plugins.entrySet()) {
+                final Plugin plugin = entry.getValue();
+                futures.put(entry.getKey(), pool.submit(new Callable<Resolved>() {
+                    @Override
+                    public Resolved call() throws Exception {
+                        return resolve(plugin);
+                    }
+                }));
+            }
+
+            List<String> failed = new ArrayList<>();
+            int artifacts = 0;
+            getLog().info("------------------------------------------------------------------------");
+            for (Map.Entry<String, Future<Resolved>> future : futures.entrySet()) {
+                try {
+                    Resolved resolved = future.getValue().get();
+                    artifacts += resolved.artifacts;
+                    getLog().info(String.format("%-70s %6d ms %4d artifacts", future.getKey(), resolved.millis, resolved.artifacts));
+                } catch (ExecutionException ex) {
+                    failed.add(future.getKey());
+                    getLog().error(String.format("%-70s FAILED %s", future.getKey(), ex.getCause().getMessage()));
+                    getLog().debug(ex.getCause());
+                }
+            }
+            getLog().info("------------------------------------------------------------------------");
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            getLog().info("Resolved " + (plugins.size() - failed.size()) + " plugins (" + artifacts + " artifacts) in " + millis + " ms");
+            if (!failed.isEmpty()) {
+                throw new MojoFailureException("Failed to resolve plugins " + failed);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted resolving plugins", ex);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Resolved resolve(Plugin plugin) throws Exception {
+        long start = System.nanoTime();
+        PluginDescriptor pluginDescriptor = loadPlugin(plugin);
+        ClassRealm realm = pluginManager.getPluginRealm(session, pluginDescriptor);
+        return new Resolved(realm.getURLs().length, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * {@link BuildPluginManager#loadPlugin} takes Sonatype Aether types on
+     * Maven 3.0.x and Eclipse Aether types from Maven 3.1, so it is called
+     * with whatever the running Maven returns.
+     */
+    private PluginDescriptor loadPlugin(Plugin plugin) throws Exception {
+        Object repositories = MavenProject.class.getMethod("getRemotePluginRepositories").invoke(project);
+        Object repositorySession = MavenSession.class.getMethod("getRepositorySession").invoke(session);
+        for (Method method : BuildPluginManager.class.getMethods()) {
+            if ("loadPlugin".equals(method.getName()) && method.getParameterTypes().length == 3) {
+                try {
+                    return (PluginDescriptor) method.invoke(pluginManager, plugin, repositories, repositorySession);
+                } catch (InvocationTargetException ex) {
+                    Throwable cause = ex.getCause();
+                    throw (cause instanceof Exception) ? (Exception) cause : ex;
+                }
+            }
+        }
+        throw new MojoExecutionException("Unsupported Maven version, BuildPluginManager.loadPlugin not found");
+    }
+
+    private static final class Resolved {
+
+        private final int artifacts;
+        private final long millis;
+
+        private Resolved(int artifacts, long millis) {
+            this.artifacts = artifacts;
+            this.millis = millis;
+        }
     }
 }
@@ -19,10 +19,12 @@ import com.dkirrane.gitflow.groovy.GitflowFeature;
 import com.dkirrane.gitflow.groovy.ex.GitCommandException;
 import com.dkirrane.gitflow.groovy.ex.GitflowException;
 import com.dkirrane.gitflow.groovy.ex.GitflowMergeConflictException;
+import com.dkirrane.maven.plugins.ggitflow.git.SquashMerge;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Future;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -56,7 +58,9 @@ public class FeatureFinishMojo extends AbstractFeatureMojo {
 
     /**
      * If <code>true</code>, all commits to the branch will be squashed into a
-     * single commit before the merge.
+     * single commit before the merge. With Git 2.38 or later and no
+     * conflicts, the commit is made without checking develop out first and
+     * without running commit hooks.
      *
      * @since 1.2
      */
@@ -64,22 +68,22 @@ public class FeatureFinishMojo extends AbstractFeatureMojo {
     private Boolean squash;
 
     @Override
-    public void execute() throws MojoExecutionException, MojoFailureException {
-        super.execute();
+    protected void executeGoal() throws MojoExecutionException, MojoFailureException {
         getLog().debug("Finishing feature");
+        phase("select feature branch");
 
         String prefix = getFeatureBranchPrefix();
-        List<String> featureBranches = getGitflowInit().gitLocalFeatureBranches();
+        List<String> featureBranches = getRefIndex().branches(prefix);
         if (null == featureBranches || featureBranches.isEmpty()) {
             throw new MojoFailureException("No local feature branches exist!");
         }
 
         if (StringUtils.isBlank(featureName)) {
-            String featureBranch = promptForExistingFeatureBranch(prefix, featureBranches);
+            String featureBranch = promptForExistingBranch("feature", prefix, featureBranches);
             featureName = trimFeatureName(featureBranch);
         } else {
             featureName = trimFeatureName(featureName);
-            if (!getGitflowInit().gitLocalBranchExists(prefix + featureName)) {
+            if (!getRefIndex().hasBranch(prefix + featureName)) {
                 throw new MojoFailureException("No local feature branch named '" + prefix + featureName + "' exists!");
             }
         }
@@ -92,21 +96,27 @@ public class FeatureFinishMojo extends AbstractFeatureMojo {
         String origin = getGitflowInit().getOrigin();
 
         if (enableFeatureVersions) {
-            /* Switch to develop branch and get its current version */
-            getGitflowInit().executeLocal("git checkout " + developBranch);
-            reloadReactorProjects();
-            String developVersion = project.getVersion();
-            getLog().debug("develop version = " + developVersion);
+            phase("sync develop version");
+            /* Get develop's current version, read from git while the feature branch is checked out */
+            Future<String> developVersionStep = readBranchVersion(developBranch);
 
             /* Switch to feature branch and get its current version */
             getGitflowInit().executeLocal("git checkout " + featureBranch);
             reloadReactorProjects();
-            String featureVersion = project.getVersion();
+            String featureVersion = getProjectVersion();
             getLog().debug("feature version = " + featureVersion);
+            String developVersion = getBranchVersion(developVersionStep, developBranch);
+            getLog().debug("develop version = " + developVersion);
+            if (!featureBranch.equals(getGitflowInit().gitCurrentBranch())) {
+                getGitflowInit().executeLocal("git checkout " + featureBranch);
+                reloadReactorProjects();
+            }
 
             setVersion(developVersion, featureBranch, false);
         }
 
+        phase("merge to develop");
+        beforeWrite(developBranch);
         GitflowFeature gitflowFeature = new GitflowFeature();
         gitflowFeature.setInit(getGitflowInit());
         gitflowFeature.setMsgPrefix(getMsgPrefix());
@@ -117,7 +127,9 @@ public class FeatureFinishMojo extends AbstractFeatureMojo {
         gitflowFeature.setIsInteractive(isInteractive);
 
         try {
-            gitflowFeature.finish(featureName);
+            if (!squashIntoDevelop(featureBranch, developBranch)) {
+                gitflowFeature.finish(featureName);
+            }
         } catch (GitCommandException gce) {
             String header = "Error merging branch '" + featureBranch + "' into '" + masterBranch + "'";
             exceptionMapper.handle(header, gce);
@@ -137,8 +149,10 @@ public class FeatureFinishMojo extends AbstractFeatureMojo {
         }
 
         /* Push merges and tag */
+        phase("push");
         try {
             if (session.getRequest().isInteractiveMode()) {
+                prefetchBranches(developBranch);
                 prompter.pushPrompt("Are you ready to push?", Collections.EMPTY_LIST, Arrays.asList(developBranch), Arrays.asList(featureBranch, origin + '/' + featureBranch));
                 boolean yes;
                 try {
@@ -147,6 +161,9 @@ public class FeatureFinishMojo extends AbstractFeatureMojo {
                     throw new MojoFailureException("Error reading user input from command line " + e.getMessage());
                 }
 
+                if (awaitPrefetch() && yes) {
+                    warnIfBehindOrigin(developBranch);
+                }
                 if (yes) {
                     gitflowFeature.publish(featureBranch, true);
                 } else {
@@ -164,22 +181,32 @@ public class FeatureFinishMojo extends AbstractFeatureMojo {
         }
     }
 
-    private String promptForExistingFeatureBranch(String prefix, List<String> featureBranches) throws MojoFailureException {
-        List<String> choices = featureBranches;
-
-        /* if current branch is a feature branch at it to start of list so it is the default in prompt */
-        String currentBranch = getGitflowInit().gitCurrentBranch();
-        if (currentBranch.startsWith(prefix)) {
-            choices = rearrange(currentBranch, featureBranches);
+    /**
+     * Squash the feature branch into develop in memory, so develop is only
+     * checked out at the end and only the files that differ from the feature
+     * branch are touched. Then, as the finish would, develop is left checked
+     * out and the local feature branch is deleted.
+     *
+     * @return <code>false</code> if the feature should be finished with
+     * <code>git merge --squash</code> instead, e.g. it conflicts or the
+     * repository has commit hooks to run
+     */
+    private boolean squashIntoDevelop(String featureBranch, String developBranch) {
+        if (!Boolean.TRUE.equals(squash) || isRebase || !getGitflowInit().gitIsCleanWorkingTree()) {
+            return false;
         }
-
-        String name = "";
-        try {
-            prompter.promptChoice("Feature branches", "Please select a feature branch to finish", choices);
-        } catch (IOException ex) {
-            throw new MojoFailureException("Error reading feature name from command line " + ex.getMessage());
+        String msg = getMsgPrefix() + "Merge branch '" + featureBranch + "' into " + developBranch + getMsgSuffix();
+        String commit = SquashMerge.squash(getGitflowInit().getRepoDir(), featureBranch, developBranch, msg);
+        if (null == commit) {
+            getLog().debug("Squashing '" + featureBranch + "' with git merge --squash");
+            return false;
+        }
+        getLog().info("Squashed '" + featureBranch + "' into '" + developBranch + "' as " + commit);
+        if (!developBranch.equals(getGitflowInit().gitCurrentBranch())) {
+            getGitflowInit().executeLocal("git checkout " + developBranch);
         }
-        return name.trim();
+        getGitflowInit().executeLocal(new String[]{"git", "branch", "-D", featureBranch});
+        return true;
     }
 
 }
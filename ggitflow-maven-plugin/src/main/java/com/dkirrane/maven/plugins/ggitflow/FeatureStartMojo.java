@@ -42,9 +42,13 @@ public class FeatureStartMojo extends AbstractFeatureMojo {
     protected String startCommit;
 
     @Override
-    public void execute() throws MojoExecutionException, MojoFailureException {
-        super.execute();
+    protected void executeGoal() throws MojoExecutionException, MojoFailureException {
+        if (enableFeatureVersions) {
+            /* origin's branches are needed to push the feature version, list them while the name is entered */
+            readRemoteRefs();
+        }
 
+        phase("prompt");
         String prefix = getFeatureBranchPrefix();
         if (StringUtils.isBlank(featureName)) {
             String message = "Please enter a feature branch name? " + prefix;
@@ -63,6 +67,7 @@ public class FeatureStartMojo extends AbstractFeatureMojo {
         getLog().debug("msgPrefix '" + getMsgPrefix() + "'");
         getLog().debug("msgSuffix '" + getMsgSuffix() + "'");
 
+        phase("create feature branch");
         GitflowFeature gitflowFeature = new GitflowFeature();
         gitflowFeature.setInit(getGitflowInit());
         gitflowFeature.setMsgPrefix(getMsgPrefix());
@@ -81,6 +86,7 @@ public class FeatureStartMojo extends AbstractFeatureMojo {
         }
 
         if (enableFeatureVersions) {
+            phase("set feature version");
             /* Already on feature branch so just get its current version */
             Model model = MavenUtil.readPom(reactorProjects);
             String currentVersion = model.getVersion();
@@ -88,13 +94,13 @@ public class FeatureStartMojo extends AbstractFeatureMojo {
             String featureVersion = getFeatureVersion(currentVersion, featureName);
             setVersion(featureVersion, prefix + featureName, true);
 
-            if (getGitflowInit().gitRemoteBranchExists(prefix + featureName)) {
+            if (remoteBranchExists(prefix + featureName)) {
                 getGitflowInit().executeRemote("git push " + getGitflowInit().getOrigin() + " " + prefix + featureName);
             }
 
             /* print feature version */
             reloadReactorProjects();
-            getLog().debug("project = " + project.getVersion());
+            getLog().debug("project = " + getProjectVersion());
         }
     }
 
@@ -22,6 +22,7 @@ import com.dkirrane.gitflow.groovy.ex.GitflowMergeConflictException;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Future;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -81,13 +82,13 @@ public class HotfixFinishMojo extends AbstractHotfixMojo {
     private String signingkey;
 
     @Override
-    public void execute() throws MojoExecutionException, MojoFailureException {
-        super.execute();
+    protected void executeGoal() throws MojoExecutionException, MojoFailureException {
         getLog().debug("Finishing hotfix");
+        phase("select hotfix branch");
 
         /* Get hotfix branch name */
         String prefix = getHotfixBranchPrefix();
-        List<String> hotfixBranches = getGitflowInit().gitLocalHotfixBranches();
+        List<String> hotfixBranches = getRefIndex().branches(prefix);
         if (hotfixBranches.isEmpty()) {
             throw new MojoFailureException("Could not find any local hotfix branch!");
         }
@@ -97,13 +98,13 @@ public class HotfixFinishMojo extends AbstractHotfixMojo {
                 String hotfixBranch = hotfixBranches.get(0);
                 hotfixName = trimHotfixName(hotfixBranch);
             } else {
-                String hotfixBranch = promptForExistingHotfixBranch(prefix, hotfixBranches);
+                String hotfixBranch = promptForExistingBranch("hotfix", prefix, hotfixBranches);
                 hotfixName = trimHotfixName(hotfixBranch);
             }
 
         } else {
             hotfixName = trimHotfixName(hotfixName);
-            if (!getGitflowInit().gitLocalBranchExists(prefix + hotfixName)) {
+            if (!getRefIndex().hasBranch(prefix + hotfixName)) {
                 throw new MojoFailureException("No local hotfix branch named '" + prefix + hotfixName + "' exists!");
             }
         }
@@ -116,6 +117,13 @@ public class HotfixFinishMojo extends AbstractHotfixMojo {
         String masterBranch = getGitflowInit().getMasterBranch();
         String origin = getGitflowInit().getOrigin();
 
+        /* develop is not written before the merge to develop so read its version alongside the hotfix branch steps */
+        Future<String> developVersionStep = readBranchVersion(developBranch);
+
+        /* If tag exists on master we skip merge to master as merge already took place. Possible re-run after merge conflict */
+        boolean tagExists = getRefIndex().hasTag(tagName);
+        Future<Boolean> tagMergedStep = tagExists ? readTagMerged(tagName, masterBranch) : null;
+
         GitflowHotfix gitflowHotfix = new GitflowHotfix();
         gitflowHotfix.setInit(getGitflowInit());
         gitflowHotfix.setMsgPrefix(getMsgPrefix());
@@ -127,24 +135,29 @@ public class HotfixFinishMojo extends AbstractHotfixMojo {
         gitflowHotfix.setSigningkey(signingkey);
 
         /* Switch to hotfix branch and set poms to hotfix version */
+        phase("set hotfix version");
         getGitflowInit().executeLocal("git checkout " + hotfixBranch);
         reloadReactorProjects();
-        GenericArtifactVersion artifactVersion = new GenericArtifactVersion(project.getVersion());
+        GenericArtifactVersion artifactVersion = new GenericArtifactVersion(getProjectVersion());
         String hotfixVersion;
         if ("SNAPSHOT".equals(artifactVersion.getBuildSpecifier())) {
-            hotfixVersion = getReleaseVersion(project.getVersion());
+            hotfixVersion = getReleaseVersion(getProjectVersion());
         } else {
-            hotfixVersion = project.getVersion();
+            hotfixVersion = getProjectVersion();
         }
         getLog().debug("hotfix version = " + hotfixVersion);
 
-        /* If tag exists we skip merge to master as merge already took place. Possible re-run after merge conflict */
-        if (!getGitflowInit().gitTagExists(tagName)) { // @TODO and should also check that last hotfix branch commit is on master
+        if (tagExists && !isTagMerged(tagMergedStep, tagName, masterBranch)) {
+            exceptionMapper.handle(new MojoFailureException("Tag " + tagName + " already exists but is not on branch '" + masterBranch + "'"));
+        }
+        Future<Boolean> developMergedStep;
+        if (!tagExists) {
 
             /* Before setting hotfix version check if hotfix branch was already merged to master */
             boolean setVersion = setVersion(hotfixVersion, hotfixBranch, false); // don't push so can can reset if needed
 
             if (!allowSnapshots) {
+                phase("check snapshots");
                 reloadReactorProjects();
                 try {
                     checkForSnapshotDependencies();
@@ -158,7 +171,11 @@ public class HotfixFinishMojo extends AbstractHotfixMojo {
                 }
             }
 
+            /* the hotfix branch is not written again so check if it is on develop alongside the merge to master */
+            developMergedStep = readBranchMerged(hotfixBranch, developBranch);
+
             /* 1. merge to master */
+            phase("merge to master");
             try {
                 gitflowHotfix.finishToMaster(hotfixBranch, tagName);
             } catch (GitCommandException gce) {
@@ -173,39 +190,54 @@ public class HotfixFinishMojo extends AbstractHotfixMojo {
             }
         } else {
             getLog().warn("Tag " + tagName + " already exists. Skipping merge of hotfix branch '" + hotfixBranch + "' into '" + masterBranch + "'");
+            developMergedStep = readBranchMerged(hotfixBranch, developBranch);
         }
 
-        /* 2. make versions in hotfix and develop branches match to avoid conflicts */
-        getGitflowInit().executeLocal("git checkout " + developBranch);
-        reloadReactorProjects();
-        String developVersion = project.getVersion();
-        getLog().debug("develop version = " + developVersion);
-        getGitflowInit().executeLocal("git checkout " + hotfixBranch);
-        reloadReactorProjects();
-        boolean setDevVersion = setVersion(developVersion, hotfixBranch, false); // don't push so can can reset if needed
+        /* If hotfix branch is already on develop we skip merge to develop. Possible re-run after merge conflict was resolved */
+        if (!isBranchMerged(developMergedStep, hotfixBranch, developBranch)) {
+            /* 2. make versions in hotfix and develop branches match to avoid conflicts */
+            phase("sync develop version");
+            String developVersion = getBranchVersion(developVersionStep, developBranch);
+            getLog().debug("develop version = " + developVersion);
+            boolean mergeDriver = registerPomMergeDriver();
+            boolean setDevVersion = false;
+            if (!mergeDriver) {
+                getGitflowInit().executeLocal("git checkout " + hotfixBranch);
+                reloadReactorProjects();
+                setDevVersion = setVersion(developVersion, hotfixBranch, false); // don't push so can can reset if needed
+            }
 
-        /* 3. merge to develop */
-        try {
-            gitflowHotfix.finishToDevelop(hotfixBranch, tagName);
-        } catch (GitCommandException gce) {
-            // reset setVersion commit and allow user fix whatever exception occurred
-            // but can only reset if the commit has not been pushed
-            if (setDevVersion) {
-                getGitflowInit().executeLocal("git reset --hard HEAD~1");
+            /* 3. merge to develop */
+            phase("merge to develop");
+            beforeWrite(developBranch);
+            try {
+                gitflowHotfix.finishToDevelop(hotfixBranch, tagName);
+            } catch (GitCommandException gce) {
+                // reset setVersion commit and allow user fix whatever exception occurred
+                // but can only reset if the commit has not been pushed
+                if (setDevVersion) {
+                    getGitflowInit().executeLocal("git reset --hard HEAD~1");
+                }
+                String header = "Error merging branch '" + hotfixBranch + "' into '" + developBranch + "'";
+                exceptionMapper.handle(header, gce);
+            } catch (GitflowException ge) {
+                // reset setVersion commit and allow user fix whatever exception occurred
+                // but can only reset if the commit has not been pushed
+                if (setDevVersion) {
+                    getGitflowInit().executeLocal("git reset --hard HEAD~1");
+                }
+                String header = "Error merging branch '" + hotfixBranch + "' into '" + developBranch + "'";
+                exceptionMapper.handle(header, ge);
+            } catch (GitflowMergeConflictException gmce) {
+                String header = "Merge conflict merging branch '" + hotfixBranch + "' into '" + developBranch + "'";
+                exceptionMapper.handle(header, gmce);
             }
-            String header = "Error merging branch '" + hotfixBranch + "' into '" + developBranch + "'";
-            exceptionMapper.handle(header, gce);
-        } catch (GitflowException ge) {
-            // reset setVersion commit and allow user fix whatever exception occurred
-            // but can only reset if the commit has not been pushed
-            if (setDevVersion) {
-                getGitflowInit().executeLocal("git reset --hard HEAD~1");
+            if (mergeDriver) {
+                keepBranchVersion(developVersion, developBranch);
             }
-            String header = "Error merging branch '" + hotfixBranch + "' into '" + developBranch + "'";
-            exceptionMapper.handle(header, ge);
-        } catch (GitflowMergeConflictException gmce) {
-            String header = "Merge conflict merging branch '" + hotfixBranch + "' into '" + developBranch + "'";
-            exceptionMapper.handle(header, gmce);
+        } else {
+            getLog().warn("Branch '" + hotfixBranch + "' already merged into '" + developBranch + "'. Skipping merge of hotfix branch into '" + developBranch + "'");
+            getGitflowInit().executeLocal("git checkout " + developBranch);
         }
 
         /* make sure we're on the develop branch */
@@ -215,8 +247,10 @@ public class HotfixFinishMojo extends AbstractHotfixMojo {
         }
 
         /* Push merges and tag */
+        phase("push");
         try {
             if (session.getRequest().isInteractiveMode()) {
+                prefetchBranches(masterBranch, developBranch);
                 prompter.pushPrompt("Are you ready to push?", Arrays.asList(tagName), Arrays.asList(masterBranch, developBranch), Arrays.asList(hotfixBranch, origin + '/' + hotfixBranch));
                 boolean yes;
                 try {
@@ -225,6 +259,9 @@ public class HotfixFinishMojo extends AbstractHotfixMojo {
                     throw new MojoFailureException("Error reading user input from command line " + e.getMessage());
                 }
 
+                if (awaitPrefetch() && yes) {
+                    warnIfBehindOrigin(masterBranch, developBranch);
+                }
                 if (yes) {
                     gitflowHotfix.publish(hotfixBranch, tagName, true);
                 } else {
@@ -241,22 +278,4 @@ public class HotfixFinishMojo extends AbstractHotfixMojo {
             exceptionMapper.handle(header, ge);
         }
     }
-
-    private String promptForExistingHotfixBranch(String prefix, List<String> hotfixBranches) throws MojoFailureException {
-        List<String> choices = hotfixBranches;
-
-        /* if current branch is a feature branch at it to start of list so it is the default in prompt */
-        String currentBranch = getGitflowInit().gitCurrentBranch();
-        if (currentBranch.startsWith(prefix)) {
-            choices = rearrange(currentBranch, hotfixBranches);
-        }
-
-        String name = "";
-        try {
-            prompter.promptChoice("Hotfix branches", "Please select a hotfix branch to finish", choices);
-        } catch (IOException ex) {
-            throw new MojoFailureException("Error reading hotfix name from command line " + ex.getMessage());
-        }
-        return name.trim();
-    }
 }
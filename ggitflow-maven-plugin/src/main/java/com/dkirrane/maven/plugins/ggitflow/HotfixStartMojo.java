@@ -32,13 +32,15 @@ import static org.jfrog.hudson.util.GenericArtifactVersion.SNAPSHOT_QUALIFIER;
 public class HotfixStartMojo extends AbstractHotfixMojo {
 
     @Override
-    public void execute() throws MojoExecutionException, MojoFailureException {
-        super.execute();
+    protected void executeGoal() throws MojoExecutionException, MojoFailureException {
+        /* origin's branches are needed to push the hotfix version, list them alongside the master version steps */
+        readRemoteRefs();
 
         /* Switch to master branch and get current version i.e. lastest tag */
+        phase("read master version");
         getGitflowInit().executeLocal("git checkout " + getGitflowInit().getMasterBrnName());
         reloadReactorProjects();
-        String masterVersion = project.getVersion();
+        String masterVersion = getProjectVersion();
         getLog().debug("master version = " + masterVersion);
 
         String hotfixVersion = getHotfixVersion(masterVersion);
@@ -48,6 +50,7 @@ public class HotfixStartMojo extends AbstractHotfixMojo {
         getLog().debug("msgPrefix '" + getMsgPrefix() + "'");
         getLog().debug("msgSuffix '" + getMsgSuffix() + "'");
 
+        phase("create hotfix branch");
         GitflowHotfix gitflowHotfix = new GitflowHotfix();
         gitflowHotfix.setInit(getGitflowInit());
         gitflowHotfix.setMsgPrefix(getMsgPrefix());
@@ -64,11 +67,12 @@ public class HotfixStartMojo extends AbstractHotfixMojo {
             exceptionMapper.handle(header, ge);
         }
 
+        phase("set hotfix version");
         String prefix = getGitflowInit().getHotfixBranchPrefix();
 
         setVersion(hotfixSnapshotVersion, prefix + hotfixVersion, true);
 
-        if (getGitflowInit().gitRemoteBranchExists(prefix + hotfixVersion)) {
+        if (remoteBranchExists(prefix + hotfixVersion)) {
             getGitflowInit().executeRemote("git push " + getGitflowInit().getOrigin() + " " + prefix + hotfixVersion);
         }
     }
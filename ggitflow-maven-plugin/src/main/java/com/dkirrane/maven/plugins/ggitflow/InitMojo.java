@@ -27,9 +27,7 @@ import org.apache.maven.plugins.annotations.Mojo;
 public class InitMojo extends AbstractGitflowMojo {
 
     @Override
-    public void execute() throws MojoExecutionException, MojoFailureException {
-        super.execute();
-
+    protected void executeGoal() throws MojoExecutionException, MojoFailureException {
         String result = getGitflowInit().executeLocal("git config --get-regexp gitflow.*");
         getLog().info("Gitflow config:\n\n" + result + "\n");
     }
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow;
+
+import com.dkirrane.gitflow.groovy.GitflowInit;
+import com.dkirrane.maven.plugins.ggitflow.git.RefIndex;
+import com.dkirrane.maven.plugins.ggitflow.git.RemoteRefs;
+import com.dkirrane.maven.plugins.ggitflow.git.SshMultiplexer;
+import com.dkirrane.maven.plugins.ggitflow.timing.Timings;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * {@link GitflowInit} used by the mojos.
+ *
+ * Every local and remote git command, including those run internally by
+ * Groovy Gitflow, is recorded against the goal {@link Timings}. A
+ * <code>git checkout</code> updates the branch the following invocations are
+ * attributed to.
+ *
+ * The local branches and tags are served from a {@link RefIndex} that is
+ * dropped whenever a command that may create, move or delete a ref runs.
+ *
+ * Remote commands share one SSH connection for the goal, see
+ * {@link SshMultiplexer}; {@link #close()} ends it. The branches and tags of
+ * origin are listed once into {@link RemoteRefs} and then updated with the
+ * goal's own pushes.
+ *
+ * @since 3.1
+ */
+class PluginGitflowInit extends GitflowInit {
+
+    private static final Joiner COMMAND_JOINER = Joiner.on(' ').skipNulls();
+
+    /**
+     * Commands that never change a local branch or tag
+     */
+    private static final Set<String> READ_ONLY = ImmutableSet.of(
+            "cat-file", "config", "describe", "diff", "for-each-ref", "log", "ls-files",
+            "merge-base", "rev-list", "rev-parse", "show", "show-ref", "status",
+            /* only remote-tracking refs */
+            "ls-remote", "push");
+
+    private final Timings timings;
+    private RefIndex refIndex;
+    private RemoteRefs remoteRefs;
+    /**
+     * Remote commands that may have changed origin so far
+     */
+    private int remoteGeneration;
+    private boolean sshChecked;
+    private SshMultiplexer ssh;
+    private volatile String[] mergeOptions = new String[0];
+
+    PluginGitflowInit(Timings timings) {
+        this.timings = timings;
+    }
+
+    /**
+     * @return index of the local branches and tags, read again only if a ref
+     * may have changed since the last call
+     */
+    synchronized RefIndex getRefIndex() {
+        if (null == refIndex) {
+            refIndex = RefIndex.load(getRepoDir(), Arrays.asList(getFeatureBranchPrefix(),
+                    getReleaseBranchPrefix(), getHotfixBranchPrefix(), getSupportBranchPrefix()));
+        }
+        return refIndex;
+    }
+
+    /**
+     * The refs are listed without holding the lock, so a listing started in
+     * the background does not hold up local commands. A listing that
+     * overlapped a push recorded in the meantime is repeated.
+     *
+     * @return branches and tags of origin, <code>null</code> if they cannot be
+     * listed
+     */
+    RemoteRefs getRemoteRefs() {
+        while (true) {
+            int generation;
+            SshMultiplexer multiplexer;
+            synchronized (this) {
+                if (null != remoteRefs) {
+                    return remoteRefs;
+                }
+                generation = remoteGeneration;
+                multiplexer = getSshMultiplexer();
+            }
+            RemoteRefs loaded = RemoteRefs.load(getRepoDir(), getOrigin(), null == multiplexer ? null : multiplexer.getSshCommand());
+            synchronized (this) {
+                if (null != remoteRefs) {
+                    return remoteRefs;
+                }
+                if (null == loaded || generation == remoteGeneration) {
+                    remoteRefs = loaded;
+                    return loaded;
+                }
+            }
+        }
+    }
+
+    /**
+     * Keep {@link #remoteRefs} in step with a remote command, dropping it if
+     * the command may have changed origin in a way that is not understood,
+     * e.g. a push that failed part way.
+     */
+    private synchronized void recordRemote(String[] cmd, boolean success) {
+        if (cmd.length < 2 || !"git".equals(cmd[0]) || "ls-remote".equals(cmd[1]) || "fetch".equals(cmd[1])) {
+            return;
+        }
+        remoteGeneration++;
+        if (null == remoteRefs) {
+            return;
+        }
+        if (!success || !"push".equals(cmd[1]) || !remoteRefs.recordPush(getOrigin(), cmd, getRefIndex())) {
+            remoteRefs = null;
+        }
+    }
+
+    /**
+     * Drop the ref index unless <code>cmd</code> is known to leave refs alone.
+     */
+    private synchronized void invalidate(String[] cmd) {
+        if (null == refIndex) {
+            return;
+        }
+        if (cmd.length >= 2 && "git".equals(cmd[0]) && READ_ONLY.contains(cmd[1])) {
+            return;
+        }
+        refIndex = null;
+    }
+
+    /**
+     * Run the following <code>git merge</code> commands with these git
+     * options, e.g. <code>-c merge.&lt;driver&gt;.driver=...</code>, rather
+     * than changing the repository's configuration.
+     *
+     * @param options options placed between <code>git</code> and
+     * <code>merge</code>, none to stop adding them
+     */
+    void setMergeOptions(String... options) {
+        mergeOptions = options;
+    }
+
+    private String[] withMergeOptions(String[] cmd) {
+        String[] options = mergeOptions;
+        if (options.length == 0 || cmd.length < 2 || !"git".equals(cmd[0]) || !"merge".equals(cmd[1])) {
+            return cmd;
+        }
+        String[] wrapped = new String[cmd.length + options.length];
+        wrapped[0] = cmd[0];
+        System.arraycopy(options, 0, wrapped, 1, options.length);
+        System.arraycopy(cmd, 1, wrapped, 1 + options.length, cmd.length - 1);
+        return wrapped;
+    }
+
+    @Override
+    public String executeLocal(String cmd) {
+        Timings.Invocation invocation = timings.start(Timings.GIT, cmd);
+        try {
+            /* split as Runtime.exec would so options with spaces can be added */
+            String[] args = cmd.trim().split("\\s+");
+            String[] merge = withMergeOptions(args);
+            String out = (merge == args) ? super.executeLocal(cmd) : super.executeLocal(merge);
+            invocation.setExitCode(0);
+            trackCheckout(args);
+            return out;
+        } finally {
+            invalidate(cmd.trim().split("\\s+"));
+            invocation.stop();
+        }
+    }
+
+    @Override
+    public String executeLocal(String[] cmd) {
+        Timings.Invocation invocation = timings.start(Timings.GIT, COMMAND_JOINER.join(cmd));
+        try {
+            String out = super.executeLocal(withMergeOptions(cmd));
+            invocation.setExitCode(0);
+            trackCheckout(cmd);
+            return out;
+        } finally {
+            invalidate(cmd);
+            invocation.stop();
+        }
+    }
+
+    @Override
+    public Integer executeRemote(String cmd) {
+        /* split as Runtime.exec would so the command can be routed over the shared connection */
+        return executeRemote(cmd.trim().split("\\s+"));
+    }
+
+    @Override
+    public Integer executeRemote(String[] cmd) {
+        Timings.Invocation invocation = timings.start(Timings.GIT_REMOTE, COMMAND_JOINER.join(cmd));
+        Integer exitCode = null;
+        try {
+            SshMultiplexer multiplexer = getSshMultiplexer();
+            exitCode = super.executeRemote(null == multiplexer ? cmd : multiplexer.wrap(cmd));
+            invocation.setExitCode(exitCode);
+            return exitCode;
+        } finally {
+            recordRemote(cmd, null != exitCode && exitCode == 0);
+            invalidate(cmd);
+            invocation.stop();
+        }
+    }
+
+    private synchronized SshMultiplexer getSshMultiplexer() {
+        if (!sshChecked) {
+            sshChecked = true;
+            ssh = SshMultiplexer.open(getRepoDir(), getOrigin());
+        }
+        return ssh;
+    }
+
+    /**
+     * Stop the shared SSH connection, if one was made, and stop adding merge
+     * options.
+     */
+    synchronized void close() {
+        if (null != ssh) {
+            ssh.close();
+            ssh = null;
+        }
+        sshChecked = false;
+        mergeOptions = new String[0];
+    }
+
+    /**
+     * Remember the branch switched to by a successful
+     * <code>git checkout [-b] &lt;branch&gt; [&lt;start&gt;]</code>.
+     */
+    private void trackCheckout(String[] cmd) {
+        if (cmd.length < 3 || !"git".equals(cmd[0]) || !"checkout".equals(cmd[1])) {
+            return;
+        }
+        for (int i = 2; i < cmd.length; i++) {
+            String arg = cmd[i];
+            if ("-b".equals(arg) || "-B".equals(arg)) {
+                if (i + 1 < cmd.length) {
+                    timings.setBranch(cmd[i + 1]);
+                }
+                return;
+            }
+            if ("--".equals(arg)) {
+                return;
+            }
+            if (null != arg && !arg.startsWith("-")) {
+                timings.setBranch(arg);
+                return;
+            }
+        }
+    }
+}
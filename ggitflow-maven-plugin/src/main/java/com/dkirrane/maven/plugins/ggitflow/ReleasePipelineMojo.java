@@ -0,0 +1,196 @@
+/*
+ * Copyright 2014 Desmond Kirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow;
+
+import com.dkirrane.maven.plugins.ggitflow.model.ReactorSnapshot;
+import com.google.common.base.Joiner;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Runs a whole release in one goal: creates the release branch, builds it and
+ * then finishes the release.
+ *
+ * Equivalent to running <code>release-start</code>, <code>mvn deploy</code>
+ * and <code>release-finish</code> one after the other, but the Gitflow
+ * setup, the loaded reactor and the model cache are shared by all three
+ * steps instead of being rebuilt by each Maven invocation.
+ *
+ * @since 3.1
+ */
+@Mojo(name = "release", aggregator = true)
+public class ReleasePipelineMojo extends AbstractReleaseMojo {
+
+    /**
+     * If the project has a parent with a <code>-SNAPSHOT</code> version it will
+     * be replaced with the corresponding release version on the release branch
+     * and with the next <code>-SNAPSHOT</code> version on the develop branch
+     * after the merge.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "updateParent", defaultValue = "false", required = false)
+    private boolean updateParent;
+
+    /**
+     * Any dependencies with a <code>-SNAPSHOT</code> version are replaced with
+     * the corresponding release version on the release branch and with the
+     * next <code>-SNAPSHOT</code> version on the develop branch after the
+     * merge.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "updateDependencies", defaultValue = "false", required = false)
+    private boolean updateDependencies;
+
+    /**
+     * If <code>updateDependencies</code> is set, then this should contain a
+     * comma separated list of artifact patterns to include. Follows the pattern <code>groupId:artifactId:type:classifier:version<code>
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "includes", defaultValue = "", required = false)
+    private String includes;
+
+    /**
+     * The commit to start the release branch from.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "startCommit", defaultValue = "", required = false)
+    private String startCommit;
+
+    /**
+     * The goals run on the release branch before the release is finished. If
+     * empty the release is finished without a build.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "buildGoals", defaultValue = "clean deploy", required = false)
+    private String buildGoals;
+
+    /**
+     * If <code>true</code>, only the modules changed since the last release
+     * tag are built, along with the reactor modules that depend on them and
+     * the modules those need. The selection is passed to the build as
+     * <code>-pl</code>. POMs are still set to the release version and tagged
+     * across the whole reactor, so the modules left out are released without
+     * being deployed. Needs <code>allowPartialDeploy</code>.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "changedModulesOnly", defaultValue = "false", required = false)
+    private boolean changedModulesOnly;
+
+    /**
+     * Set to <code>true</code> to accept that <code>changedModulesOnly</code>
+     * tags a release version of every module but deploys only some, e.g.
+     * when the unchanged modules are not consumed at the release version.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "allowPartialDeploy", defaultValue = "false", required = false)
+    private boolean allowPartialDeploy;
+
+    /**
+     * If <code>true</code>, the release can still finish even if
+     * <code>-SNAPSHOT</code> dependencies exists in the pom.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "allowSnapshots", defaultValue = "false", required = false)
+    private boolean allowSnapshots;
+
+    /**
+     * If <code>true</code>, all commits to the branch will be squashed into a
+     * single commit before the merge.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "squash", defaultValue = "false", required = false)
+    private boolean squash;
+
+    /**
+     * The message to append add to the release tag
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "tagMsg", defaultValue = "", required = false)
+    private String tagMsg;
+
+    /**
+     * If <code>true</code>, the release tag will be signed.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "sign", defaultValue = "false", required = false)
+    private boolean sign;
+
+    /**
+     * The GNU Privacy Guard (GPG) private key used to sign the tag.
+     *
+     * @since 3.1
+     */
+    @Parameter(property = "signingkey", defaultValue = "", required = false)
+    private String signingkey;
+
+    @Override
+    protected void executeGoal() throws MojoExecutionException, MojoFailureException {
+        if (changedModulesOnly && !StringUtils.isBlank(buildGoals) && !allowPartialDeploy) {
+            throw new MojoFailureException("changedModulesOnly deploys only the changed modules while every module is set to the release version and tagged. "
+                    + "Set allowPartialDeploy to accept this, or release without changedModulesOnly.");
+        }
+        String releaseBranch = startRelease(startCommit, updateDependencies, updateParent, includes);
+
+        if (!StringUtils.isBlank(buildGoals)) {
+            phase("build");
+            List<String> buildArgs = new ArrayList<>(DEFAULT_DEPLOY_ARGS);
+            boolean build = true;
+            if (changedModulesOnly) {
+                reloadReactorProjects();
+                List<ReactorSnapshot.Module> modules = getChangedModules();
+                if (null != modules && modules.isEmpty()) {
+                    getLog().info("No module changed since the last release, skipping '" + buildGoals + "'");
+                    build = false;
+                } else if (null != modules && modules.size() < getReactorSnapshot().size()) {
+                    List<String> selectors = new ArrayList<>(modules.size());
+                    for (ReactorSnapshot.Module module : modules) {
+                        selectors.add(module.getGroupId() + ':' + module.getArtifactId());
+                    }
+                    buildArgs.add("-pl");
+                    buildArgs.add(Joiner.on(',').join(selectors));
+                }
+            }
+
+            if (build) {
+                getLog().info("Running '" + buildGoals + "' on branch '" + releaseBranch + "'");
+                try {
+                    runGoals(buildGoals, buildArgs);
+                } catch (MojoExecutionException mee) {
+                    getLog().error("Build of '" + releaseBranch + "' failed. Fix the build and run release-finish to finish the release.");
+                    throw mee;
+                }
+            }
+        }
+
+        finishRelease(updateDependencies, updateParent, includes, allowSnapshots, squash, tagMsg, sign, signingkey);
+    }
+}
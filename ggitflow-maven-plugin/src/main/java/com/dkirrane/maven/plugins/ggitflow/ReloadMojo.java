@@ -1,6 +1,7 @@
 package com.dkirrane.maven.plugins.ggitflow;
 
 import com.dkirrane.gitflow.groovy.GitflowInit;
+import com.dkirrane.maven.plugins.ggitflow.model.ReactorSorter;
 import com.dkirrane.maven.plugins.ggitflow.prompt.Prompter;
 import static com.google.common.collect.Lists.newArrayList;
 import java.io.BufferedReader;
@@ -32,7 +33,6 @@ import org.apache.maven.project.ProjectBuilder;
 import org.apache.maven.project.ProjectBuildingException;
 import org.apache.maven.project.ProjectBuildingRequest;
 import org.apache.maven.project.ProjectBuildingResult;
-import org.apache.maven.project.ProjectSorter;
 import org.apache.maven.shared.release.util.ReleaseUtil;
 import org.codehaus.plexus.util.dag.CycleDetectedException;
 
@@ -128,8 +128,7 @@ public class ReloadMojo extends AbstractMojo {
         }
 
         try {
-            ProjectSorter projectSorter = new ProjectSorter(updatedReactorProjects);
-            updatedReactorProjects = projectSorter.getSortedProjects();
+            updatedReactorProjects = ReactorSorter.sort(updatedReactorProjects, null);
         } catch (CycleDetectedException | DuplicateProjectException ex) {
             getLog().error("Failed to sort reactor projects", ex);
         }
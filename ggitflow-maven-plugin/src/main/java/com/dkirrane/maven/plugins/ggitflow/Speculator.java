@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs work a goal will probably need next on a background thread while it
+ * waits for the user to answer a prompt.
+ *
+ * Tasks only fetch or fill caches that check their own freshness, so a
+ * result that is not needed, or has gone stale by the time it is, costs
+ * nothing but the idle time it used. Once the user has answered the goal
+ * calls {@link #await}; tasks still running after the timeout are
+ * interrupted, which kills a git command they are running, see
+ * {@link com.dkirrane.maven.plugins.ggitflow.git.GitProcess}, and waited for,
+ * so a cancelled fetch does not race the goal's own git commands.
+ *
+ * @since 3.1
+ */
+final class Speculator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Speculator.class);
+
+    /**
+     * How long a cancelled task gets to stop
+     */
+    private static final long STOP_TIMEOUT_SECONDS = 10;
+
+    private final List<Future<?>> pending = new ArrayList<>();
+    private ExecutorService executor;
+
+    /**
+     * Start <code>task</code> in the background. Failures are only logged.
+     *
+     * @param name what the task does, for the log
+     * @param task the work
+     */
+    synchronized void submit(final String name, final Runnable task) {
+        if (null == executor) {
+            final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "ggitflow-speculate");
+                    thread.setDaemon(true);
+                    thread.setContextClassLoader(contextClassLoader);
+                    return thread;
+                }
+            });
+        }
+        LOG.debug("Speculatively starting {}", name);
+        pending.add(executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+                try {
+                    task.run();
+                    LOG.debug("Speculative {} done in {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                } catch (RuntimeException ex) {
+                    LOG.debug("Speculative " + name + " failed", ex);
+                }
+            }
+        }));
+    }
+
+    /**
+     * Wait for the submitted tasks, cancelling those that do not finish in
+     * time and waiting for them to stop.
+     *
+     * @param timeout how long to wait for all tasks together
+     * @param unit unit of <code>timeout</code>
+     * @return <code>true</code> if every task finished
+     */
+    synchronized boolean await(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean finished = true;
+        for (Future<?> future : pending) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                future.cancel(true);
+                finished = false;
+            } catch (ExecutionException ex) {
+                LOG.debug("Speculative task failed", ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                finished = false;
+            }
+        }
+        pending.clear();
+        if (!finished) {
+            LOG.debug("Speculative work did not finish in time and was discarded");
+            stop();
+        }
+        return finished;
+    }
+
+    /**
+     * Cancel anything still running and wait for it to stop.
+     */
+    synchronized void close() {
+        for (Future<?> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+        stop();
+    }
+
+    /**
+     * Interrupt the running task and wait for the thread to end. A later
+     * {@link #submit} starts a new one.
+     */
+    private void stop() {
+        if (null == executor) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("Speculative work still running after {} seconds", STOP_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+}
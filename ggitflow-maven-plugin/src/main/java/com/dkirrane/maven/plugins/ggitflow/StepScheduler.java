@@ -0,0 +1,182 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the read-only steps of a goal alongside the steps that write.
+ *
+ * The goal itself is the chain of write steps, run in order on the calling
+ * thread. A read-only step is handed to {@link #read} with the resources it
+ * reads, e.g. a branch, and starts at once on a background thread: every
+ * write before it in program order has already happened. Before a write the
+ * goal calls {@link #write} with the resources it is about to change, which
+ * waits for the outstanding reads of those resources. Read/write conflicts
+ * on a resource are the only edges of the step graph, so reads of unrelated
+ * resources never hold up the goal.
+ *
+ * {@link #close()} interrupts the steps still running, which kills a git
+ * command they are running, see
+ * {@link com.dkirrane.maven.plugins.ggitflow.git.GitProcess}, and waits for
+ * them to stop.
+ *
+ * @since 3.1
+ */
+final class StepScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StepScheduler.class);
+
+    /**
+     * The checked out files
+     */
+    static final String WORKTREE = "worktree";
+
+    private static final int THREADS = 2;
+
+    /**
+     * How long a cancelled step gets to stop
+     */
+    private static final long STOP_TIMEOUT_SECONDS = 10;
+
+    private final List<Step> pending = new ArrayList<>();
+    private ExecutorService executor;
+
+    /**
+     * @param branch branch name
+     * @return the resource of a local branch
+     */
+    static String branch(String branch) {
+        return "refs/heads/" + branch;
+    }
+
+    /**
+     * Start a read-only step.
+     *
+     * @param <T> result type
+     * @param name step name, for the log
+     * @param task the step
+     * @param reads resources the step reads
+     * @return the step's result
+     */
+    synchronized <T> Future<T> read(final String name, final Callable<T> task, String... reads) {
+        if (null == executor) {
+            final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            executor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "ggitflow-step-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setContextClassLoader(contextClassLoader);
+                    return thread;
+                }
+            });
+        }
+        LOG.debug("Starting step '{}' reading {}", name, Arrays.asList(reads));
+        Future<T> future = executor.submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    LOG.debug("Step '{}' took {} ms", name, (System.nanoTime() - start) / 1000000);
+                }
+            }
+        });
+        pending.add(new Step(name, future, reads));
+        return future;
+    }
+
+    /**
+     * Wait for the running reads of resources the calling thread is about to
+     * change. A failed read is left for whoever uses its result.
+     *
+     * @param writes resources about to be written
+     */
+    synchronized void write(String... writes) {
+        Set<String> resources = new HashSet<>(Arrays.asList(writes));
+        for (Iterator<Step> it = pending.iterator(); it.hasNext();) {
+            Step step = it.next();
+            if (step.future.isDone()) {
+                it.remove();
+            } else if (!Collections.disjoint(step.reads, resources)) {
+                LOG.debug("Writing {} waits for step '{}'", resources, step.name);
+                try {
+                    step.future.get();
+                } catch (ExecutionException ex) {
+                    LOG.debug("Step '" + step.name + "' failed", ex.getCause());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Cancel the steps still running and wait for them to stop.
+     */
+    synchronized void close() {
+        for (Step step : pending) {
+            step.future.cancel(true);
+        }
+        pending.clear();
+        if (null != executor) {
+            executor.shutdownNow();
+            try {
+                if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    LOG.warn("Steps still running after {} seconds", STOP_TIMEOUT_SECONDS);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+    }
+
+    private static final class Step {
+
+        private final String name;
+        private final Future<?> future;
+        private final Set<String> reads;
+
+        Step(String name, Future<?> future, String... reads) {
+            this.name = name;
+            this.future = future;
+            this.reads = new HashSet<>(Arrays.asList(reads));
+        }
+    }
+}
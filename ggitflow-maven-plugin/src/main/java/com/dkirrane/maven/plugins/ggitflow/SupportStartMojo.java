@@ -41,9 +41,8 @@ public class SupportStartMojo extends AbstractSupportMojo {
     protected String startCommit;
 
     @Override
-    public void execute() throws MojoExecutionException, MojoFailureException {
-        super.execute();
-
+    protected void executeGoal() throws MojoExecutionException, MojoFailureException {
+        phase("select tag");
         String prefix = getGitflowInit().getSupportBranchPrefix();
         String masterBranch = getGitflowInit().getMasterBranch();
 
@@ -69,16 +68,21 @@ public class SupportStartMojo extends AbstractSupportMojo {
             }
         }
 
+        /* origin's branches are needed to push the support version, list them alongside the tag version steps */
+        readRemoteRefs();
+
+        phase("read tag version");
         getGitflowInit().executeLocal("git checkout " + startCommit);
         reloadReactorProjects();
-        String supportVersion = getSupportVersion(project.getVersion());
-        String supportSnapshotVersion = getSupportSnapshotVersion(project.getVersion());
+        String supportVersion = getSupportVersion(getProjectVersion());
+        String supportSnapshotVersion = getSupportSnapshotVersion(getProjectVersion());
         String supportBranchName = namer.getBranchName(prefix, supportName, supportVersion);
 
         getLog().info("Starting support branch '" + supportBranchName + "'");
         getLog().debug("msgPrefix '" + getMsgPrefix() + "'");
         getLog().debug("msgSuffix '" + getMsgSuffix() + "'");
 
+        phase("create support branch");
         GitflowSupport gitflowSupport = new GitflowSupport();
         gitflowSupport.setInit(getGitflowInit());
         gitflowSupport.setMsgPrefix(getMsgPrefix());
@@ -96,9 +100,10 @@ public class SupportStartMojo extends AbstractSupportMojo {
             exceptionMapper.handle(header, ge);
         }
 
+        phase("set support version");
         setVersion(supportSnapshotVersion, supportBranchName, false);
 
-        if (getGitflowInit().gitRemoteBranchExists(supportBranchName)) {
+        if (remoteBranchExists(supportBranchName)) {
             getGitflowInit().executeRemote("git push " + getGitflowInit().getOrigin() + " " + supportBranchName);
         }
     }
@@ -67,13 +67,13 @@ public class SupportTagMojo extends AbstractSupportMojo {
     private String signingkey;
 
     @Override
-    public void execute() throws MojoExecutionException, MojoFailureException {
-        super.execute();
+    protected void executeGoal() throws MojoExecutionException, MojoFailureException {
         getLog().debug("Tagging support branch");
+        phase("select support branch");
 
         /* Get support branch name */
         String prefix = getSupportBranchPrefix();
-        List<String> supportBranches = getGitflowInit().gitLocalSupportBranches();
+        List<String> supportBranches = getRefIndex().branches(prefix);
         if (supportBranches.isEmpty()) {
             exceptionMapper.handle(new MojoFailureException("Could not find any local support branch!"));
         }
@@ -89,7 +89,7 @@ public class SupportTagMojo extends AbstractSupportMojo {
 
         } else {
             supportName = trimSupportName(supportName);
-            if (!getGitflowInit().gitLocalBranchExists(prefix + supportName)) {
+            if (!getRefIndex().hasBranch(prefix + supportName)) {
                 String msg = "No local support branch named '" + prefix + supportName + "' exists!";
                 exceptionMapper.handle(new MojoFailureException(msg));
             }
@@ -100,17 +100,18 @@ public class SupportTagMojo extends AbstractSupportMojo {
         String supportBranch = prefix + supportName;
 
         /* Switch to support branch and get its current version */
+        phase("set support version");
         getGitflowInit().executeLocal("git checkout " + supportBranch);
         reloadReactorProjects();
-        String snapshotVersion = project.getVersion();
+        String snapshotVersion = getProjectVersion();
 
         /* Get release version for support tag */
         GenericArtifactVersion artifactVersion = new GenericArtifactVersion(snapshotVersion);
         String supportVersion;
         if ("SNAPSHOT".equals(artifactVersion.getBuildSpecifier())) {
-            supportVersion = getReleaseVersion(project.getVersion());
+            supportVersion = getReleaseVersion(getProjectVersion());
         } else {
-            supportVersion = project.getVersion();
+            supportVersion = getProjectVersion();
         }
         getLog().debug("support version = " + supportVersion);
 
@@ -120,6 +121,7 @@ public class SupportTagMojo extends AbstractSupportMojo {
         boolean setVersion = setVersion(supportVersion, supportBranch, false);
 
         if (!allowSnapshots) {
+            phase("check snapshots");
             reloadReactorProjects();
             try {
                 checkForSnapshotDependencies();
@@ -133,6 +135,7 @@ public class SupportTagMojo extends AbstractSupportMojo {
         }
 
         /* tag support branch */
+        phase("tag");
         tagMsg = StringUtils.isBlank(tagMsg) ? "" : " " + tagMsg;
         String tagMessage = "Support release version " + supportVersion + tagMsg ;
         String tagName = supportVersion;
@@ -140,6 +143,7 @@ public class SupportTagMojo extends AbstractSupportMojo {
         getLog().debug("Git tag output = " + tagString);
 
         /* Increment support branch to next version */
+        phase("set next support version");
         String nextSupportVersion = getNextSupportVersion(snapshotVersion);
         setVersion(nextSupportVersion, supportBranch, false);
         promptToPushSupportBranchAndTag(supportBranch, tagName);
@@ -147,12 +151,12 @@ public class SupportTagMojo extends AbstractSupportMojo {
     }
 
     private String promptForExistingSupportBranch(String prefix, List<String> supportBranches) throws MojoFailureException {
-        List<String> choices = supportBranches;
+        List<String> choices = sortByRecency(supportBranches);
 
         /* if current branch is a support branch at it to start of list so it is the default in prompt */
         String currentBranch = getGitflowInit().gitCurrentBranch();
         if (currentBranch.startsWith(prefix)) {
-            choices = rearrange(currentBranch, supportBranches);
+            choices = rearrange(currentBranch, choices);
         }
 
         String name = "";
@@ -169,18 +173,23 @@ public class SupportTagMojo extends AbstractSupportMojo {
 
         boolean yes = false;
         if (session.getRequest().isInteractiveMode()) {
+            prefetchBranches(supportBranch);
+            readRemoteRefs();
             prompter.pushPrompt("Are you ready to push?", Arrays.asList(supportTag), Arrays.asList(supportBranch), Collections.EMPTY_LIST);
             try {
                 yes = prompter.promptYesNo("Do you want to continue");
             } catch (IOException e) {
                 throw new MojoFailureException("Error reading user input from command line " + e.getMessage());
             }
+            if (awaitPrefetch() && yes) {
+                warnIfBehindOrigin(supportBranch);
+            }
         } else {
             yes = true; // push in maven --batch mode
         }
 
         if (yes) {
-            if (getGitflowInit().gitRemoteBranchExists(supportBranch)) {
+            if (remoteBranchExists(supportBranch)) {
                 getLog().info("Pushing tag " + supportTag);
                 getGitflowInit().executeRemote("git push " + origin + " " + supportTag);
                 getLog().info("Pushing " + supportBranch);
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lists the files changed since a release tag.
+ *
+ * Every release commits a new version to each <code>pom.xml</code>, so a POM
+ * whose only changed lines are <code>&lt;version&gt;</code> elements holding
+ * one of the given reactor versions is not counted as changed.
+ *
+ * @since 3.1
+ */
+public class ChangedFiles {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChangedFiles.class);
+
+    private static final Pattern VERSION_LINE = Pattern.compile("\\s*<version>\\s*([^<\\s]+)\\s*</version>\\s*");
+    private static final Pattern DIFF_HEADER = Pattern.compile("^diff --git a/(.+) b/(.+)$");
+    private static final String POM = "pom.xml";
+
+    private final File repoDir;
+
+    public ChangedFiles(File repoDir) {
+        this.repoDir = repoDir;
+    }
+
+    /**
+     * @param tagPrefix version tag prefix
+     * @return the most recent version tag reachable from <code>HEAD</code> or
+     * <code>null</code> if there is none
+     */
+    public String lastTag(String tagPrefix) {
+        GitProcess.Result result = GitProcess.run(repoDir, "describe", "--tags", "--abbrev=0", "--match", tagPrefix + "*", "HEAD");
+        if (!result.isSuccess() || result.getLines().isEmpty()) {
+            LOG.debug("No version tag matching {}* reachable from HEAD: {}", tagPrefix, result.getStderr());
+            return null;
+        }
+        return result.getLines().get(0);
+    }
+
+    /**
+     * @param since commit-ish to compare <code>HEAD</code> with
+     * @param versions reactor versions whose bumps are ignored in POMs
+     * @return changed paths relative to the repository root or
+     * <code>null</code> if git could not diff
+     */
+    public List<String> since(String since, Collection<String> versions) {
+        GitProcess.Result result = GitProcess.run(repoDir, "diff", "--name-only", "--no-renames", since, "HEAD");
+        if (!result.isSuccess()) {
+            LOG.debug("diff --name-only {} HEAD failed: {}", since, result.getStderr());
+            return null;
+        }
+        List<String> paths = result.getLines();
+
+        List<String> poms = new ArrayList<>();
+        for (String path : paths) {
+            if (path.equals(POM) || path.endsWith('/' + POM)) {
+                poms.add(path);
+            }
+        }
+        if (poms.isEmpty() || versions.isEmpty()) {
+            return paths;
+        }
+
+        List<String> args = new ArrayList<>(poms.size() + 6);
+        args.add("diff");
+        args.add("-U0");
+        args.add("--no-color");
+        args.add("--no-renames");
+        args.add(since);
+        args.add("HEAD");
+        args.add("--");
+        args.addAll(poms);
+        GitProcess.Result pomDiff = GitProcess.run(repoDir, args.toArray(new String[args.size()]));
+        if (!pomDiff.isSuccess()) {
+            LOG.debug("diff -U0 {} HEAD failed: {}", since, pomDiff.getStderr());
+            return paths;
+        }
+
+        Set<String> versionOnly = versionOnly(pomDiff.getStdout(), new HashSet<>(versions));
+        LOG.debug("POMs with only version changes since {}: {}", since, versionOnly);
+        List<String> changed = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            if (!versionOnly.contains(path)) {
+                changed.add(path);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @param diff <code>git diff -U0</code> output
+     * @param versions versions that may be set or removed
+     * @return files whose changed lines are all <code>&lt;version&gt;</code>
+     * elements holding one of <code>versions</code>
+     */
+    static Set<String> versionOnly(String diff, Set<String> versions) {
+        Set<String> files = new HashSet<>();
+        String file = null;
+        boolean onlyVersions = false;
+        for (String line : diff.split("\\r?\\n")) {
+            Matcher header = DIFF_HEADER.matcher(line);
+            if (header.matches()) {
+                if (null != file && onlyVersions) {
+                    files.add(file);
+                }
+                file = header.group(2);
+                onlyVersions = true;
+                continue;
+            }
+            if (null == file || line.startsWith("+++") || line.startsWith("---")) {
+                continue;
+            }
+            if (line.startsWith("+") || line.startsWith("-")) {
+                Matcher version = VERSION_LINE.matcher(line.substring(1));
+                if (!version.matches() || !versions.contains(version.group(1))) {
+                    onlyVersions = false;
+                }
+            }
+        }
+        if (null != file && onlyVersions) {
+            files.add(file);
+        }
+        return files;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Answers "is ref X already merged into branch Y" questions.
+ *
+ * If the repository has no commit-graph file yet, one is written once so the
+ * reachability walks stay cheap on repositories with a long history. An
+ * existing commit-graph is left to Git to maintain.
+ *
+ * @since 3.1
+ */
+public class CommitGraph {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CommitGraph.class);
+
+    private static final String GRAPH = "objects/info/commit-graph";
+    private static final String GRAPH_CHAIN = "objects/info/commit-graphs/commit-graph-chain";
+
+    private final File repoDir;
+
+    private boolean written;
+
+    public CommitGraph(File repoDir) {
+        this.repoDir = repoDir;
+    }
+
+    /**
+     * Write a commit-graph if the repository does not have one. Git versions
+     * without commit-graph support are ignored, reachability checks still
+     * work but walk the commit objects.
+     */
+    public synchronized void write() {
+        if (written) {
+            return;
+        }
+        written = true;
+        GitProcess.Result paths = GitProcess.run(repoDir, "rev-parse", "--git-path", GRAPH, "--git-path", GRAPH_CHAIN);
+        if (!paths.isSuccess()) {
+            LOG.debug("Unable to locate commit-graph: {}", paths.getStderr());
+            return;
+        }
+        for (String path : paths.getLines()) {
+            File file = new File(path.trim());
+            if (!file.isAbsolute()) {
+                file = new File(repoDir, path.trim());
+            }
+            if (file.isFile()) {
+                LOG.debug("Using existing commit-graph {}", file);
+                return;
+            }
+        }
+        GitProcess.Result result = GitProcess.run(repoDir, "commit-graph", "write", "--reachable", "--split");
+        if (!result.isSuccess()) {
+            LOG.debug("Unable to write commit-graph: {}", result.getStderr());
+        }
+    }
+
+    /**
+     * @param commit commit-ish to test
+     * @param descendant commit-ish that may contain <code>commit</code>
+     * @return <code>true</code> if <code>commit</code> is an ancestor of (or
+     * equal to) <code>descendant</code>, <code>null</code> if git could not
+     * tell e.g. one of them does not exist
+     */
+    public Boolean isAncestor(String commit, String descendant) {
+        write();
+        GitProcess.Result result = GitProcess.run(repoDir, "merge-base", "--is-ancestor", commit, descendant);
+        if (result.getExitCode() > 1 || result.getExitCode() < 0) {
+            LOG.debug("merge-base --is-ancestor {} {} failed: {}", commit, descendant, result.getStderr());
+            return null;
+        }
+        return result.isSuccess();
+    }
+
+    /**
+     * Find which of the given refs are reachable from <code>target</code>
+     * using a single <code>git for-each-ref --merged</code> call.
+     *
+     * @param target branch or commit-ish the refs may be merged into
+     * @param refs fully qualified ref names e.g. <code>refs/tags/1.0</code>,
+     * <code>refs/heads/release/1.0</code>
+     * @return the subset of <code>refs</code> already merged into
+     * <code>target</code>, <code>null</code> if git could not tell e.g. it
+     * is too old for <code>--merged</code> or a ref is broken
+     */
+    public Set<String> mergedInto(String target, Collection<String> refs) {
+        Set<String> merged = new HashSet<>();
+        if (refs.isEmpty()) {
+            return merged;
+        }
+        write();
+
+        List<String> args = new ArrayList<>(refs.size() + 3);
+        args.add("for-each-ref");
+        args.add("--merged=" + target);
+        args.add("--format=%(refname)");
+        args.addAll(refs);
+
+        GitProcess.Result result = GitProcess.run(repoDir, args.toArray(new String[args.size()]));
+        if (!result.isSuccess()) {
+            LOG.debug("for-each-ref --merged={} failed: {}", target, result.getStderr());
+            return null;
+        }
+
+        /* for-each-ref patterns also match refs nested below the pattern so only keep exact matches */
+        for (String line : result.getLines()) {
+            if (refs.contains(line)) {
+                merged.add(line);
+            }
+        }
+        LOG.debug("Refs merged into {}: {}", target, merged);
+        return merged;
+    }
+}
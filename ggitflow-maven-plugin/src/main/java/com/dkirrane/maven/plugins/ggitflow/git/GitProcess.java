@@ -0,0 +1,277 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import com.dkirrane.maven.plugins.ggitflow.timing.Timings;
+import com.google.common.base.Joiner;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs Git plumbing commands that are not exposed by Groovy Gitflow.
+ *
+ * Unlike {@code GitflowInit.executeLocal} a non-zero exit code is not treated
+ * as an error; callers inspect {@link Result#getExitCode()} themselves.
+ *
+ * The output is read on separate threads, so a thread running a command
+ * that is interrupted, e.g. a cancelled background step, kills git and waits
+ * for it to exit rather than leaving it running.
+ *
+ * @since 3.1
+ */
+public final class GitProcess {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GitProcess.class);
+
+    private static volatile Timings timings;
+
+    private GitProcess() {
+    }
+
+    /**
+     * Record every command run from now on against the given goal timings.
+     *
+     * @param goalTimings timings of the running goal or <code>null</code> to
+     * stop recording
+     */
+    public static void setTimings(Timings goalTimings) {
+        timings = goalTimings;
+    }
+
+    /**
+     * Run {@code git <args>} in the given repository directory.
+     *
+     * @param repoDir Git working directory
+     * @param args arguments passed to the git executable
+     * @return the process result, exit code <code>-1</code> if git could not
+     * be started
+     */
+    public static Result run(File repoDir, String... args) {
+        return runWithInput(repoDir, null, args);
+    }
+
+    /**
+     * Run {@code git <args>} in the given repository directory, writing
+     * <code>stdin</code> to the process input.
+     *
+     * @param repoDir Git working directory
+     * @param stdin process input, may be null
+     * @param args arguments passed to the git executable
+     * @return the process result, exit code <code>-1</code> if git could not
+     * be started
+     */
+    public static Result runWithInput(File repoDir, String stdin, String... args) {
+        return run(repoDir, stdin, Collections.<String, String>emptyMap(), args);
+    }
+
+    /**
+     * Run {@code git <args>} where nobody is there to answer, e.g. on a
+     * background thread while the user is answering a prompt. Git fails
+     * instead of asking for a username or password and, unless the
+     * environment already chooses an SSH command, so does SSH.
+     *
+     * @param repoDir Git working directory
+     * @param args arguments passed to the git executable
+     * @return the process result, exit code <code>-1</code> if git could not
+     * be started
+     */
+    public static Result runUnattended(File repoDir, String... args) {
+        Map<String, String> env = new HashMap<>();
+        env.put("GIT_TERMINAL_PROMPT", "0");
+        if (null == System.getenv("GIT_SSH") && null == System.getenv("GIT_SSH_COMMAND")) {
+            env.put("GIT_SSH_COMMAND", "ssh -o BatchMode=yes");
+        }
+        return run(repoDir, null, env, args);
+    }
+
+    private static Result run(File repoDir, String stdin, Map<String, String> env, String... args) {
+        List<String> command = new ArrayList<>(args.length + 1);
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        LOG.debug("Executing {}", command);
+
+        Timings.Invocation invocation = null;
+        Timings current = timings;
+        if (null != current) {
+            invocation = current.start(Timings.GIT, Joiner.on(' ').join(command));
+        }
+        try {
+            Result result = execute(repoDir, stdin, env, command);
+            if (null != invocation) {
+                invocation.setExitCode(result.getExitCode());
+            }
+            return result;
+        } finally {
+            if (null != invocation) {
+                invocation.stop();
+            }
+        }
+    }
+
+    private static Result execute(File repoDir, String stdin, Map<String, String> env, List<String> command) {
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.directory(repoDir);
+        builder.environment().putAll(env);
+        final Process process;
+        try {
+            process = builder.start();
+        } catch (IOException ex) {
+            LOG.debug("Failed to start " + command, ex);
+            return new Result(-1, "", ex.getMessage());
+        }
+
+        StreamGobbler out = new StreamGobbler(process.getInputStream(), "git-stdout");
+        StreamGobbler err = new StreamGobbler(process.getErrorStream(), "git-stderr");
+        out.start();
+        err.start();
+        try {
+            if (null != stdin) {
+                process.getOutputStream().write(stdin.getBytes(StandardCharsets.UTF_8));
+            }
+            process.getOutputStream().close();
+
+            int exitCode = process.waitFor();
+            out.join();
+            err.join();
+            return new Result(exitCode, out.getOutput(), err.getOutput());
+        } catch (IOException ex) {
+            kill(process);
+            return new Result(-1, "", ex.getMessage());
+        } catch (InterruptedException ex) {
+            LOG.debug("Interrupted, killing {}", command);
+            kill(process);
+            Thread.currentThread().interrupt();
+            return new Result(-1, "", "Interrupted");
+        }
+    }
+
+    /**
+     * Destroy <code>process</code> and wait until it has exited, so it no
+     * longer touches the repository.
+     */
+    private static void kill(Process process) {
+        process.destroy();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                process.waitFor();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int n;
+        while ((n = in.read(chunk)) != -1) {
+            buffer.write(chunk, 0, n);
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Drains a process stream on a separate thread so a full pipe never
+     * blocks the process and the caller waits in an interruptible
+     * {@link Process#waitFor()}.
+     */
+    private static final class StreamGobbler extends Thread {
+
+        private final InputStream in;
+        private volatile String output = "";
+
+        StreamGobbler(InputStream in, String name) {
+            super(name);
+            setDaemon(true);
+            this.in = in;
+        }
+
+        @Override
+        public void run() {
+            try {
+                output = read(in);
+            } catch (IOException ex) {
+                output = ex.getMessage();
+            }
+        }
+
+        String getOutput() {
+            return output;
+        }
+    }
+
+    /**
+     * Outcome of a git command.
+     */
+    public static final class Result {
+
+        private final int exitCode;
+        private final String stdout;
+        private final String stderr;
+
+        Result(int exitCode, String stdout, String stderr) {
+            this.exitCode = exitCode;
+            this.stdout = stdout;
+            this.stderr = stderr;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        public boolean isSuccess() {
+            return exitCode == 0;
+        }
+
+        public String getStdout() {
+            return stdout;
+        }
+
+        public String getStderr() {
+            return stderr;
+        }
+
+        /**
+         * @return stdout split into non-empty trimmed lines
+         */
+        public List<String> getLines() {
+            List<String> lines = new ArrayList<>();
+            for (String line : stdout.split("\\r?\\n")) {
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty()) {
+                    lines.add(trimmed);
+                }
+            }
+            return lines;
+        }
+    }
+}
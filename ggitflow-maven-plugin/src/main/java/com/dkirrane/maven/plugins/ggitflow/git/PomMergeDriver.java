@@ -0,0 +1,301 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Git merge driver for <code>pom.xml</code> that resolves conflicts limited
+ * to <code>&lt;version&gt;</code> elements in favour of the branch merged
+ * into, i.e. the current branch.
+ *
+ * Git runs it as
+ * <code>java -cp &lt;plugin jar&gt; PomMergeDriver %O %A %B %L %P</code>.
+ * It merges with <code>git merge-file</code>, then replaces each conflict
+ * whose two sides only differ in the text of reactor
+ * <code>&lt;version&gt;</code> lines with the current branch's side. A
+ * version line is a reactor one if the current side holds the current POM's
+ * version and the other side the other POM's version, i.e. the project or
+ * parent version, or the version of a dependency on a module of the
+ * reactor. Other conflicts, e.g. both branches moving an external
+ * dependency, are left in the file and the merge stops as usual. Each
+ * conflict resolved is reported on standard error, which git shows.
+ *
+ * Conflicts are only resolved while the current branch is on a
+ * <code>-SNAPSHOT</code> version, e.g. <code>develop</code>. Merging into
+ * <code>master</code> never keeps master's previous release version.
+ *
+ * It runs outside Maven with only the plugin jar on the class path, so it
+ * must not use any other library.
+ *
+ * @since 3.1
+ */
+public final class PomMergeDriver {
+
+    /**
+     * Name of the driver in the <code>merge.&lt;name&gt;.driver</code> option
+     * and the <code>merge</code> attribute
+     */
+    public static final String NAME = "ggitflow-pom";
+
+    private static final int DEFAULT_MARKER_SIZE = 7;
+    private static final String SNAPSHOT = "-SNAPSHOT";
+    private static final Pattern VERSION_LINE = Pattern.compile("(\\s*<version>)([^<]*)(</version>\\s*)");
+
+    private PomMergeDriver() {
+    }
+
+    /**
+     * @param args ancestor, current and other file, optionally the conflict
+     * marker size and the path merged
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: PomMergeDriver <ancestor> <current> <other> [<marker-size> [<path>]]");
+            System.exit(2);
+        }
+        int markerSize = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_MARKER_SIZE;
+        String path = (args.length > 4) ? args[4] : "pom.xml";
+        try {
+            List<String> resolved = new ArrayList<>();
+            int conflicts = merge(new File(args[0]), new File(args[1]), new File(args[2]), markerSize, resolved);
+            for (String hunk : resolved) {
+                System.err.println("ggitflow: " + path + ": " + hunk);
+            }
+            System.exit(conflicts < 0 ? 2 : Math.min(conflicts, 1));
+        } catch (IOException | InterruptedException ex) {
+            System.err.println("ggitflow POM merge failed: " + ex.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Merge <code>other</code> into <code>current</code>.
+     *
+     * @param resolved receives a description of each conflict resolved
+     * @return the number of conflicts left in <code>current</code>, negative
+     * if it was not changed
+     */
+    static int merge(File ancestor, File current, File other, int markerSize, List<String> resolved) throws IOException, InterruptedException {
+        /* read before merge-file output replaces the current file */
+        String currentVersion = projectVersion(current);
+        String otherVersion = projectVersion(other);
+
+        ProcessBuilder builder = new ProcessBuilder("git", "merge-file", "-p", "--marker-size=" + markerSize,
+                current.getPath(), ancestor.getPath(), other.getPath());
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = builder.start();
+        process.getOutputStream().close();
+        byte[] merged = readFully(process.getInputStream());
+        int conflicts = process.waitFor();
+        if (conflicts < 0 || conflicts > 127) {
+            return -1;
+        }
+
+        /* ISO-8859-1 maps every byte to one char so the file's encoding is kept as is */
+        String text = new String(merged, StandardCharsets.ISO_8859_1);
+        if (conflicts > 0 && null != currentVersion && currentVersion.endsWith(SNAPSHOT) && null != otherVersion) {
+            List<String> lines = splitLines(text);
+            conflicts = resolve(lines, markerSize, currentVersion, otherVersion, resolved);
+            StringBuilder result = new StringBuilder(text.length());
+            for (String line : lines) {
+                result.append(line);
+            }
+            text = result.toString();
+        }
+        Files.write(current.toPath(), text.getBytes(StandardCharsets.ISO_8859_1));
+        return conflicts;
+    }
+
+    /**
+     * Replace the conflicts that only differ in reactor
+     * <code>&lt;version&gt;</code> lines with the current side.
+     *
+     * @param lines merged lines, with their line terminators
+     * @param markerSize conflict marker size
+     * @param currentVersion version of the current POM
+     * @param otherVersion version of the other POM
+     * @param resolved receives a description of each conflict resolved
+     * @return the number of conflicts left
+     */
+    static int resolve(List<String> lines, int markerSize, String currentVersion, String otherVersion, List<String> resolved) {
+        String start = repeat('<', markerSize);
+        String base = repeat('|', markerSize);
+        String separator = repeat('=', markerSize);
+        String end = repeat('>', markerSize);
+
+        List<String> result = new ArrayList<>(lines.size());
+        int left = 0;
+        int i = 0;
+        while (i < lines.size()) {
+            if (!isMarker(lines.get(i), start)) {
+                result.add(lines.get(i++));
+                continue;
+            }
+            int hunkStart = i;
+            List<String> ours = new ArrayList<>();
+            List<String> theirs = new ArrayList<>();
+            List<String> side = ours;
+            for (i++; i < lines.size() && !isMarker(lines.get(i), end); i++) {
+                String line = lines.get(i);
+                if (isMarker(line, base)) {
+                    side = null;
+                } else if (isMarker(line, separator)) {
+                    side = theirs;
+                } else if (null != side) {
+                    side.add(line);
+                }
+            }
+            if (i == lines.size()) {
+                /* unterminated, leave as is */
+                result.addAll(lines.subList(hunkStart, i));
+                left++;
+                break;
+            }
+            i++;
+            if (differInVersionsOnly(ours, theirs, currentVersion, otherVersion)) {
+                resolved.add("kept version " + currentVersion + " over " + otherVersion + " at line " + (result.size() + 1));
+                result.addAll(ours);
+            } else {
+                result.addAll(lines.subList(hunkStart, i));
+                left++;
+            }
+        }
+        lines.clear();
+        lines.addAll(result);
+        return left;
+    }
+
+    private static boolean differInVersionsOnly(List<String> ours, List<String> theirs, String currentVersion, String otherVersion) {
+        if (ours.size() != theirs.size()) {
+            return false;
+        }
+        for (int i = 0; i < ours.size(); i++) {
+            String a = ours.get(i);
+            String b = theirs.get(i);
+            if (a.equals(b)) {
+                continue;
+            }
+            Matcher ourVersion = VERSION_LINE.matcher(a.trim());
+            Matcher theirVersion = VERSION_LINE.matcher(b.trim());
+            if (!ourVersion.matches() || !theirVersion.matches()) {
+                return false;
+            }
+            if (!currentVersion.equals(ourVersion.group(2).trim()) || !otherVersion.equals(theirVersion.group(2).trim())) {
+                return false;
+            }
+            if (!stripVersion(a).equals(stripVersion(b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String stripVersion(String line) {
+        return VERSION_LINE.matcher(line).replaceAll("$1$3");
+    }
+
+    private static boolean isMarker(String line, String marker) {
+        if (!line.startsWith(marker)) {
+            return false;
+        }
+        if (line.length() == marker.length()) {
+            return true;
+        }
+        char next = line.charAt(marker.length());
+        return next == ' ' || next == '\r' || next == '\n';
+    }
+
+    /**
+     * @return the project or, without one, parent version of the POM,
+     * <code>null</code> if it cannot be read
+     */
+    static String projectVersion(File pom) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setExpandEntityReferences(false);
+            Element project = factory.newDocumentBuilder().parse(pom).getDocumentElement();
+            String version = childText(project, "version");
+            if (null == version) {
+                Element parent = child(project, "parent");
+                version = (null == parent) ? null : childText(parent, "version");
+            }
+            return version;
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static Element child(Element element, String name) {
+        for (Node node = element.getFirstChild(); null != node; node = node.getNextSibling()) {
+            if (node instanceof Element && name.equals(((Element) node).getTagName())) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+
+    private static String childText(Element element, String name) {
+        Element child = child(element, name);
+        return (null == child) ? null : child.getTextContent().trim();
+    }
+
+    static List<String> splitLines(String text) {
+        List<String> lines = new ArrayList<>();
+        int from = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines.add(text.substring(from, i + 1));
+                from = i + 1;
+            }
+        }
+        if (from < text.length()) {
+            lines.add(text.substring(from));
+        }
+        return lines;
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = input.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+}
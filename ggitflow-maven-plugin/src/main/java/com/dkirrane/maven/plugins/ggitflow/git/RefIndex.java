@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local branches and tags of a repository, read with a single
+ * <code>git for-each-ref</code>.
+ *
+ * The names are held sorted, which makes the index a flattened prefix trie:
+ * every prefix owns one contiguous range found by two binary searches. The
+ * ranges of the Gitflow branch prefixes are looked up once when the index is
+ * built, so listing all branches of a type returns the same read-only view
+ * each time without scanning or copying.
+ *
+ * The index is a snapshot; build a new one after refs change.
+ *
+ * @since 3.1
+ */
+public final class RefIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RefIndex.class);
+
+    private static final String HEADS = "refs/heads/";
+    private static final String TAGS = "refs/tags/";
+
+    private final List<String> branches;
+    private final List<String> tags;
+    private final Map<String, List<String>> byPrefix = new HashMap<>();
+
+    RefIndex(Collection<String> branches, Collection<String> tags, Collection<String> prefixes) {
+        String[] sortedBranches = branches.toArray(new String[branches.size()]);
+        Arrays.sort(sortedBranches);
+        String[] sortedTags = tags.toArray(new String[tags.size()]);
+        Arrays.sort(sortedTags);
+        this.branches = Collections.unmodifiableList(Arrays.asList(sortedBranches));
+        this.tags = Collections.unmodifiableList(Arrays.asList(sortedTags));
+        for (String prefix : prefixes) {
+            if (null != prefix && !prefix.isEmpty()) {
+                byPrefix.put(prefix, range(this.branches, prefix));
+            }
+        }
+    }
+
+    /**
+     * @param repoDir repository directory
+     * @param prefixes branch prefixes that will be listed, e.g.
+     * <code>feature/</code>
+     * @return an index of the current local branches and tags
+     */
+    public static RefIndex load(File repoDir, Collection<String> prefixes) {
+        GitProcess.Result result = GitProcess.run(repoDir, "for-each-ref", "--format=%(refname)", "refs/heads", "refs/tags");
+        List<String> branches = new ArrayList<>();
+        List<String> tags = new ArrayList<>();
+        if (result.isSuccess()) {
+            for (String ref : result.getLines()) {
+                if (ref.startsWith(HEADS)) {
+                    branches.add(ref.substring(HEADS.length()));
+                } else if (ref.startsWith(TAGS)) {
+                    tags.add(ref.substring(TAGS.length()));
+                }
+            }
+        } else {
+            LOG.debug("for-each-ref failed: {}", result.getStderr());
+        }
+        LOG.debug("Indexed {} branches and {} tags", branches.size(), tags.size());
+        return new RefIndex(branches, tags, prefixes);
+    }
+
+    /**
+     * @param prefix branch name prefix e.g. <code>feature/</code>, or the
+     * start of a branch name to complete
+     * @return read-only sorted view of the local branches starting with
+     * <code>prefix</code>
+     */
+    public List<String> branches(String prefix) {
+        List<String> cached = byPrefix.get(prefix);
+        return (null != cached) ? cached : range(branches, prefix);
+    }
+
+    /**
+     * @return read-only sorted view of all local branches
+     */
+    public List<String> branches() {
+        return branches;
+    }
+
+    /**
+     * @return read-only sorted view of all tags
+     */
+    public List<String> tags() {
+        return tags;
+    }
+
+    public boolean hasBranch(String branch) {
+        return Collections.binarySearch(branches, branch) >= 0;
+    }
+
+    public boolean hasTag(String tag) {
+        return Collections.binarySearch(tags, tag) >= 0;
+    }
+
+    private static List<String> range(List<String> sorted, String prefix) {
+        int from = lowerBound(sorted, prefix);
+        return sorted.subList(from, upperBound(sorted, prefix, from));
+    }
+
+    private static int lowerBound(List<String> sorted, String key) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted.get(mid).compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First position at or after <code>from</code> whose name does not start
+     * with <code>prefix</code>.
+     */
+    private static int upperBound(List<String> sorted, String prefix, int from) {
+        int low = from;
+        int high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted.get(mid).startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
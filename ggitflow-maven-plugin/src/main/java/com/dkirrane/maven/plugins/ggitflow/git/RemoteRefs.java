@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Branches and tags of a remote, read once with
+ * <code>git ls-remote --heads --tags</code> and then kept up to date with the
+ * goal's own pushes, so checking whether a branch exists on the remote does
+ * not contact it again.
+ *
+ * Changes made to the remote by others while the goal runs are not seen.
+ *
+ * @since 3.1
+ */
+public final class RemoteRefs {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RemoteRefs.class);
+
+    private static final String HEADS = "refs/heads/";
+    private static final String TAGS = "refs/tags/";
+    private static final String PEELED = "^{}";
+
+    /**
+     * <code>git push</code> options that do not change which refs are pushed
+     */
+    private static final Set<String> PLAIN_PUSH_OPTIONS = ImmutableSet.of(
+            "-u", "--set-upstream", "-q", "--quiet", "-v", "--verbose", "-f", "--force",
+            "--force-with-lease", "--no-verify", "--atomic", "--porcelain", "--progress", "--no-progress");
+
+    private final Set<String> branches = new HashSet<>();
+    private final Set<String> tags = new HashSet<>();
+
+    RemoteRefs(List<String> lsRemote) {
+        for (String line : lsRemote) {
+            int tab = line.indexOf('\t');
+            String ref = (tab < 0) ? line : line.substring(tab + 1);
+            if (ref.startsWith(HEADS)) {
+                branches.add(ref.substring(HEADS.length()));
+            } else if (ref.startsWith(TAGS)) {
+                String tag = ref.substring(TAGS.length());
+                tags.add(tag.endsWith(PEELED) ? tag.substring(0, tag.length() - PEELED.length()) : tag);
+            }
+        }
+    }
+
+    /**
+     * @param repoDir repository directory
+     * @param remote remote name e.g. <code>origin</code>
+     * @param sshCommand <code>core.sshCommand</code> to use, <code>null</code>
+     * for git's default
+     * @return the remote's branches and tags or <code>null</code> if they
+     * could not be listed
+     */
+    public static RemoteRefs load(File repoDir, String remote, String sshCommand) {
+        List<String> args = new ArrayList<>();
+        if (null != sshCommand) {
+            args.add("-c");
+            args.add("core.sshCommand=" + sshCommand);
+        }
+        args.add("ls-remote");
+        args.add("--heads");
+        args.add("--tags");
+        args.add(remote);
+        GitProcess.Result result = GitProcess.run(repoDir, args.toArray(new String[args.size()]));
+        if (!result.isSuccess()) {
+            LOG.debug("ls-remote {} failed: {}", remote, result.getStderr());
+            return null;
+        }
+        RemoteRefs refs = new RemoteRefs(result.getLines());
+        LOG.debug("Remote '{}' has {} branches and {} tags", remote, refs.branches.size(), refs.tags.size());
+        return refs;
+    }
+
+    public synchronized boolean hasBranch(String branch) {
+        return branches.contains(branch);
+    }
+
+    public synchronized boolean hasTag(String tag) {
+        return tags.contains(tag);
+    }
+
+    /**
+     * Record the refs changed by a successful <code>git push</code>.
+     *
+     * @param remote the remote these refs are of
+     * @param cmd the push command e.g.
+     * <code>git push origin :release/1.0 1.0</code>
+     * @param local local branches and tags, to tell what a short ref name is
+     * @return <code>false</code> if it is not clear what the push changed, in
+     * which case the refs should be listed again
+     */
+    public synchronized boolean recordPush(String remote, String[] cmd, RefIndex local) {
+        int i = 0;
+        while (i < cmd.length && !"push".equals(cmd[i])) {
+            i++;
+        }
+        boolean delete = false;
+        String pushedTo = null;
+        List<String> refspecs = new ArrayList<>();
+        for (i++; i < cmd.length; i++) {
+            String arg = cmd[i];
+            if ("-d".equals(arg) || "--delete".equals(arg)) {
+                delete = true;
+            } else if (arg.startsWith("-")) {
+                int equals = arg.indexOf('=');
+                if (!PLAIN_PUSH_OPTIONS.contains(equals < 0 ? arg : arg.substring(0, equals))) {
+                    return false;
+                }
+            } else if (null == pushedTo) {
+                pushedTo = arg;
+            } else {
+                refspecs.add(arg);
+            }
+        }
+        if (!remote.equals(pushedTo)) {
+            /* pushed elsewhere, or with the remote and refs taken from config */
+            return null != pushedTo && !refspecs.isEmpty();
+        }
+        if (refspecs.isEmpty()) {
+            return false;
+        }
+
+        for (String refspec : refspecs) {
+            String spec = refspec.startsWith("+") ? refspec.substring(1) : refspec;
+            int colon = spec.indexOf(':');
+            String src = (colon < 0) ? spec : spec.substring(0, colon);
+            String dst = (colon < 0) ? spec : spec.substring(colon + 1);
+            boolean exists = !delete && !src.isEmpty();
+            String ref = qualify(dst, src, local);
+            if (null == ref || !update(ref, exists)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the full name of the remote ref a push to <code>dst</code>
+     * changes, <code>null</code> if unclear
+     */
+    private String qualify(String dst, String src, RefIndex local) {
+        if (dst.startsWith("refs/")) {
+            return dst;
+        }
+        boolean branch = branches.contains(dst);
+        boolean tag = tags.contains(dst);
+        if (!branch && !tag && !src.isEmpty()) {
+            branch = local.hasBranch(src);
+            tag = local.hasTag(src);
+        }
+        if (branch == tag) {
+            return null;
+        }
+        return (branch ? HEADS : TAGS) + dst;
+    }
+
+    /**
+     * Record a branch or tag pushed or deleted by the goal.
+     *
+     * @param ref full ref name e.g. <code>refs/heads/develop</code>
+     * @param exists <code>false</code> if it was deleted
+     * @return <code>false</code> if <code>ref</code> is neither a branch nor a
+     * tag
+     */
+    public synchronized boolean update(String ref, boolean exists) {
+        Set<String> names;
+        String name;
+        if (ref.startsWith(HEADS)) {
+            names = branches;
+            name = ref.substring(HEADS.length());
+        } else if (ref.startsWith(TAGS)) {
+            names = tags;
+            name = ref.substring(TAGS.length());
+        } else {
+            return false;
+        }
+        if (exists) {
+            names.add(name);
+        } else {
+            names.remove(name);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.io.File;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Squash merges a branch into another without touching the working tree.
+ *
+ * The merged tree is computed in memory with
+ * <code>git merge-tree --write-tree</code>, written as a single commit on
+ * top of the target with <code>git commit-tree</code> and the target branch
+ * moved with <code>git update-ref</code>. Only if the target branch is
+ * checked out are the changed files updated, with
+ * <code>git read-tree -m -u</code>. The commit gets the message given, as
+ * <code>git commit -m</code> would.
+ *
+ * Needs Git 2.38 or later. Commit hooks cannot be run this way, so a
+ * repository with any is left to the caller too. Anything this cannot do,
+ * e.g. a conflict, leaves the repository as it was, so the caller can fall
+ * back to <code>git merge --squash</code>.
+ *
+ * @since 3.1
+ */
+public final class SquashMerge {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SquashMerge.class);
+
+    private static final Pattern GIT_VERSION = Pattern.compile("git version (\\d+)\\.(\\d+).*");
+    private static final int MIN_MAJOR = 2;
+    private static final int MIN_MINOR = 38;
+    private static final String HEADS = "refs/heads/";
+    private static final String[] COMMIT_HOOKS = {"pre-commit", "prepare-commit-msg", "commit-msg", "post-commit"};
+
+    private SquashMerge() {
+    }
+
+    /**
+     * Squash merge <code>branch</code> into <code>target</code>.
+     *
+     * @param repoDir repository directory
+     * @param branch local branch to merge
+     * @param target local branch to merge into
+     * @param message commit message
+     * @return the squash commit or <code>null</code> if nothing was changed
+     * because git is too old, the repository has commit hooks, the merge
+     * conflicts or there is nothing to merge
+     */
+    public static String squash(File repoDir, String branch, String target, String message) {
+        GitProcess.Result version = GitProcess.run(repoDir, "version");
+        if (!version.isSuccess() || !supports(version.getStdout().trim())) {
+            LOG.debug("git merge-tree --write-tree not supported by {}", version.getStdout().trim());
+            return null;
+        }
+        if (hasCommitHooks(repoDir)) {
+            LOG.debug("Commit hooks in {}, not squashing with git commit-tree", repoDir);
+            return null;
+        }
+
+        String targetId = resolve(repoDir, HEADS + target + "^{commit}");
+        String branchId = resolve(repoDir, HEADS + branch + "^{commit}");
+        if (null == targetId || null == branchId) {
+            return null;
+        }
+
+        GitProcess.Result mergeTree = GitProcess.run(repoDir, "merge-tree", "--write-tree", "--no-messages", targetId, branchId);
+        if (!mergeTree.isSuccess() || mergeTree.getLines().isEmpty()) {
+            LOG.debug("Squash of {} into {} conflicts or failed: {}", branch, target, mergeTree.getStderr());
+            return null;
+        }
+        String tree = mergeTree.getLines().get(0).trim();
+        if (tree.equals(resolve(repoDir, targetId + "^{tree}"))) {
+            LOG.debug("Nothing to squash from {} into {}", branch, target);
+            return null;
+        }
+
+        GitProcess.Result commitTree = GitProcess.run(repoDir, "commit-tree", tree, "-p", targetId, "-m", message);
+        if (!commitTree.isSuccess()) {
+            LOG.debug("commit-tree failed: {}", commitTree.getStderr());
+            return null;
+        }
+        String squashId = commitTree.getStdout().trim();
+
+        /* a checked out target gets the changed files, or nothing if they have local changes */
+        GitProcess.Result head = GitProcess.run(repoDir, "symbolic-ref", "--quiet", "HEAD");
+        boolean checkedOut = head.isSuccess() && (HEADS + target).equals(head.getStdout().trim());
+        if (checkedOut && !GitProcess.run(repoDir, "read-tree", "-m", "-u", targetId, squashId).isSuccess()) {
+            LOG.debug("Unable to update the working tree of {}", target);
+            return null;
+        }
+        GitProcess.Result updateRef = GitProcess.run(repoDir, "update-ref", "-m", "squash: " + branch,
+                HEADS + target, squashId, targetId);
+        if (!updateRef.isSuccess()) {
+            LOG.debug("update-ref failed: {}", updateRef.getStderr());
+            if (checkedOut) {
+                GitProcess.run(repoDir, "read-tree", "-m", "-u", squashId, targetId);
+            }
+            return null;
+        }
+        LOG.debug("Squashed {} into {} as {}", branch, target, squashId);
+        return squashId;
+    }
+
+    /**
+     * @param gitVersion output of <code>git version</code>
+     * @return <code>true</code> if it has
+     * <code>git merge-tree --write-tree</code>
+     */
+    static boolean supports(String gitVersion) {
+        Matcher matcher = GIT_VERSION.matcher(gitVersion);
+        if (!matcher.matches()) {
+            return false;
+        }
+        int major = Integer.parseInt(matcher.group(1));
+        int minor = Integer.parseInt(matcher.group(2));
+        return major > MIN_MAJOR || (major == MIN_MAJOR && minor >= MIN_MINOR);
+    }
+
+    /**
+     * @return <code>true</code> if <code>git commit</code> would run a hook,
+     * wherever <code>core.hooksPath</code> puts them
+     */
+    static boolean hasCommitHooks(File repoDir) {
+        String[] args = new String[1 + 2 * COMMIT_HOOKS.length];
+        args[0] = "rev-parse";
+        for (int i = 0; i < COMMIT_HOOKS.length; i++) {
+            args[1 + 2 * i] = "--git-path";
+            args[2 + 2 * i] = "hooks/" + COMMIT_HOOKS[i];
+        }
+        GitProcess.Result paths = GitProcess.run(repoDir, args);
+        if (!paths.isSuccess()) {
+            return true;
+        }
+        for (String path : paths.getLines()) {
+            File hook = new File(path.trim());
+            if (!hook.isAbsolute()) {
+                hook = new File(repoDir, path.trim());
+            }
+            if (hook.isFile() && hook.canExecute()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String resolve(File repoDir, String rev) {
+        GitProcess.Result result = GitProcess.run(repoDir, "rev-parse", "--verify", "--quiet", rev);
+        return result.isSuccess() ? result.getStdout().trim() : null;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares one SSH connection between the remote git commands of a goal.
+ *
+ * Before the first command over SSH an OpenSSH control master is started
+ * with <code>ssh -MNf</code>, listening on a socket in a private temporary
+ * directory; the commands then reuse it instead of making a new connection
+ * and key exchange each. The master is started on its own, with its input
+ * and output on <code>/dev/null</code>, rather than by the ssh that git runs:
+ * a master forked from there would hold git's stdout and stderr open and
+ * anything reading them to the end would wait for it to exit. Git is pointed
+ * at the master with <code>-c core.sshCommand=...</code> on each command, so
+ * the user's configuration is left alone; should the master not be running
+ * the command connects on its own. {@link #close()} stops the master at the
+ * end of the goal; should that not happen it exits on its own after
+ * {@value #PERSIST_SECONDS} idle seconds.
+ *
+ * Nothing is shared on Windows, for remotes not reached over SSH, or when
+ * <code>GIT_SSH</code>, <code>GIT_SSH_COMMAND</code> or
+ * <code>core.sshCommand</code> already choose how SSH is run.
+ *
+ * @since 3.1
+ */
+public final class SshMultiplexer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SshMultiplexer.class);
+
+    static final int PERSIST_SECONDS = 60;
+
+    private static final File DEV_NULL = new File("/dev/null");
+
+    private final String ssh;
+    private final Path controlDir;
+    private final List<String> target;
+    private final String sshCommand;
+    private boolean masterStarted;
+
+    SshMultiplexer(String ssh, Path controlDir, List<String> target) {
+        this.ssh = ssh;
+        this.controlDir = controlDir;
+        this.target = target;
+        this.sshCommand = ssh + " -o ControlMaster=no -o ControlPath=" + controlPath();
+    }
+
+    /**
+     * @param repoDir repository directory
+     * @param remote remote name e.g. <code>origin</code>
+     * @return a multiplexer for <code>remote</code> or <code>null</code> if
+     * its connections cannot or should not be shared
+     */
+    public static SshMultiplexer open(File repoDir, String remote) {
+        if (System.getProperty("os.name", "").toLowerCase(Locale.ENGLISH).startsWith("windows")) {
+            LOG.debug("Not sharing SSH connections on Windows");
+            return null;
+        }
+        if (null != System.getenv("GIT_SSH") || null != System.getenv("GIT_SSH_COMMAND")) {
+            LOG.debug("GIT_SSH or GIT_SSH_COMMAND is set, not sharing SSH connections");
+            return null;
+        }
+        if (GitProcess.run(repoDir, "config", "--get", "core.sshCommand").isSuccess()) {
+            LOG.debug("core.sshCommand is set, not sharing SSH connections");
+            return null;
+        }
+        GitProcess.Result url = GitProcess.run(repoDir, "ls-remote", "--get-url", remote);
+        if (!url.isSuccess() || !isSsh(url.getStdout().trim())) {
+            LOG.debug("Remote '{}' is not reached over SSH, not sharing connections", remote);
+            return null;
+        }
+
+        /* sockets paths are limited to ~100 characters so prefer the short /tmp over java.io.tmpdir */
+        File tmp = new File("/tmp");
+        try {
+            Path controlDir = tmp.isDirectory() && tmp.canWrite()
+                    ? Files.createTempDirectory(tmp.toPath(), "ggitflow-ssh")
+                    : Files.createTempDirectory("ggitflow-ssh");
+            LOG.debug("Sharing SSH connections to '{}' through {}", remote, controlDir);
+            return new SshMultiplexer("ssh", controlDir, target(url.getStdout().trim()));
+        } catch (IOException ex) {
+            LOG.debug("Unable to create SSH control directory", ex);
+            return null;
+        }
+    }
+
+    /**
+     * @param url remote URL as printed by <code>git ls-remote --get-url</code>
+     * @return <code>true</code> if git reaches the URL with SSH
+     */
+    static boolean isSsh(String url) {
+        if (null == url || url.isEmpty()) {
+            return false;
+        }
+        int scheme = url.indexOf("://");
+        if (scheme >= 0) {
+            String protocol = url.substring(0, scheme).toLowerCase(Locale.ENGLISH);
+            return "ssh".equals(protocol) || "git+ssh".equals(protocol) || "ssh+git".equals(protocol);
+        }
+        /* scp-like [user@]host:path, as git has it a colon before any slash (but not a drive letter) */
+        int colon = url.indexOf(':');
+        int slash = url.indexOf('/');
+        return colon > 1 && (slash < 0 || colon < slash);
+    }
+
+    /**
+     * @param url SSH remote URL
+     * @return the ssh arguments that reach the URL's host, e.g.
+     * <code>-p 2222 git@example.com</code>
+     */
+    static List<String> target(String url) {
+        String authority;
+        String port = null;
+        int scheme = url.indexOf("://");
+        if (scheme >= 0) {
+            int start = scheme + 3;
+            int slash = url.indexOf('/', start);
+            authority = slash < 0 ? url.substring(start) : url.substring(start, slash);
+            int at = authority.lastIndexOf('@');
+            int colon = authority.lastIndexOf(':');
+            if (colon > at && colon > authority.lastIndexOf(']')) {
+                port = authority.substring(colon + 1);
+                authority = authority.substring(0, colon);
+            }
+        } else {
+            authority = url.substring(0, url.indexOf(':'));
+        }
+        authority = authority.replace("[", "").replace("]", "");
+
+        List<String> args = new ArrayList<>(3);
+        if (null != port && !port.isEmpty()) {
+            args.add("-p");
+            args.add(port);
+        }
+        args.add(authority);
+        return args;
+    }
+
+    private String controlPath() {
+        return controlDir + "/%r@%h:%p";
+    }
+
+    /**
+     * @return the <code>core.sshCommand</code> that uses the shared
+     * connection, which is made now if it is not already
+     */
+    public String getSshCommand() {
+        startMaster();
+        return sshCommand;
+    }
+
+    /**
+     * Start the control master, once. It forks into the background once
+     * connected, which is when this returns.
+     */
+    private synchronized void startMaster() {
+        if (masterStarted) {
+            return;
+        }
+        masterStarted = true;
+        List<String> cmd = new ArrayList<>(Arrays.asList(ssh, "-M", "-N", "-f",
+                "-o", "ControlPath=" + controlPath(), "-o", "ControlPersist=" + PERSIST_SECONDS));
+        cmd.addAll(target);
+        ProcessBuilder builder = new ProcessBuilder(cmd);
+        builder.redirectInput(DEV_NULL);
+        builder.redirectOutput(DEV_NULL);
+        builder.redirectError(DEV_NULL);
+        try {
+            int exitCode = builder.start().waitFor();
+            if (exitCode != 0) {
+                LOG.debug("SSH control master for {} exited with {}, connecting per command", target, exitCode);
+            }
+        } catch (IOException ex) {
+            LOG.debug("Unable to start SSH control master for " + target, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param cmd git command e.g. <code>git push origin develop</code>
+     * @return the command with <code>-c core.sshCommand=...</code> added after
+     * <code>git</code>, or <code>cmd</code> if it is not a git command
+     */
+    public String[] wrap(String[] cmd) {
+        if (cmd.length == 0 || !"git".equals(cmd[0])) {
+            return cmd;
+        }
+        List<String> wrapped = new ArrayList<>(cmd.length + 2);
+        wrapped.add(cmd[0]);
+        wrapped.add("-c");
+        wrapped.add("core.sshCommand=" + getSshCommand());
+        wrapped.addAll(Arrays.asList(cmd).subList(1, cmd.length));
+        return wrapped.toArray(new String[wrapped.size()]);
+    }
+
+    /**
+     * Stop the control masters started for the goal and remove their
+     * sockets.
+     */
+    public void close() {
+        File[] sockets = controlDir.toFile().listFiles();
+        if (null != sockets) {
+            for (File socket : sockets) {
+                exit(socket);
+                if (socket.exists() && !socket.delete()) {
+                    LOG.debug("Unable to delete {}", socket);
+                }
+            }
+        }
+        try {
+            Files.deleteIfExists(controlDir);
+        } catch (IOException ex) {
+            LOG.debug("Unable to delete " + controlDir, ex);
+        }
+    }
+
+    /**
+     * With an explicit ControlPath the host name is only there to satisfy the
+     * command line.
+     */
+    private void exit(File socket) {
+        ProcessBuilder builder = new ProcessBuilder(ssh, "-o", "ControlPath=" + socket, "-O", "exit", "ggitflow");
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(DEV_NULL);
+        try {
+            builder.start().waitFor();
+        } catch (IOException ex) {
+            LOG.debug("Unable to stop SSH control master " + socket, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.project.DuplicateProjectException;
+import org.codehaus.plexus.util.dag.CycleDetectedException;
+
+/**
+ * Works out which reactor modules a set of changed files affects.
+ *
+ * Each changed path belongs to the module with the deepest directory that
+ * contains it. The changed modules, every module in the reactor that depends
+ * on them and, because the whole reactor shares one version, every module
+ * those need to build are selected.
+ *
+ * @since 3.1
+ */
+public final class ChangedModules {
+
+    private ChangedModules() {
+    }
+
+    /**
+     * @param snapshot the reactor
+     * @param repoDir directory the changed paths are relative to, e.g. the
+     * Git work tree
+     * @param changedPaths changed files as listed by
+     * <code>git diff --name-only</code>
+     * @return the selected modules in build order
+     * @throws CycleDetectedException if modules depend on each other
+     * @throws DuplicateProjectException if two modules have the same
+     * <code>groupId:artifactId</code>
+     */
+    public static List<ReactorSnapshot.Module> select(ReactorSnapshot snapshot, File repoDir, Collection<String> changedPaths) throws CycleDetectedException, DuplicateProjectException {
+        List<ReactorSnapshot.Module> modules = snapshot.getModules();
+        int count = modules.size();
+
+        Map<String, Integer> byDir = new HashMap<>(count * 2);
+        String root = dir(repoDir);
+        for (int i = 0; i < count; i++) {
+            String dir = dir(modules.get(i).getPomFile().getAbsoluteFile().getParentFile());
+            if (dir.startsWith(root)) {
+                byDir.put(dir.substring(root.length()), i);
+            }
+        }
+
+        boolean[] selected = new boolean[count];
+        int[] queue = new int[count];
+        int tail = 0;
+        for (String path : changedPaths) {
+            Integer module = owner(byDir, path);
+            if (null != module && !selected[module]) {
+                selected[module] = true;
+                queue[tail++] = module;
+            }
+        }
+        if (tail == 0) {
+            return new ArrayList<>();
+        }
+
+        int[][] requires = ReactorSorter.requirements(modules);
+        List<List<Integer>> dependents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dependents.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < count; i++) {
+            for (int required : requires[i]) {
+                dependents.get(required).add(i);
+            }
+        }
+
+        /* changed modules and everything downstream of them */
+        for (int head = 0; head < tail; head++) {
+            for (int dependent : dependents.get(queue[head])) {
+                if (!selected[dependent]) {
+                    selected[dependent] = true;
+                    queue[tail++] = dependent;
+                }
+            }
+        }
+
+        /* and whatever those need at the new version */
+        for (int head = 0; head < tail; head++) {
+            for (int required : requires[queue[head]]) {
+                if (!selected[required]) {
+                    selected[required] = true;
+                    queue[tail++] = required;
+                }
+            }
+        }
+
+        List<ReactorSnapshot.Module> result = new ArrayList<>(tail);
+        for (int index : ReactorSorter.sort(snapshot)) {
+            if (selected[index]) {
+                result.add(modules.get(index));
+            }
+        }
+        return result;
+    }
+
+    private static Integer owner(Map<String, Integer> byDir, String path) {
+        int end = path.length();
+        while (end > 0) {
+            end = path.lastIndexOf('/', end - 1);
+            if (end < 0) {
+                break;
+            }
+            Integer module = byDir.get(path.substring(0, end + 1));
+            if (null != module) {
+                return module;
+            }
+        }
+        return byDir.get("");
+    }
+
+    private static String dir(File file) {
+        String path = file.toURI().getPath();
+        return path.endsWith("/") ? path : path + '/';
+    }
+}
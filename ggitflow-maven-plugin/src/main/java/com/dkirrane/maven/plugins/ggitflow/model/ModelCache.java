@@ -0,0 +1,537 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.model;
+
+import com.dkirrane.maven.plugins.ggitflow.git.GitProcess;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.model.Activation;
+import org.apache.maven.model.ActivationProperty;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the effective models of the reactor keyed by the content of its
+ * POMs.
+ *
+ * The key is a SHA-1 over the path and Git blob id of every
+ * <code>pom.xml</code> below the reactor root, so a module or any in-reactor
+ * parent changing gives a new key. The explicitly active and inactive
+ * profiles, the user properties, the content of the user and global
+ * <code>settings.xml</code>, the JDK and the OS are part of the key as they
+ * change the effective models.
+ *
+ * Inputs only known once the reactor is built are stored with each entry and
+ * checked before it is used: the Git blob id of every parent POM from outside
+ * the reactor, e.g. a <code>-SNAPSHOT</code> parent in the local repository,
+ * and the value of every system or user property a profile of the reactor,
+ * its parents or the settings is activated by. A reactor with a profile
+ * activated by a file is not cached.
+ *
+ * A {@link ReactorSnapshot} of each reactor built during the current goal is
+ * kept in memory. The effective models are also written to
+ * <code>.git/ggitflow/model-cache/&lt;key&gt;</code> so the next goal can
+ * describe the reactor without running the project builder.
+ *
+ * @since 3.1
+ */
+public class ModelCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ModelCache.class);
+
+    public static final String CACHE_DIR = "ggitflow/model-cache";
+
+    /* bump when the stored layout or key inputs change */
+    private static final String FORMAT = "2";
+    private static final String INDEX = "index";
+    private static final String INPUTS = "inputs";
+    private static final String FILE_INPUT = "file:";
+    private static final String PROPERTY_INPUT = "property:";
+    private static final String MISSING = "-";
+    private static final String[] PLATFORM_PROPERTIES = {"java.version", "os.name", "os.arch", "os.version"};
+    private static final int MAX_ENTRIES = 16;
+    private static final int MAX_MEMORY_ENTRIES = 4;
+
+    private final File baseDir;
+    private final File cacheDir;
+    private final MavenExecutionRequest request;
+    private final Map<String, Cached> snapshots = new LinkedHashMap<String, Cached>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > MAX_MEMORY_ENTRIES;
+        }
+    };
+
+    /**
+     * @param baseDir reactor root directory
+     * @param gitDir the <code>.git</code> directory, the disk cache is
+     * disabled if it is not a directory (e.g. a linked worktree)
+     * @param request the Maven session's request, for the profiles,
+     * properties and settings files the effective models depend on
+     */
+    public ModelCache(File baseDir, File gitDir, MavenExecutionRequest request) {
+        this.baseDir = baseDir;
+        this.cacheDir = gitDir.isDirectory() ? new File(gitDir, CACHE_DIR) : null;
+        this.request = request;
+    }
+
+    /**
+     * Compute the cache key for the POMs currently in the working tree.
+     *
+     * @return the key or <code>null</code> if the POMs could not be listed
+     */
+    public String key() {
+        GitProcess.Result result = GitProcess.run(baseDir, "ls-files", "-c", "-o", "--exclude-standard", "--", "pom.xml", "*/pom.xml");
+        if (!result.isSuccess()) {
+            LOG.debug("Unable to list POM files: {}", result.getStderr());
+            return null;
+        }
+        List<String> poms = result.getLines();
+        Collections.sort(poms);
+
+        MessageDigest sha1 = sha1();
+        update(sha1, "format " + FORMAT + "\n");
+        try {
+            for (String pom : poms) {
+                File file = new File(baseDir, pom);
+                if (file.isFile()) {
+                    update(sha1, pom + ' ' + blobId(Files.readAllBytes(file.toPath())) + '\n');
+                }
+            }
+        } catch (IOException ex) {
+            LOG.debug("Unable to hash POM files", ex);
+            return null;
+        }
+
+        update(sha1, "profiles " + sorted(request.getActiveProfiles()) + '\n');
+        update(sha1, "inactive " + sorted(request.getInactiveProfiles()) + '\n');
+        for (Map.Entry<String, String> property : sortedProperties(request.getUserProperties()).entrySet()) {
+            update(sha1, "property " + property.getKey() + '=' + property.getValue() + '\n');
+        }
+        for (String name : PLATFORM_PROPERTIES) {
+            update(sha1, "platform " + name + '=' + request.getSystemProperties().getProperty(name) + '\n');
+        }
+        update(sha1, "settings " + fileId(request.getUserSettingsFile()) + ' ' + fileId(request.getGlobalSettingsFile()) + '\n');
+        return hex(sha1.digest());
+    }
+
+    /**
+     * @param key cache key
+     * @return snapshot of the reactor built earlier in this or a previous
+     * goal, <code>null</code> if not cached
+     */
+    public ReactorSnapshot getSnapshot(String key) {
+        Cached cached = snapshots.get(key);
+        if (null != cached && !isCurrent(cached.inputs)) {
+            LOG.debug("Cached reactor {} is out of date", key);
+            snapshots.remove(key);
+            cached = null;
+        }
+        if (null == cached) {
+            Properties inputs = loadInputs(key);
+            if (null == inputs || !isCurrent(inputs)) {
+                return null;
+            }
+            Map<File, Model> models = loadModels(key);
+            if (null == models || models.isEmpty()) {
+                return null;
+            }
+            cached = new Cached(ReactorSnapshot.of(models), inputs);
+            snapshots.put(key, cached);
+        }
+        return cached.snapshot;
+    }
+
+    /**
+     * Remember freshly built projects and write their effective models to
+     * disk.
+     *
+     * @param key cache key
+     * @param reactorProjects sorted reactor projects
+     * @return snapshot of the projects
+     */
+    public ReactorSnapshot put(String key, List<MavenProject> reactorProjects) {
+        ReactorSnapshot snapshot = ReactorSnapshot.of(reactorProjects);
+        Properties inputs = inputs(reactorProjects);
+        if (null == inputs) {
+            snapshots.remove(key);
+            return snapshot;
+        }
+        snapshots.put(key, new Cached(snapshot, inputs));
+        if (null == cacheDir) {
+            return snapshot;
+        }
+        File entry = new File(cacheDir, key);
+        try {
+            /* only a miss gets here, an existing entry is out of date */
+            delete(entry);
+            store(entry, reactorProjects, inputs);
+            prune();
+        } catch (IOException ex) {
+            LOG.debug("Unable to write model cache " + entry, ex);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Read the effective models stored for <code>key</code> by this or an
+     * earlier goal.
+     *
+     * @param key cache key
+     * @return POM file to effective model in reactor order or
+     * <code>null</code> if not cached
+     */
+    Map<File, Model> loadModels(String key) {
+        if (null == cacheDir) {
+            return null;
+        }
+        File entry = new File(cacheDir, key);
+        File index = new File(entry, INDEX);
+        if (!index.isFile()) {
+            return null;
+        }
+        Map<File, Model> models = new LinkedHashMap<>();
+        MavenXpp3Reader reader = new MavenXpp3Reader();
+        try (BufferedReader in = Files.newBufferedReader(index.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while (null != (line = in.readLine())) {
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    continue;
+                }
+                File modelFile = new File(entry, line.substring(0, tab));
+                try (InputStream modelIn = Files.newInputStream(modelFile.toPath())) {
+                    Model model = reader.read(modelIn, false);
+                    File pomFile = new File(baseDir, line.substring(tab + 1));
+                    model.setPomFile(pomFile);
+                    models.put(pomFile, model);
+                }
+            }
+        } catch (IOException | XmlPullParserException ex) {
+            LOG.debug("Ignoring unreadable model cache " + entry, ex);
+            return null;
+        }
+        /* touch for LRU pruning */
+        if (!entry.setLastModified(System.currentTimeMillis())) {
+            LOG.debug("Unable to touch {}", entry);
+        }
+        return models;
+    }
+
+    /**
+     * Read the inputs stored with the entry for <code>key</code>.
+     *
+     * @param key cache key
+     * @return the inputs or <code>null</code> if not cached
+     */
+    Properties loadInputs(String key) {
+        if (null == cacheDir) {
+            return null;
+        }
+        File file = new File(new File(cacheDir, key), INPUTS);
+        if (!file.isFile()) {
+            return null;
+        }
+        Properties inputs = new Properties();
+        try (Reader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            inputs.load(in);
+        } catch (IOException ex) {
+            LOG.debug("Ignoring unreadable model cache inputs " + file, ex);
+            return null;
+        }
+        return inputs;
+    }
+
+    /**
+     * Collect the inputs of the effective models that are not part of the
+     * key: parent POMs from outside the reactor and the properties profiles
+     * are activated by.
+     *
+     * @param reactorProjects freshly built reactor projects
+     * @return the inputs or <code>null</code> if the reactor cannot be cached
+     * e.g. a profile is activated by a file
+     */
+    Properties inputs(List<MavenProject> reactorProjects) {
+        Properties inputs = new Properties();
+        Set<String> propertyNames = new HashSet<>();
+        String basePath = baseDir.getAbsoluteFile().toPath().normalize().toString();
+        for (MavenProject reactorProject : reactorProjects) {
+            for (MavenProject ancestor = reactorProject; null != ancestor; ancestor = ancestor.getParent()) {
+                if (!collectActivationProperties(ancestor.getModel().getProfiles(), propertyNames)) {
+                    LOG.debug("Not caching reactor, {} has a profile activated by a file", ancestor);
+                    return null;
+                }
+                if (ancestor == reactorProject) {
+                    continue;
+                }
+                File pomFile = ancestor.getFile();
+                if (null == pomFile) {
+                    LOG.debug("Not caching reactor, the POM of parent {} is unknown", ancestor);
+                    return null;
+                }
+                String pomPath = pomFile.getAbsoluteFile().toPath().normalize().toString();
+                if (!pomPath.startsWith(basePath)) {
+                    inputs.setProperty(FILE_INPUT + pomPath, fileId(pomFile));
+                }
+            }
+        }
+        if (!collectActivationProperties(request.getProfiles(), propertyNames)) {
+            LOG.debug("Not caching reactor, a settings profile is activated by a file");
+            return null;
+        }
+        for (String name : propertyNames) {
+            inputs.setProperty(PROPERTY_INPUT + name, propertyValue(name));
+        }
+        return inputs;
+    }
+
+    /**
+     * @param inputs inputs stored with an entry
+     * @return <code>true</code> if every input is unchanged
+     */
+    boolean isCurrent(Properties inputs) {
+        for (String input : inputs.stringPropertyNames()) {
+            String current;
+            if (input.startsWith(FILE_INPUT)) {
+                current = fileId(new File(input.substring(FILE_INPUT.length())));
+            } else if (input.startsWith(PROPERTY_INPUT)) {
+                current = propertyValue(input.substring(PROPERTY_INPUT.length()));
+            } else {
+                return false;
+            }
+            if (!current.equals(inputs.getProperty(input))) {
+                LOG.debug("Model cache input {} changed", input);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return <code>false</code> if a profile is activated by a file
+     */
+    private static boolean collectActivationProperties(List<Profile> profiles, Set<String> names) {
+        if (null == profiles) {
+            return true;
+        }
+        for (Profile profile : profiles) {
+            Activation activation = profile.getActivation();
+            if (null == activation) {
+                continue;
+            }
+            if (null != activation.getFile()) {
+                return false;
+            }
+            ActivationProperty property = activation.getProperty();
+            if (null != property && null != property.getName()) {
+                String name = property.getName();
+                names.add(name.startsWith("!") ? name.substring(1) : name);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the value profile activation sees, user properties first
+     */
+    private String propertyValue(String name) {
+        String value = request.getUserProperties().getProperty(name);
+        if (null == value) {
+            value = request.getSystemProperties().getProperty(name);
+        }
+        return (null == value) ? MISSING : "=" + value;
+    }
+
+    private void store(File entry, List<MavenProject> reactorProjects, Properties inputs) throws IOException {
+        File tmp = new File(cacheDir, entry.getName() + ".tmp" + System.nanoTime());
+        if (!tmp.mkdirs()) {
+            throw new IOException("Failed to create " + tmp);
+        }
+        try (Writer out = Files.newBufferedWriter(new File(tmp, INPUTS).toPath(), StandardCharsets.UTF_8)) {
+            inputs.store(out, null);
+        }
+        MavenXpp3Writer writer = new MavenXpp3Writer();
+        StringBuilder index = new StringBuilder();
+        String basePath = baseDir.getAbsoluteFile().toPath().normalize().toString();
+        /* same order as the snapshot, root first */
+        List<MavenProject> ordered = new ArrayList<>(reactorProjects);
+        for (int i = 1; i < ordered.size(); i++) {
+            if (ordered.get(i).isExecutionRoot()) {
+                ordered.add(0, ordered.remove(i));
+                break;
+            }
+        }
+        for (int i = 0; i < ordered.size(); i++) {
+            MavenProject reactorProject = ordered.get(i);
+            String pomPath = reactorProject.getFile().getAbsoluteFile().toPath().normalize().toString();
+            if (!pomPath.startsWith(basePath)) {
+                throw new IOException("Project " + reactorProject + " is outside " + baseDir);
+            }
+            String relativePath = pomPath.substring(basePath.length()).replace(File.separatorChar, '/');
+            if (relativePath.startsWith("/")) {
+                relativePath = relativePath.substring(1);
+            }
+            String modelName = i + ".xml";
+            try (OutputStream out = Files.newOutputStream(new File(tmp, modelName).toPath())) {
+                writer.write(out, reactorProject.getModel());
+            }
+            index.append(modelName).append('\t').append(relativePath).append('\n');
+        }
+        /* index is written last, an entry without one is ignored */
+        try (Writer out = Files.newBufferedWriter(new File(tmp, INDEX).toPath(), StandardCharsets.UTF_8)) {
+            out.write(index.toString());
+        }
+        if (!tmp.renameTo(entry)) {
+            delete(tmp);
+            LOG.debug("Model cache {} written concurrently", entry);
+        }
+    }
+
+    /**
+     * Keep the {@link #MAX_ENTRIES} most recently used entries.
+     */
+    private void prune() {
+        File[] entries = cacheDir.listFiles();
+        if (null == entries || entries.length <= MAX_ENTRIES) {
+            return;
+        }
+        Arrays.sort(entries, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(b.lastModified(), a.lastModified());
+            }
+        });
+        for (int i = MAX_ENTRIES; i < entries.length; i++) {
+            try {
+                delete(entries[i]);
+            } catch (IOException ex) {
+                LOG.debug("Unable to prune " + entries[i], ex);
+            }
+        }
+    }
+
+    private static void delete(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (null != children) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        Files.deleteIfExists(file.toPath());
+    }
+
+    private static List<String> sorted(List<String> values) {
+        List<String> sorted = (null == values) ? new ArrayList<String>() : new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * @return the Git blob id of the file or <code>-</code> if it cannot be
+     * read
+     */
+    private static String fileId(File file) {
+        if (null == file || !file.isFile()) {
+            return MISSING;
+        }
+        try {
+            return blobId(Files.readAllBytes(file.toPath()));
+        } catch (IOException ex) {
+            LOG.debug("Unable to read " + file, ex);
+            return MISSING;
+        }
+    }
+
+    private static Map<String, String> sortedProperties(Properties properties) {
+        Map<String, String> sorted = new TreeMap<>();
+        if (null != properties) {
+            for (String name : properties.stringPropertyNames()) {
+                sorted.put(name, properties.getProperty(name));
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * @param content file content
+     * @return the id Git gives the content as a blob, i.e. the SHA-1 of
+     * <code>"blob &lt;length&gt;\0" + content</code>
+     */
+    public static String blobId(byte[] content) {
+        MessageDigest sha1 = sha1();
+        sha1.update(("blob " + content.length + '\0').getBytes(StandardCharsets.US_ASCII));
+        sha1.update(content);
+        return hex(sha1.digest());
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static final class Cached {
+
+        private final ReactorSnapshot snapshot;
+        private final Properties inputs;
+
+        private Cached(ReactorSnapshot snapshot, Properties inputs) {
+            this.snapshot = snapshot;
+            this.inputs = inputs;
+        }
+    }
+}
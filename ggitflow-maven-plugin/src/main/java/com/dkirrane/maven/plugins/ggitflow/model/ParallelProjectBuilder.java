@@ -0,0 +1,254 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.model.Activation;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingException;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds the projects of a reactor concurrently.
+ *
+ * The module POMs are found up front by reading the raw
+ * <code>&lt;modules&gt;</code> of each aggregator, which is a plain XML parse.
+ * Every module is then built on its own with
+ * {@link ProjectBuilder#build(File, ProjectBuildingRequest)} on a bounded
+ * pool and in-reactor parents are linked afterwards. The root POM's project
+ * is marked as the execution root. The caller sorts the result once.
+ *
+ * A module built on its own cannot see the other modules, so a reactor that
+ * imports one of its own BOMs, or a module that fails to build alone, e.g.
+ * it needs an in-reactor version that is not installed yet, is left to the
+ * recursive build.
+ *
+ * @since 3.1
+ */
+public class ParallelProjectBuilder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelProjectBuilder.class);
+
+    private final ProjectBuilder projectBuilder;
+    private final int threads;
+
+    public ParallelProjectBuilder(ProjectBuilder projectBuilder, int threads) {
+        this.projectBuilder = projectBuilder;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Build every project of the reactor rooted at <code>rootPom</code>.
+     *
+     * @param rootPom aggregator POM
+     * @param request the session's building request, copied per module
+     * @param activeProfiles ids of the profiles activated on the command line
+     * @return the projects in discovery order, root first, or
+     * <code>null</code> if the modules depend on profile activation that can
+     * only be evaluated by the project builder, import a BOM of the reactor
+     * or fail to build on their own, the caller should then build the
+     * reactor recursively
+     */
+    public List<MavenProject> build(File rootPom, final ProjectBuildingRequest request, List<String> activeProfiles) {
+        Set<File> pomFiles = new LinkedHashSet<>();
+        Set<String> modules = new HashSet<>();
+        Set<String> imports = new HashSet<>();
+        try {
+            if (!collect(rootPom.getCanonicalFile(), activeProfiles, pomFiles, modules, imports)) {
+                return null;
+            }
+        } catch (IOException | XmlPullParserException ex) {
+            LOG.debug("Unable to read modules of " + rootPom, ex);
+            return null;
+        }
+        imports.retainAll(modules);
+        if (!imports.isEmpty()) {
+            LOG.debug("Reactor {} imports its own BOMs {}", rootPom, imports);
+            return null;
+        }
+        LOG.debug("Building {} projects with {} threads", pomFiles.size(), threads);
+
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, pomFiles.size()), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ggitflow-reload-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setContextClassLoader(contextClassLoader);
+                return thread;
+            }
+        });
+        try {
+            List<Future<MavenProject>> futures = new ArrayList<>(pomFiles.size());
+            for (final File pomFile : pomFiles) {
+                futures.add(pool.submit(new Callable<MavenProject>() {
+                    @Override
+                    public MavenProject call() throws ProjectBuildingException {
+                        return projectBuilder.build(pomFile, new DefaultProjectBuildingRequest(request)).getProject();
+                    }
+                }));
+            }
+            List<MavenProject> projects = new ArrayList<>(futures.size());
+            for (Future<MavenProject> future : futures) {
+                projects.add(future.get());
+            }
+            projects.get(0).setExecutionRoot(true);
+            linkParents(projects);
+            return projects;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted building reactor " + rootPom, ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof ProjectBuildingException) {
+                LOG.debug("Unable to build a module of " + rootPom + " on its own", cause);
+                return null;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed building reactor " + rootPom, cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @param modules gets the <code>groupId:artifactId</code> of each module
+     * @param imports gets the <code>groupId:artifactId</code> of each BOM
+     * imported
+     * @return <code>false</code> if a profile that is not activated by id
+     * declares modules
+     */
+    private static boolean collect(File pomFile, List<String> activeProfiles, Set<File> pomFiles,
+            Set<String> modules, Set<String> imports) throws IOException, XmlPullParserException {
+        if (!pomFiles.add(pomFile)) {
+            return true;
+        }
+        Model model;
+        try (InputStream in = Files.newInputStream(pomFile.toPath())) {
+            model = new MavenXpp3Reader().read(in, false);
+        }
+        String groupId = model.getGroupId();
+        if (null == groupId && null != model.getParent()) {
+            groupId = model.getParent().getGroupId();
+        }
+        modules.add(groupId + ':' + model.getArtifactId());
+        addImports(model.getDependencyManagement(), groupId, imports);
+        for (Profile profile : model.getProfiles()) {
+            addImports(profile.getDependencyManagement(), groupId, imports);
+        }
+
+        Set<String> children = new LinkedHashSet<>(model.getModules());
+        for (Profile profile : model.getProfiles()) {
+            if (profile.getModules().isEmpty()) {
+                continue;
+            }
+            /* activeByDefault depends on the other profiles of the POM */
+            Activation activation = profile.getActivation();
+            if (null != activation && (activation.isActiveByDefault() || null != activation.getJdk() || null != activation.getOs()
+                    || null != activation.getProperty() || null != activation.getFile())) {
+                LOG.debug("Profile {} in {} activates modules conditionally", profile.getId(), pomFile);
+                return false;
+            }
+            if (activeProfiles.contains(profile.getId())) {
+                children.addAll(profile.getModules());
+            }
+        }
+
+        File dir = pomFile.getParentFile();
+        for (String module : children) {
+            File moduleFile = new File(dir, module.replace('\\', File.separatorChar).replace('/', File.separatorChar));
+            if (moduleFile.isDirectory()) {
+                moduleFile = new File(moduleFile, "pom.xml");
+            }
+            if (!moduleFile.isFile()) {
+                /* let the project builder report the missing module */
+                return false;
+            }
+            if (!collect(moduleFile.getCanonicalFile(), activeProfiles, pomFiles, modules, imports)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addImports(DependencyManagement dependencyManagement, String groupId, Set<String> imports) {
+        if (null == dependencyManagement) {
+            return;
+        }
+        for (Dependency dependency : dependencyManagement.getDependencies()) {
+            if ("import".equals(dependency.getScope())) {
+                String importGroupId = dependency.getGroupId();
+                if ("${project.groupId}".equals(importGroupId) || "${pom.groupId}".equals(importGroupId)) {
+                    importGroupId = groupId;
+                }
+                imports.add(importGroupId + ':' + dependency.getArtifactId());
+            }
+        }
+    }
+
+    /**
+     * Point each project at its parent project when the parent is part of the
+     * reactor, as a recursive build would.
+     */
+    static void linkParents(Collection<MavenProject> projects) {
+        Map<String, MavenProject> byGav = new HashMap<>();
+        for (MavenProject project : projects) {
+            byGav.put(project.getGroupId() + ':' + project.getArtifactId() + ':' + project.getVersion(), project);
+        }
+        for (MavenProject project : projects) {
+            Parent parent = project.getModel().getParent();
+            if (null != parent) {
+                MavenProject reactorParent = byGav.get(parent.getGroupId() + ':' + parent.getArtifactId() + ':' + parent.getVersion());
+                if (null != reactorParent) {
+                    project.setParent(reactorParent);
+                }
+            }
+        }
+    }
+}
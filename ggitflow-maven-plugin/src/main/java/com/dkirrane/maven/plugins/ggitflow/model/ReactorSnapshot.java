@@ -0,0 +1,256 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.model;
+
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Extension;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Immutable description of a reactor: coordinates, parent, dependency
+ * versions and POM file of every module.
+ *
+ * This is all the version and SNAPSHOT logic of the gitflow goals needs, so
+ * those checks read it instead of the {@link MavenProject} graphs. A reload
+ * served from the model cache keeps only a snapshot and the root project. A
+ * reload that runs the project builder still keeps the built projects, as
+ * <code>versions:set</code> usually runs on them next.
+ *
+ * @since 3.1
+ */
+public final class ReactorSnapshot {
+
+    private final ImmutableList<Module> modules;
+    /* set by ReactorSorter */
+    private volatile int[] buildOrder;
+
+    private ReactorSnapshot(List<Module> modules) {
+        this.modules = ImmutableList.copyOf(modules);
+    }
+
+    /**
+     * @param projects reactor projects, the first one or the execution root is
+     * the root module
+     * @return snapshot of the projects' effective models
+     */
+    public static ReactorSnapshot of(List<MavenProject> projects) {
+        List<Module> modules = new ArrayList<>(projects.size());
+        int root = 0;
+        for (int i = 0; i < projects.size(); i++) {
+            MavenProject project = projects.get(i);
+            if (project.isExecutionRoot()) {
+                root = i;
+            }
+            modules.add(new Module(project.getModel(), project.getFile()));
+        }
+        if (root != 0) {
+            modules.add(0, modules.remove(root));
+        }
+        return new ReactorSnapshot(modules);
+    }
+
+    /**
+     * @param models POM file to effective model, root first
+     * @return snapshot of the models
+     */
+    public static ReactorSnapshot of(Map<File, Model> models) {
+        List<Module> modules = new ArrayList<>(models.size());
+        for (Map.Entry<File, Model> entry : models.entrySet()) {
+            modules.add(new Module(entry.getValue(), entry.getKey()));
+        }
+        return new ReactorSnapshot(modules);
+    }
+
+    /**
+     * @return the root module
+     */
+    public Module getRoot() {
+        return modules.get(0);
+    }
+
+    /**
+     * @return version of the root module
+     */
+    public String getVersion() {
+        return getRoot().getVersion();
+    }
+
+    /**
+     * @return all modules, root first
+     */
+    public List<Module> getModules() {
+        return modules;
+    }
+
+    public int size() {
+        return modules.size();
+    }
+
+    int[] getBuildOrder() {
+        return buildOrder;
+    }
+
+    void setBuildOrder(int[] buildOrder) {
+        this.buildOrder = buildOrder;
+    }
+
+    /**
+     * Coordinates of a module, parent or dependency.
+     */
+    public static final class Gav {
+
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+
+        Gav(String groupId, String artifactId, String version) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        /**
+         * @return <code>true</code> if the version ends in
+         * <code>-SNAPSHOT</code>
+         */
+        public boolean isSnapshot() {
+            return null != version && version.endsWith("-SNAPSHOT");
+        }
+
+        @Override
+        public String toString() {
+            return groupId + ':' + artifactId + ':' + version;
+        }
+    }
+
+    /**
+     * A reactor module.
+     */
+    public static final class Module {
+
+        private final Gav gav;
+        private final String packaging;
+        private final File pomFile;
+        private final Gav parent;
+        private final ImmutableList<Gav> dependencies;
+        private final ImmutableList<Gav> managedDependencies;
+        private final ImmutableList<Gav> plugins;
+
+        Module(Model model, File pomFile) {
+            this.gav = new Gav(model.getGroupId(), model.getArtifactId(), model.getVersion());
+            this.packaging = model.getPackaging();
+            this.pomFile = pomFile;
+            Parent modelParent = model.getParent();
+            this.parent = (null == modelParent) ? null : new Gav(modelParent.getGroupId(), modelParent.getArtifactId(), modelParent.getVersion());
+            this.dependencies = gavs(model.getDependencies());
+            DependencyManagement dependencyManagement = model.getDependencyManagement();
+            this.managedDependencies = (null == dependencyManagement) ? ImmutableList.<Gav>of() : gavs(dependencyManagement.getDependencies());
+            ImmutableList.Builder<Gav> buildPlugins = ImmutableList.builder();
+            Build build = model.getBuild();
+            if (null != build) {
+                for (Plugin plugin : build.getPlugins()) {
+                    buildPlugins.add(new Gav(plugin.getGroupId(), plugin.getArtifactId(), plugin.getVersion()));
+                }
+                for (Extension extension : build.getExtensions()) {
+                    buildPlugins.add(new Gav(extension.getGroupId(), extension.getArtifactId(), extension.getVersion()));
+                }
+            }
+            this.plugins = buildPlugins.build();
+        }
+
+        private static ImmutableList<Gav> gavs(Collection<Dependency> dependencies) {
+            ImmutableList.Builder<Gav> gavs = ImmutableList.builder();
+            for (Dependency dependency : dependencies) {
+                gavs.add(new Gav(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion()));
+            }
+            return gavs.build();
+        }
+
+        public Gav getGav() {
+            return gav;
+        }
+
+        public String getGroupId() {
+            return gav.getGroupId();
+        }
+
+        public String getArtifactId() {
+            return gav.getArtifactId();
+        }
+
+        public String getVersion() {
+            return gav.getVersion();
+        }
+
+        public String getPackaging() {
+            return packaging;
+        }
+
+        public File getPomFile() {
+            return pomFile;
+        }
+
+        /**
+         * @return the parent or <code>null</code>
+         */
+        public Gav getParent() {
+            return parent;
+        }
+
+        public List<Gav> getDependencies() {
+            return dependencies;
+        }
+
+        public List<Gav> getManagedDependencies() {
+            return managedDependencies;
+        }
+
+        /**
+         * @return build plugins and build extensions
+         */
+        public List<Gav> getPlugins() {
+            return plugins;
+        }
+
+        @Override
+        public String toString() {
+            return gav.toString();
+        }
+    }
+}
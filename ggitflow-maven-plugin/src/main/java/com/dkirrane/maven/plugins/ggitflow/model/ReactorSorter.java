@@ -0,0 +1,250 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import org.apache.maven.project.DuplicateProjectException;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.dag.CycleDetectedException;
+
+/**
+ * Orders reactor modules so that every module comes after its parent, its
+ * dependencies and the build plugins and extensions it uses from the same
+ * reactor.
+ *
+ * Modules are numbered by their position in the {@link ReactorSnapshot} and
+ * the graph is held in int arrays, so sorting is a single pass of Kahn's
+ * algorithm. The ready module with the lowest index is taken first, so
+ * modules keep the snapshot order wherever their requirements allow it.
+ * Managed dependencies are not edges, as with Maven's own
+ * <code>ProjectSorter</code>.
+ *
+ * The order is remembered on the snapshot. The model cache hands out the same
+ * snapshot for unchanged POMs, so reloads of an unchanged reactor do not sort
+ * again.
+ *
+ * @since 3.1
+ */
+public final class ReactorSorter {
+
+    private ReactorSorter() {
+    }
+
+    /**
+     * @param snapshot reactor to sort
+     * @return indexes into {@link ReactorSnapshot#getModules()} in build
+     * order
+     * @throws CycleDetectedException if modules depend on each other
+     * @throws DuplicateProjectException if two modules have the same
+     * <code>groupId:artifactId</code>
+     */
+    public static int[] sort(ReactorSnapshot snapshot) throws CycleDetectedException, DuplicateProjectException {
+        int[] order = snapshot.getBuildOrder();
+        if (null == order) {
+            order = computeOrder(snapshot.getModules());
+            snapshot.setBuildOrder(order);
+        }
+        return order.clone();
+    }
+
+    /**
+     * Sort freshly built projects.
+     *
+     * @param projects reactor projects
+     * @param snapshot snapshot of the same POMs, e.g. from the model cache,
+     * its order is reused if it has a module for each project, may be
+     * <code>null</code>
+     * @return the projects in build order
+     * @throws CycleDetectedException if modules depend on each other
+     * @throws DuplicateProjectException if two modules have the same
+     * <code>groupId:artifactId</code>
+     */
+    public static List<MavenProject> sort(List<MavenProject> projects, ReactorSnapshot snapshot) throws CycleDetectedException, DuplicateProjectException {
+        if (null != snapshot && snapshot.size() == projects.size()) {
+            Map<File, MavenProject> byPom = new HashMap<>();
+            for (MavenProject project : projects) {
+                byPom.put(project.getFile().getAbsoluteFile(), project);
+            }
+            List<MavenProject> sorted = new ArrayList<>(projects.size());
+            for (int index : sort(snapshot)) {
+                MavenProject project = byPom.remove(snapshot.getModules().get(index).getPomFile().getAbsoluteFile());
+                if (null == project) {
+                    break;
+                }
+                sorted.add(project);
+            }
+            if (sorted.size() == projects.size()) {
+                return sorted;
+            }
+        }
+        List<ReactorSnapshot.Module> modules = new ArrayList<>(projects.size());
+        for (MavenProject project : projects) {
+            modules.add(new ReactorSnapshot.Module(project.getModel(), project.getFile()));
+        }
+        List<MavenProject> sorted = new ArrayList<>(projects.size());
+        for (int index : computeOrder(modules)) {
+            sorted.add(projects.get(index));
+        }
+        return sorted;
+    }
+
+    static int[] computeOrder(List<ReactorSnapshot.Module> modules) throws CycleDetectedException, DuplicateProjectException {
+        int count = modules.size();
+        int[][] requires = requirements(modules);
+        int edges = 0;
+        for (int[] required : requires) {
+            edges += required.length;
+        }
+
+        /* invert into a flat adjacency list of dependents */
+        int[] inDegree = new int[count];
+        int[] offsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            inDegree[i] = requires[i].length;
+            for (int required : requires[i]) {
+                offsets[required + 1]++;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] dependents = new int[edges];
+        int[] fill = Arrays.copyOf(offsets, count);
+        for (int i = 0; i < count; i++) {
+            for (int required : requires[i]) {
+                dependents[fill[required]++] = i;
+            }
+        }
+
+        /* Kahn, taking the lowest ready index each time */
+        PriorityQueue<Integer> ready = new PriorityQueue<>();
+        for (int i = 0; i < count; i++) {
+            if (inDegree[i] == 0) {
+                ready.add(i);
+            }
+        }
+        int[] order = new int[count];
+        int tail = 0;
+        while (!ready.isEmpty()) {
+            int next = ready.poll();
+            order[tail++] = next;
+            for (int e = offsets[next]; e < offsets[next + 1]; e++) {
+                if (--inDegree[dependents[e]] == 0) {
+                    ready.add(dependents[e]);
+                }
+            }
+        }
+        if (tail < count) {
+            throw new CycleDetectedException("The projects in the reactor contain a cyclic reference", findCycle(modules, requires, inDegree));
+        }
+        return order;
+    }
+
+    /**
+     * @param modules reactor modules
+     * @return for each module the indexes of the modules it must be built
+     * after, without repeats
+     * @throws DuplicateProjectException if two modules have the same
+     * <code>groupId:artifactId</code>
+     */
+    static int[][] requirements(List<ReactorSnapshot.Module> modules) throws DuplicateProjectException {
+        int count = modules.size();
+        Map<String, Integer> byId = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            ReactorSnapshot.Module module = modules.get(i);
+            Integer existing = byId.put(id(module.getGroupId(), module.getArtifactId()), i);
+            if (null != existing) {
+                throw new DuplicateProjectException("Project '" + id(module.getGroupId(), module.getArtifactId()) + "' is duplicated in the reactor: "
+                        + modules.get(existing).getPomFile() + " and " + module.getPomFile());
+            }
+        }
+
+        int[][] requires = new int[count][];
+        int[] scratch = new int[count];
+        int[] seen = new int[count];
+        Arrays.fill(seen, -1);
+        for (int i = 0; i < count; i++) {
+            ReactorSnapshot.Module module = modules.get(i);
+            int size = 0;
+            size = addEdge(byId, module.getParent(), i, scratch, size, seen, modules);
+            for (ReactorSnapshot.Gav dependency : module.getDependencies()) {
+                size = addEdge(byId, dependency, i, scratch, size, seen, modules);
+            }
+            for (ReactorSnapshot.Gav plugin : module.getPlugins()) {
+                size = addEdge(byId, plugin, i, scratch, size, seen, modules);
+            }
+            requires[i] = Arrays.copyOf(scratch, size);
+        }
+        return requires;
+    }
+
+    private static int addEdge(Map<String, Integer> byId, ReactorSnapshot.Gav gav, int from, int[] edges, int size, int[] seen, List<ReactorSnapshot.Module> modules) {
+        if (null == gav) {
+            return size;
+        }
+        Integer to = byId.get(id(gav.getGroupId(), gav.getArtifactId()));
+        if (null == to || to == from || seen[to] == from) {
+            return size;
+        }
+        /* plugins and extensions may leave the version to pluginManagement */
+        if (null != gav.getVersion() && !gav.getVersion().equals(modules.get(to).getVersion())) {
+            return size;
+        }
+        seen[to] = from;
+        edges[size] = to;
+        return size + 1;
+    }
+
+    /**
+     * Every module left with a positive in-degree requires another such
+     * module, so walking those requirements must come back on itself.
+     */
+    private static List<String> findCycle(List<ReactorSnapshot.Module> modules, int[][] requires, int[] inDegree) {
+        int[] visitedAt = new int[modules.size()];
+        Arrays.fill(visitedAt, -1);
+        List<Integer> path = new ArrayList<>();
+        int current = 0;
+        while (inDegree[current] == 0) {
+            current++;
+        }
+        while (visitedAt[current] < 0) {
+            visitedAt[current] = path.size();
+            path.add(current);
+            for (int required : requires[current]) {
+                if (inDegree[required] > 0) {
+                    current = required;
+                    break;
+                }
+            }
+        }
+        List<String> cycle = new ArrayList<>();
+        for (int i = visitedAt[current]; i < path.size(); i++) {
+            cycle.add(modules.get(path.get(i)).toString());
+        }
+        cycle.add(modules.get(current).toString());
+        return cycle;
+    }
+
+    private static String id(String groupId, String artifactId) {
+        return groupId + ':' + artifactId;
+    }
+}
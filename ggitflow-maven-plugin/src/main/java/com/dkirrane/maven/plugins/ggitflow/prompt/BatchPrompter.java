@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.prompt;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.io.IOException;
+import java.util.List;
+import org.codehaus.plexus.component.annotations.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link Prompter} used in batch mode.
+ *
+ * Never touches the terminal. Prompts with a default take the default, a
+ * Yes/No prompt is answered No and anything that needs an answer from the
+ * user fails.
+ *
+ * @since 3.1
+ */
+@Component(role = Prompter.class, hint = "batch")
+public class BatchPrompter implements Prompter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchPrompter.class);
+
+    @Override
+    public String prompt(String message, Character mask) throws IOException {
+        checkNotNull(message);
+
+        throw new IOException("Cannot prompt '" + message + "' in batch mode");
+    }
+
+    @Override
+    public String prompt(String message) throws IOException {
+        return prompt(message, null);
+    }
+
+    @Override
+    public boolean promptYesNo(String message) throws IOException {
+        checkNotNull(message);
+
+        LOG.info("{}? (y/N): N", message);
+        return false;
+    }
+
+    @Override
+    public String promptWithDefault(String message, String defaultValue) throws IOException {
+        checkNotNull(message);
+        checkNotNull(defaultValue);
+
+        LOG.info("{} ({}): {}", message, defaultValue, defaultValue);
+        return defaultValue;
+    }
+
+    @Override
+    public String promptChoice(String header, String message, List<String> choices) throws IOException {
+        checkNotNull(message);
+
+        throw new IOException("Cannot prompt '" + message + "' in batch mode, choices are " + choices);
+    }
+
+    @Override
+    public Integer promptInteger(String message, Integer min, Integer max) throws IOException {
+        return Integer.valueOf(prompt(message));
+    }
+
+    @Override
+    public void pushPrompt(String header, List<String> pushTags, List<String> pushBranches, List<String> deleteBranches) {
+        checkNotNull(header);
+
+        LOG.info("{} Pushing tags {} branches {}, deleting {}", header, pushTags, pushBranches, deleteBranches);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.prompt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Searches a large list of branch names as the user types.
+ *
+ * Every name is split into trigrams and each trigram maps to the ascending
+ * positions of the names that contain it. A query of three or more
+ * characters only looks at the names holding all of its trigrams, shortest
+ * posting list first, so the cost depends on the number of matches and not
+ * on the number of branches. When a query extends the previous one the
+ * previous matches are filtered instead.
+ *
+ * Results keep the order of the names given, so callers pass the names most
+ * recent first. If no name contains the query the names holding its
+ * characters in order are returned, e.g. <code>fbar</code> finds
+ * <code>feature/bar</code>.
+ *
+ * @since 3.1
+ */
+public final class BranchIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final List<String> names;
+    private final String[] lower;
+    private final int[] all;
+    private final Map<String, int[]> trigrams;
+
+    public BranchIndex(List<String> names) {
+        this.names = new ArrayList<>(names);
+        this.lower = new String[names.size()];
+        this.all = new int[names.size()];
+
+        Map<String, int[]> postings = new HashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        for (int i = 0; i < lower.length; i++) {
+            lower[i] = names.get(i).toLowerCase(Locale.ENGLISH);
+            all[i] = i;
+            for (String trigram : trigrams(lower[i])) {
+                int[] posting = postings.get(trigram);
+                int size = sizes.containsKey(trigram) ? sizes.get(trigram) : 0;
+                if (null == posting) {
+                    posting = new int[4];
+                } else if (size == posting.length) {
+                    posting = Arrays.copyOf(posting, size * 2);
+                }
+                posting[size] = i;
+                postings.put(trigram, posting);
+                sizes.put(trigram, size + 1);
+            }
+        }
+        for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+            entry.setValue(Arrays.copyOf(entry.getValue(), sizes.get(entry.getKey())));
+        }
+        this.trigrams = postings;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public String get(int position) {
+        return names.get(position);
+    }
+
+    /**
+     * @param query text typed by the user
+     * @return positions of the matching names, in the order they were given
+     */
+    public int[] search(String query) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return all.clone();
+        }
+        int[] candidates = all;
+        if (q.length() >= 3) {
+            List<int[]> postings = new ArrayList<>();
+            for (String trigram : trigrams(q)) {
+                int[] posting = trigrams.get(trigram);
+                if (null == posting) {
+                    postings.clear();
+                    postings.add(NONE);
+                    break;
+                }
+                postings.add(posting);
+            }
+            Collections.sort(postings, new Comparator<int[]>() {
+                @Override
+                public int compare(int[] a, int[] b) {
+                    return Integer.compare(a.length, b.length);
+                }
+            });
+            candidates = postings.get(0);
+            for (int i = 1; i < postings.size() && candidates.length > 0; i++) {
+                candidates = intersect(candidates, postings.get(i));
+            }
+        }
+        int[] matches = contains(candidates, q);
+        if (matches.length == 0) {
+            matches = subsequence(all, q);
+        }
+        return matches;
+    }
+
+    /**
+     * Narrow the result of a previous query.
+     *
+     * @param previous positions returned for a prefix of <code>query</code>
+     * @param query text typed by the user
+     * @return positions of the previous matches that also match
+     * <code>query</code>
+     */
+    public int[] narrow(int[] previous, String query) {
+        String q = normalize(query);
+        int[] matches = contains(previous, q);
+        if (matches.length == 0) {
+            matches = subsequence(previous, q);
+        }
+        return matches;
+    }
+
+    /**
+     * @param prefix start of a branch name
+     * @return names starting with <code>prefix</code>, in the order they were
+     * given
+     */
+    public List<String> complete(String prefix) {
+        String p = normalize(prefix);
+        int[] candidates = (p.length() >= 3) ? search(p) : all;
+        List<String> completions = new ArrayList<>();
+        for (int i : candidates) {
+            if (lower[i].startsWith(p)) {
+                completions.add(names.get(i));
+            }
+        }
+        return completions;
+    }
+
+    private int[] contains(int[] candidates, String q) {
+        int[] matches = new int[candidates.length];
+        int size = 0;
+        for (int i : candidates) {
+            if (lower[i].contains(q)) {
+                matches[size++] = i;
+            }
+        }
+        return Arrays.copyOf(matches, size);
+    }
+
+    private int[] subsequence(int[] candidates, String q) {
+        int[] matches = new int[candidates.length];
+        int size = 0;
+        for (int i : candidates) {
+            String name = lower[i];
+            int at = 0;
+            for (int c = 0; c < q.length() && at >= 0; c++) {
+                at = name.indexOf(q.charAt(c), at);
+                if (at >= 0) {
+                    at++;
+                }
+            }
+            if (at >= 0) {
+                matches[size++] = i;
+            }
+        }
+        return Arrays.copyOf(matches, size);
+    }
+
+    private static int[] intersect(int[] smaller, int[] larger) {
+        int[] result = new int[smaller.length];
+        int size = 0;
+        int j = 0;
+        for (int value : smaller) {
+            while (j < larger.length && larger[j] < value) {
+                j++;
+            }
+            if (j == larger.length) {
+                break;
+            }
+            if (larger[j] == value) {
+                result[size++] = value;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            result.add(text.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static String normalize(String query) {
+        return (null == query) ? "" : query.trim().toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -16,13 +16,9 @@
 package com.dkirrane.maven.plugins.ggitflow.prompt;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import freemarker.template.Template;
 import freemarker.template.TemplateException;
-import freemarker.template.TemplateExceptionHandler;
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,23 +42,12 @@ public class FreeMarkerImpl implements FreeMarker {
 
         try {
 
-            freemarker.template.Configuration cfg = new freemarker.template.Configuration(freemarker.template.Configuration.getVersion());
-            cfg.setClassForTemplateLoading(PrompterImpl.class, "/freemarker");
-            cfg.setDefaultEncoding("UTF-8");
-            cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-            cfg.setLogTemplateExceptions(false);
-
-            Template template = cfg.getTemplate("error.ftl");
-
             // Build the data-model
             Map<String, Object> data = new HashMap<>();
             data.put("header", header);
             data.put("message", message);
 
-            // Console output
-            Writer out = new OutputStreamWriter(System.out);
-            template.process(data, out);
-            out.flush();
+            Templates.render("error.ftl", data);
 
         } catch (TemplateException | IOException ex) {
             LOG.error("Failed to log Git error", ex);
@@ -75,14 +60,6 @@ public class FreeMarkerImpl implements FreeMarker {
 
         try {
 
-            freemarker.template.Configuration cfg = new freemarker.template.Configuration(freemarker.template.Configuration.getVersion());
-            cfg.setClassForTemplateLoading(PrompterImpl.class, "/freemarker");
-            cfg.setDefaultEncoding("UTF-8");
-            cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-            cfg.setLogTemplateExceptions(false);
-
-            Template template = cfg.getTemplate("git-error.ftl");
-
             // Build the data-model
             Map<String, Object> data = new HashMap<>();
             data.put("header", header);
@@ -91,10 +68,7 @@ public class FreeMarkerImpl implements FreeMarker {
             data.put("stout", stout);
             data.put("sterr", sterr);
 
-            // Console output
-            Writer out = new OutputStreamWriter(System.out);
-            template.process(data, out);
-            out.flush();
+            Templates.render("git-error.ftl", data);
 
         } catch (TemplateException | IOException ex) {
             LOG.error("Failed to log Git error", ex);
@@ -108,24 +82,13 @@ public class FreeMarkerImpl implements FreeMarker {
         checkNotNull(message);
 
         try {
-
-            freemarker.template.Configuration cfg = new freemarker.template.Configuration(freemarker.template.Configuration.getVersion());
-            cfg.setClassForTemplateLoading(PrompterImpl.class, "/freemarker");
-            cfg.setDefaultEncoding("UTF-8");
-            cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-            cfg.setLogTemplateExceptions(false);
-
-            Template template = cfg.getTemplate("merge-conflict.ftl");
             Map<String, Object> data = new HashMap<>();
             data.put("header", header);
             data.put("message", message);
             data.put("conflicts", conflictedFiles);
             data.put("footer", footer);
 
-            // Console output
-            Writer out = new OutputStreamWriter(System.out);
-            template.process(data, out);
-            out.flush();
+            Templates.render("merge-conflict.ftl", data);
 
         } catch (TemplateException | IOException ex) {
             LOG.error("{} {}", header, message, ex);
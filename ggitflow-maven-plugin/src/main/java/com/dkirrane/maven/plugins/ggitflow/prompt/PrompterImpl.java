@@ -17,12 +17,8 @@ package com.dkirrane.maven.plugins.ggitflow.prompt;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import freemarker.template.Template;
 import freemarker.template.TemplateException;
-import freemarker.template.TemplateExceptionHandler;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +38,8 @@ import org.slf4j.LoggerFactory;
 /**
  * Default {@link Prompter} implementation.
  *
+ * The jline console is only set up the first time the user is prompted.
+ *
  * @since 3.0
  */
 @Component(role = Prompter.class, instantiationStrategy = "per-lookup")
@@ -49,19 +47,31 @@ public class PrompterImpl implements Prompter {
 
     private static final Logger LOG = LoggerFactory.getLogger(PrompterImpl.class);
 
-    private final ConsoleReader console;
-
-    public PrompterImpl() throws IOException {
-        TerminalFactory.configure(TerminalFactory.NONE);
-        TerminalFactory.reset();
-        Configuration.reset();
-        this.console = new ConsoleReader();
-        this.console.setHistoryEnabled(false);
-        this.console.setExpandEvents(false);
+    /**
+     * Longer lists of choices are searched and paged instead of printed
+     */
+    private static final int PICKER_THRESHOLD = 20;
+    private static final int PAGE_SIZE = 10;
+
+    private ConsoleReader console;
+
+    public synchronized ConsoleReader getConsole() throws IOException {
+        if (null == console) {
+            TerminalFactory.configure(TerminalFactory.NONE);
+            TerminalFactory.reset();
+            Configuration.reset();
+            console = new ConsoleReader();
+            console.setHistoryEnabled(false);
+            console.setExpandEvents(false);
+        }
+        return console;
     }
 
-    public ConsoleReader getConsole() {
-        return console;
+    private static String style(String prompt) {
+        if (!Templates.ANSI) {
+            return prompt;
+        }
+        return ansi().fg(GREEN).bold().a(prompt).boldOff().reset().toString();
     }
 
     @Override
@@ -73,7 +83,7 @@ public class PrompterImpl implements Prompter {
         do {
             // mask DOES NOT WORK on WINDOWS 10 https://github.com/jline/jline2/issues/225
 //            value = console.readLine(ansi().fg(GREEN).a(prompt).reset().toString(), mask);
-            value = console.readLine(ansi().fg(GREEN).bold().a(prompt).boldOff().reset().toString(), null);
+            value = getConsole().readLine(style(prompt), null);
 
             // Do not LOG values read when masked
             if (mask == null) {
@@ -97,7 +107,7 @@ public class PrompterImpl implements Prompter {
         checkNotNull(message);
 
         final String prompt = String.format("%s? (y/N): ", message);
-        String value = console.readLine(ansi().fg(GREEN).bold().a(prompt).boldOff().reset().toString());
+        String value = getConsole().readLine(style(prompt));
         return value.matches("^([yY][eE][sS]|[yY])$");
     }
 
@@ -107,7 +117,7 @@ public class PrompterImpl implements Prompter {
         checkNotNull(defaultValue);
 
         final String prompt = String.format("%s (%s): ", message, defaultValue);
-        String value = console.readLine(ansi().fg(GREEN).bold().a(prompt).boldOff().reset().toString());
+        String value = getConsole().readLine(style(prompt));
         if (StringUtils.isBlank(value)) {
             return defaultValue;
         }
@@ -133,11 +143,11 @@ public class PrompterImpl implements Prompter {
             Integer value = parseInt(raw);
             if (value != null) {
                 if (min != null && value < min) {
-                    console.println("Value must be greater than " + (min - 1) + ": " + raw);
+                    getConsole().println("Value must be greater than " + (min - 1) + ": " + raw);
                     continue;
                 }
                 if (max != null && value > max) {
-                    console.println("Value must be less than " + max + ": " + raw);
+                    getConsole().println("Value must be less than " + max + ": " + raw);
                     continue;
                 }
 
@@ -145,7 +155,7 @@ public class PrompterImpl implements Prompter {
                 return value;
             }
             // else invalid, try again
-            console.println("Invalid value: " + raw);
+            getConsole().println("Invalid value: " + raw);
         }
     }
 
@@ -155,38 +165,31 @@ public class PrompterImpl implements Prompter {
         checkNotNull(message);
         checkArgument(!choices.isEmpty(), "choices cannot be empty");
 
+        if (choices.size() > PICKER_THRESHOLD) {
+            return pickChoice(header, message, choices);
+        }
+
         if (choices.size() > 1) {
             /* Output choices using freemarker */
             try {
 
-                freemarker.template.Configuration cfg = new freemarker.template.Configuration(freemarker.template.Configuration.getVersion());
-                cfg.setClassForTemplateLoading(PrompterImpl.class, "/freemarker");
-                cfg.setDefaultEncoding("UTF-8");
-                cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-                cfg.setLogTemplateExceptions(false);
-
-                Template template = cfg.getTemplate("choices.ftl");
-
                 // Build the data-model
                 Map<String, Object> data = new HashMap<>();
                 data.put("header", header);
                 data.put("choices", choices);
 
-                // Console output
-                Writer out = new OutputStreamWriter(System.out);
-                template.process(data, out);
-                out.flush();
+                Templates.render("choices.ftl", data);
 
             } catch (TemplateException | IOException ex) {
                 java.util.logging.Logger.getLogger(PrompterImpl.class.getName()).log(Level.SEVERE, null, ex);
             }
         }
 
-        console.println("");
+        getConsole().println("");
 
         // setup completer
         Completer completer = new StringsCompleter(choices);
-        console.addCompleter(completer);
+        getConsole().addCompleter(completer);
 
         try {
             String value;
@@ -205,11 +208,96 @@ public class PrompterImpl implements Prompter {
                     break;
                 }
 
-                console.println("Invalid selection: " + value);
+                getConsole().println("Invalid selection: " + value);
             }
             return value;
         } finally {
-            console.removeCompleter(completer);
+            getConsole().removeCompleter(completer);
+        }
+    }
+
+    /**
+     * Let the user narrow a long list of choices with a search and page
+     * through the matches. The choices are listed in the order given, so
+     * callers put the most likely first.
+     */
+    private String pickChoice(final String header, final String message, final List<String> choices) throws IOException {
+        final BranchIndex index = new BranchIndex(choices);
+        Completer completer = new Completer() {
+            @Override
+            public int complete(String buffer, int cursor, List<CharSequence> candidates) {
+                candidates.addAll(index.complete(buffer));
+                return candidates.isEmpty() ? -1 : 0;
+            }
+        };
+        getConsole().addCompleter(completer);
+
+        try {
+            String query = "";
+            int[] matches = index.search(query);
+            int page = 0;
+            while (true) {
+                int from = page * PAGE_SIZE;
+                int to = Math.min(from + PAGE_SIZE, matches.length);
+                getConsole().println("");
+                getConsole().println(String.format("%s: %d of %d%s", header, matches.length, index.size(), query.isEmpty() ? "" : " matching '" + query + "'"));
+                for (int i = from; i < to; i++) {
+                    getConsole().println(String.format("  %-6s%s", "(" + (i + 1) + ")", index.get(matches[i])));
+                }
+                if (to < matches.length) {
+                    getConsole().println("  ... 'n' for the next page");
+                }
+
+                String first = (matches.length > 0) ? index.get(matches[0]) : "";
+                String prompt = String.format("%s, or type to search (%s): ", message, first);
+                String value = getConsole().readLine(style(prompt));
+                if (null == value) {
+                    throw new IOException("No input for '" + message + "'");
+                }
+                value = value.trim();
+                LOG.debug("Read value: '{}'", value);
+
+                if (value.isEmpty()) {
+                    if (matches.length > 0) {
+                        return first;
+                    }
+                    continue;
+                }
+                Integer i = parseInt(value);
+                if (i != null) {
+                    if (i > 0 && i <= matches.length) {
+                        return index.get(matches[i - 1]);
+                    }
+                    getConsole().println("Invalid selection: " + value);
+                    continue;
+                }
+                if ("n".equals(value) || "p".equals(value)) {
+                    int last = Math.max(0, (matches.length - 1) / PAGE_SIZE);
+                    page = "n".equals(value) ? Math.min(page + 1, last) : Math.max(page - 1, 0);
+                    continue;
+                }
+                if (matches.length == 1 && index.get(matches[0]).equals(value)) {
+                    return value;
+                }
+
+                int[] narrowed = null;
+                if (!query.isEmpty() && value.startsWith(query)) {
+                    narrowed = index.narrow(matches, value);
+                }
+                if (null == narrowed || narrowed.length == 0) {
+                    narrowed = index.search(value);
+                }
+                for (int n : narrowed) {
+                    if (index.get(n).equals(value)) {
+                        return value;
+                    }
+                }
+                query = value;
+                matches = narrowed;
+                page = 0;
+            }
+        } finally {
+            getConsole().removeCompleter(completer);
         }
     }
 
@@ -221,24 +309,13 @@ public class PrompterImpl implements Prompter {
         checkNotNull(deleteBranches);
 
         try {
-
-            freemarker.template.Configuration cfg = new freemarker.template.Configuration(freemarker.template.Configuration.getVersion());
-            cfg.setClassForTemplateLoading(PrompterImpl.class, "/freemarker");
-            cfg.setDefaultEncoding("UTF-8");
-            cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-            cfg.setLogTemplateExceptions(false);
-
-            Template template = cfg.getTemplate("pushing.ftl");
             Map<String, Object> data = new HashMap<>();
             data.put("header", header);
             data.put("pushTags", pushTags);
             data.put("pushBranches", pushBranches);
             data.put("deleteBranches", deleteBranches);
 
-            // Console output
-            Writer out = new OutputStreamWriter(System.out);
-            template.process(data, out);
-            out.flush();
+            Templates.render("pushing.ftl", data);
 
         } catch (TemplateException | IOException ex) {
             LOG.error("Failed to prompt to push", ex);
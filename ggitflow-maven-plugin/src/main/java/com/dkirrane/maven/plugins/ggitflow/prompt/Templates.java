@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.prompt;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateExceptionHandler;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Renders the console templates in <code>/freemarker</code>.
+ *
+ * The FreeMarker configuration, and with it the parsed templates, is created
+ * the first time something is rendered and then shared, so goals that never
+ * print a banner never set FreeMarker up. ANSI colours are only written when
+ * the JVM has a console.
+ *
+ * @since 3.1
+ */
+final class Templates {
+
+    /**
+     * <code>true</code> if stdout is a terminal that understands ANSI colours
+     */
+    static final boolean ANSI = null != System.console();
+
+    private static Configuration configuration;
+
+    private Templates() {
+    }
+
+    private static synchronized Configuration configuration() {
+        if (null == configuration) {
+            Configuration cfg = new Configuration(Configuration.getVersion());
+            cfg.setClassForTemplateLoading(Templates.class, "/freemarker");
+            cfg.setDefaultEncoding("UTF-8");
+            cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+            cfg.setLogTemplateExceptions(false);
+            configuration = cfg;
+        }
+        return configuration;
+    }
+
+    /**
+     * Render a template to stdout.
+     *
+     * @param name template name e.g. <code>error.ftl</code>
+     * @param data the data-model
+     * @throws IOException
+     * @throws TemplateException
+     */
+    static void render(String name, Map<String, Object> data) throws IOException, TemplateException {
+        Template template = configuration().getTemplate(name);
+        data.put("ansi", ANSI);
+
+        // Console output
+        Writer out = new OutputStreamWriter(System.out);
+        template.process(data, out);
+        out.flush();
+    }
+}
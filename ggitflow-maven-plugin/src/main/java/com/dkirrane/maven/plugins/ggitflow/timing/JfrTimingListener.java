@@ -0,0 +1,186 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.timing;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Emits a Java Flight Recorder event for every timed invocation so plugin
+ * phases can be correlated with GC and IO activity in a single recording.
+ *
+ * The plugin is compiled for Java 7 so the event types are created at runtime
+ * through <code>jdk.jfr.EventFactory</code> (Java 11+). On older JVMs
+ * {@link #create(String)} returns <code>null</code> and no events are emitted.
+ *
+ * Event names are <code>com.dkirrane.ggitflow.GitCommand</code>,
+ * <code>GitRemoteCommand</code>, <code>ReactorReload</code>,
+ * <code>MojoExecution</code> and <code>MavenBuild</code>, each with the fields
+ * <code>goal</code>, <code>phase</code>, <code>command</code>,
+ * <code>branch</code>, <code>exitCode</code> and <code>projectCount</code>.
+ *
+ * @since 3.1
+ */
+public final class JfrTimingListener implements TimingListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JfrTimingListener.class);
+
+    private static final String EVENT_PREFIX = "com.dkirrane.ggitflow.";
+
+    private static final String[] FIELD_NAMES = {"goal", "phase", "command", "branch", "exitCode", "projectCount"};
+    private static final Class<?>[] FIELD_TYPES = {String.class, String.class, String.class, String.class, int.class, int.class};
+
+    private static volatile JfrTimingListener instance;
+
+    private final String goal;
+    private final Map<String, Object> factories;
+    private final Method newEvent;
+    private final Method begin;
+    private final Method end;
+    private final Method commit;
+    private final Method set;
+
+    private JfrTimingListener(String goal, Map<String, Object> factories, Method newEvent, Method begin, Method end, Method commit, Method set) {
+        this.goal = goal;
+        this.factories = factories;
+        this.newEvent = newEvent;
+        this.begin = begin;
+        this.end = end;
+        this.commit = commit;
+        this.set = set;
+    }
+
+    /**
+     * @param goal goal name recorded on every event
+     * @return a listener or <code>null</code> if the JVM has no JFR API
+     */
+    public static JfrTimingListener create(String goal) {
+        JfrTimingListener shared = instance;
+        if (null == shared) {
+            shared = register();
+            if (null == shared) {
+                return null;
+            }
+            instance = shared;
+        }
+        return new JfrTimingListener(goal, shared.factories, shared.newEvent, shared.begin, shared.end, shared.commit, shared.set);
+    }
+
+    private static synchronized JfrTimingListener register() {
+        if (null != instance) {
+            return instance;
+        }
+        try {
+            ClassLoader cl = JfrTimingListener.class.getClassLoader();
+            Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory", true, cl);
+            Class<?> eventClass = Class.forName("jdk.jfr.Event", true, cl);
+            Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement", true, cl);
+            Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor", true, cl);
+            Class<?> nameClass = Class.forName("jdk.jfr.Name", true, cl);
+            Class<?> labelClass = Class.forName("jdk.jfr.Label", true, cl);
+            Class<?> categoryClass = Class.forName("jdk.jfr.Category", true, cl);
+
+            Constructor<?> annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+            Constructor<?> valueDescriptor = valueDescriptorClass.getConstructor(Class.class, String.class, List.class);
+            Method createFactory = eventFactoryClass.getMethod("create", List.class, List.class);
+            Method register = eventFactoryClass.getMethod("register");
+
+            List<Object> fields = new ArrayList<>();
+            for (int i = 0; i < FIELD_NAMES.length; i++) {
+                Object label = annotationElement.newInstance(labelClass, capitalize(FIELD_NAMES[i]));
+                fields.add(valueDescriptor.newInstance(FIELD_TYPES[i], FIELD_NAMES[i], Arrays.asList(label)));
+            }
+
+            Map<String, Object> factories = new HashMap<>();
+            String[][] types = {
+                {Timings.GIT, "GitCommand", "Git Command"},
+                {Timings.GIT_REMOTE, "GitRemoteCommand", "Git Remote Command"},
+                {Timings.RELOAD, "ReactorReload", "Reactor Reload"},
+                {Timings.MOJO, "MojoExecution", "Mojo Execution"},
+                {Timings.MAVEN, "MavenBuild", "Maven Build"}
+            };
+            for (String[] type : types) {
+                List<Object> annotations = new ArrayList<>();
+                annotations.add(annotationElement.newInstance(nameClass, EVENT_PREFIX + type[1]));
+                annotations.add(annotationElement.newInstance(labelClass, type[2]));
+                annotations.add(annotationElement.newInstance(categoryClass, new String[]{"Maven", "ggitflow"}));
+                Object factory = createFactory.invoke(null, annotations, fields);
+                register.invoke(factory);
+                factories.put(type[0], factory);
+            }
+
+            Method newEvent = eventFactoryClass.getMethod("newEvent");
+            Method begin = eventClass.getMethod("begin");
+            Method end = eventClass.getMethod("end");
+            Method commit = eventClass.getMethod("commit");
+            Method set = eventClass.getMethod("set", int.class, Object.class);
+            LOG.debug("Registered JFR events {}", factories.keySet());
+            return new JfrTimingListener(null, factories, newEvent, begin, end, commit, set);
+        } catch (ClassNotFoundException ex) {
+            LOG.debug("JFR API not available");
+            return null;
+        } catch (Exception | LinkageError ex) {
+            LOG.debug("Failed to register JFR events", ex);
+            return null;
+        }
+    }
+
+    @Override
+    public void started(Timings.Invocation invocation) {
+        Object factory = factories.get(invocation.getKind());
+        if (null == factory) {
+            return;
+        }
+        try {
+            Object event = newEvent.invoke(factory);
+            begin.invoke(event);
+            invocation.setListenerState(event);
+        } catch (Exception ex) {
+            LOG.debug("Failed to begin JFR event", ex);
+        }
+    }
+
+    @Override
+    public void stopped(Timings.Invocation invocation) {
+        Object event = invocation.getListenerState();
+        if (null == event) {
+            return;
+        }
+        try {
+            end.invoke(event);
+            set.invoke(event, 0, goal);
+            set.invoke(event, 1, invocation.getPhase());
+            set.invoke(event, 2, invocation.getDetail());
+            set.invoke(event, 3, invocation.getBranch());
+            set.invoke(event, 4, (null == invocation.getExitCode()) ? -1 : invocation.getExitCode());
+            set.invoke(event, 5, (null == invocation.getProjectCount()) ? -1 : invocation.getProjectCount());
+            commit.invoke(event);
+        } catch (Exception ex) {
+            LOG.debug("Failed to commit JFR event", ex);
+        }
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.timing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the per-module results from the <code>Reactor Summary</code> printed
+ * at the end of a forked Maven build.
+ *
+ * Understands both the Maven 3.0 (<code>SUCCESS [1.234s]</code>) and later
+ * (<code>SUCCESS [  1.234 s]</code>, <code>SUCCESS [01:02 min]</code>)
+ * formats.
+ *
+ * @since 3.1
+ */
+public final class ReactorSummary {
+
+    private static final Pattern ANSI = Pattern.compile("\u001B\\[[;\\d]*m");
+    private static final Pattern MODULE_LINE = Pattern.compile(
+            "^\\[INFO\\] (.+?) \\.+\\s*(SUCCESS|FAILURE|SKIPPED)(?: \\[\\s*([\\d.:]+)\\s*(ms|s|min|h)?\\s*\\])?\\s*$");
+
+    private final List<Module> modules;
+
+    private ReactorSummary(List<Module> modules) {
+        this.modules = modules;
+    }
+
+    /**
+     * @param output build output
+     * @return the modules in the last <code>Reactor Summary</code> of the
+     * output, none for a single module build
+     */
+    public static ReactorSummary parse(String output) {
+        List<Module> modules = new ArrayList<>();
+        if (null == output) {
+            return new ReactorSummary(modules);
+        }
+        boolean inSummary = false;
+        for (String line : output.split("\\r?\\n")) {
+            line = ANSI.matcher(line).replaceAll("");
+            if (line.contains("Reactor Summary")) {
+                modules.clear();
+                inSummary = true;
+                continue;
+            }
+            if (!inSummary) {
+                continue;
+            }
+            Matcher matcher = MODULE_LINE.matcher(line);
+            if (matcher.matches()) {
+                modules.add(new Module(matcher.group(1), matcher.group(2), millis(matcher.group(3), matcher.group(4))));
+            } else if (!modules.isEmpty()) {
+                /* the summary ends at the first line that is not a module */
+                inSummary = false;
+            }
+        }
+        return new ReactorSummary(modules);
+    }
+
+    public List<Module> getModules() {
+        return modules;
+    }
+
+    /**
+     * @return modules that did not build successfully
+     */
+    public List<Module> getFailures() {
+        List<Module> failures = new ArrayList<>();
+        for (Module module : modules) {
+            if (!module.isSuccess()) {
+                failures.add(module);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * @return summary table lines, slowest modules first
+     */
+    public List<String> table() {
+        List<Module> sorted = new ArrayList<>(modules);
+        Collections.sort(sorted, new Comparator<Module>() {
+            @Override
+            public int compare(Module a, Module b) {
+                return Long.compare(b.millis, a.millis);
+            }
+        });
+        List<String> lines = new ArrayList<>(sorted.size());
+        for (Module module : sorted) {
+            String time = module.millis < 0 ? "" : String.format("%9d ms", module.millis);
+            lines.add(String.format("%-60s %-8s %s", module.name, module.status, time));
+        }
+        return lines;
+    }
+
+    static long millis(String value, String unit) {
+        if (null == value) {
+            return -1;
+        }
+        try {
+            if (value.indexOf(':') >= 0) {
+                /* mm:ss for min, h:mm:ss for h */
+                double seconds = 0;
+                for (String part : value.split(":")) {
+                    seconds = seconds * 60 + Double.parseDouble(part);
+                }
+                if ("h".equals(unit) && value.split(":").length == 2) {
+                    seconds *= 60;
+                }
+                return Math.round(seconds * 1000);
+            }
+            double number = Double.parseDouble(value);
+            if ("ms".equals(unit)) {
+                return Math.round(number);
+            } else if ("min".equals(unit)) {
+                return Math.round(number * 60000);
+            } else if ("h".equals(unit)) {
+                return Math.round(number * 3600000);
+            }
+            return Math.round(number * 1000);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Result of one reactor module.
+     */
+    public static final class Module {
+
+        private final String name;
+        private final String status;
+        private final long millis;
+
+        Module(String name, String status, long millis) {
+            this.name = name;
+            this.status = status;
+            this.millis = millis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public boolean isSuccess() {
+            return "SUCCESS".equals(status);
+        }
+
+        /**
+         * @return build time or <code>-1</code> if the module was not built
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return name + ' ' + status;
+        }
+    }
+}
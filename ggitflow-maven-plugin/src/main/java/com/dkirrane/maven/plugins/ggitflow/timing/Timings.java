@@ -0,0 +1,432 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.timing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records where a gitflow goal spends its time.
+ *
+ * A goal is split into named phases (see {@link #phase(String)}). Every git
+ * command, reactor reload and delegated Maven execution is recorded as an
+ * {@link Invocation} attributed to the phase that was current when it
+ * started.
+ *
+ * @since 3.1
+ */
+public class Timings {
+
+    public static final String GIT = "git";
+    public static final String GIT_REMOTE = "git-remote";
+    public static final String RELOAD = "reload";
+    public static final String MOJO = "mojo";
+    public static final String MAVEN = "maven";
+
+    private static final String[] KINDS = {GIT, GIT_REMOTE, RELOAD, MOJO, MAVEN};
+
+    private final String goal;
+    private final long startTime;
+    private final long startNanos;
+    private final List<Phase> phases = new ArrayList<>();
+    private final List<Invocation> invocations = new ArrayList<>();
+    private final List<TimingListener> listeners = new CopyOnWriteArrayList<>();
+    private Phase current;
+    private long endNanos;
+    private long peakHeapBytes;
+    private volatile String branch;
+
+    public Timings(String goal) {
+        this.goal = goal;
+        this.startTime = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+    public String getGoal() {
+        return goal;
+    }
+
+    public void addListener(TimingListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Set the branch that invocations started from now on are working on.
+     *
+     * @param branch the checked out branch
+     */
+    public void setBranch(String branch) {
+        this.branch = branch;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    /**
+     * End the current phase and start a new one.
+     *
+     * @param name phase name
+     */
+    public synchronized void phase(String name) {
+        long now = System.nanoTime();
+        if (null != current) {
+            current.endNanos = now;
+        }
+        current = new Phase(name, now);
+        phases.add(current);
+    }
+
+    /**
+     * Start timing a sub-invocation. The caller must call
+     * {@link Invocation#stop()} when it completes.
+     *
+     * @param kind one of {@link #GIT}, {@link #GIT_REMOTE}, {@link #RELOAD},
+     * {@link #MOJO} or {@link #MAVEN}
+     * @param detail command or description
+     * @return the running invocation
+     */
+    public Invocation start(String kind, String detail) {
+        Invocation invocation;
+        synchronized (this) {
+            String phaseName = (null == current) ? "" : current.name;
+            invocation = new Invocation(this, kind, detail, phaseName, branch, System.nanoTime());
+            invocations.add(invocation);
+        }
+        for (TimingListener listener : listeners) {
+            listener.started(invocation);
+        }
+        return invocation;
+    }
+
+    /**
+     * End the last phase and record the peak heap usage.
+     */
+    public synchronized void finish() {
+        endNanos = System.nanoTime();
+        if (null != current) {
+            current.endNanos = endNanos;
+        }
+        peakHeapBytes = peakHeap();
+    }
+
+    /**
+     * @return sum of the peak usage of all heap memory pools since JVM start,
+     * i.e. an upper bound for the peak heap of the Maven JVM
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && null != pool.getPeakUsage()) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * @return number of completed and running invocations per kind
+     */
+    public synchronized Map<String, Integer> getCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String kind : KINDS) {
+            counts.put(kind, 0);
+        }
+        for (Invocation invocation : invocations) {
+            Integer count = counts.get(invocation.kind);
+            counts.put(invocation.kind, (null == count) ? 1 : count + 1);
+        }
+        return counts;
+    }
+
+    /**
+     * @return human readable summary table, one entry per line
+     */
+    public synchronized List<String> summary() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("Gitflow %s timings (total %s, peak heap %d MB)", goal, seconds(total()), peakHeapBytes >> 20));
+        lines.add(String.format(" %-36s %9s %5s %6s %6s %5s %5s", "Phase", "Time", "git", "remote", "reload", "mojo", "maven"));
+        for (Phase phase : phases) {
+            int[] counts = new int[KINDS.length];
+            for (Invocation invocation : invocations) {
+                if (invocation.phase.equals(phase.name)) {
+                    for (int i = 0; i < KINDS.length; i++) {
+                        if (KINDS[i].equals(invocation.kind)) {
+                            counts[i]++;
+                        }
+                    }
+                }
+            }
+            lines.add(String.format(" %-36s %9s %5d %6d %6d %5d %5d",
+                    abbreviate(phase.name, 36), seconds(phase.duration()),
+                    counts[0], counts[1], counts[2], counts[3], counts[4]));
+        }
+        lines.add("");
+        for (String kind : KINDS) {
+            int count = 0;
+            long nanos = 0;
+            for (Invocation invocation : invocations) {
+                if (kind.equals(invocation.kind)) {
+                    count++;
+                    nanos += invocation.duration();
+                }
+            }
+            if (count > 0) {
+                lines.add(String.format(" %-36s %9s %5d calls", kind, seconds(nanos), count));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Write all phases and invocations as JSON.
+     *
+     * @param file output file, parent directories are created
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void writeJson(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (null != dir && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory " + dir);
+        }
+
+        SimpleDateFormat iso8601 = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        iso8601.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        StringBuilder json = new StringBuilder(4096);
+        json.append("{\n");
+        json.append("  \"goal\": ").append(quote(goal)).append(",\n");
+        json.append("  \"startTime\": ").append(quote(iso8601.format(new Date(startTime)))).append(",\n");
+        json.append("  \"totalMillis\": ").append(millis(total())).append(",\n");
+        json.append("  \"peakHeapBytes\": ").append(peakHeapBytes).append(",\n");
+
+        json.append("  \"counts\": {");
+        String sep = "";
+        for (Map.Entry<String, Integer> entry : getCounts().entrySet()) {
+            json.append(sep).append(quote(entry.getKey())).append(": ").append(entry.getValue());
+            sep = ", ";
+        }
+        json.append("},\n");
+
+        json.append("  \"phases\": [");
+        sep = "\n";
+        for (Phase phase : phases) {
+            json.append(sep).append("    {\"name\": ").append(quote(phase.name))
+                    .append(", \"startMillis\": ").append(millis(phase.startNanos - startNanos))
+                    .append(", \"durationMillis\": ").append(millis(phase.duration()))
+                    .append('}');
+            sep = ",\n";
+        }
+        json.append(phases.isEmpty() ? "],\n" : "\n  ],\n");
+
+        json.append("  \"invocations\": [");
+        sep = "\n";
+        for (Invocation invocation : invocations) {
+            json.append(sep).append("    {\"kind\": ").append(quote(invocation.kind))
+                    .append(", \"detail\": ").append(quote(invocation.detail))
+                    .append(", \"phase\": ").append(quote(invocation.phase))
+                    .append(", \"startMillis\": ").append(millis(invocation.startNanos - startNanos))
+                    .append(", \"durationMillis\": ").append(millis(invocation.duration()));
+            if (null != invocation.branch) {
+                json.append(", \"branch\": ").append(quote(invocation.branch));
+            }
+            if (null != invocation.exitCode) {
+                json.append(", \"exitCode\": ").append(invocation.exitCode);
+            }
+            if (null != invocation.projectCount) {
+                json.append(", \"projectCount\": ").append(invocation.projectCount);
+            }
+            json.append('}');
+            sep = ",\n";
+        }
+        json.append(invocations.isEmpty() ? "]\n" : "\n  ]\n");
+        json.append("}\n");
+
+        try (Writer out = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            out.write(json.toString());
+        }
+    }
+
+    private long total() {
+        long end = (endNanos == 0) ? System.nanoTime() : endNanos;
+        return end - startNanos;
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static String seconds(long nanos) {
+        return String.format("%.3f s", nanos / 1e9d);
+    }
+
+    private static String abbreviate(String value, int max) {
+        return (value.length() <= max) ? value : value.substring(0, max - 3) + "...";
+    }
+
+    static String quote(String value) {
+        if (null == value) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static final class Phase {
+
+        private final String name;
+        private final long startNanos;
+        private long endNanos;
+
+        Phase(String name, long startNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+
+        long duration() {
+            long end = (endNanos == 0) ? System.nanoTime() : endNanos;
+            return end - startNanos;
+        }
+    }
+
+    /**
+     * A single timed git command, reload or Maven execution.
+     */
+    public static final class Invocation {
+
+        private final Timings timings;
+        private final String kind;
+        private final String detail;
+        private final String phase;
+        private final String branch;
+        private final long startNanos;
+        private volatile long endNanos;
+        private volatile Integer exitCode;
+        private volatile Integer projectCount;
+        private volatile Object listenerState;
+
+        Invocation(Timings timings, String kind, String detail, String phase, String branch, long startNanos) {
+            this.timings = timings;
+            this.kind = kind;
+            this.detail = detail;
+            this.phase = phase;
+            this.branch = branch;
+            this.startNanos = startNanos;
+        }
+
+        public void stop() {
+            if (endNanos != 0) {
+                return;
+            }
+            endNanos = System.nanoTime();
+            for (TimingListener listener : timings.listeners) {
+                listener.stopped(this);
+            }
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        public String getPhase() {
+            return phase;
+        }
+
+        public String getBranch() {
+            return branch;
+        }
+
+        public Integer getExitCode() {
+            return exitCode;
+        }
+
+        public void setExitCode(Integer exitCode) {
+            this.exitCode = exitCode;
+        }
+
+        public Integer getProjectCount() {
+            return projectCount;
+        }
+
+        public void setProjectCount(Integer projectCount) {
+            this.projectCount = projectCount;
+        }
+
+        /**
+         * @return state attached by a {@link TimingListener} when the
+         * invocation started
+         */
+        public Object getListenerState() {
+            return listenerState;
+        }
+
+        public void setListenerState(Object listenerState) {
+            this.listenerState = listenerState;
+        }
+
+        long duration() {
+            long end = (endNanos == 0) ? System.nanoTime() : endNanos;
+            return end - startNanos;
+        }
+    }
+}
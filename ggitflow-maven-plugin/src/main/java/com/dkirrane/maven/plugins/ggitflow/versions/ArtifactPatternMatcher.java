@@ -0,0 +1,189 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.versions;
+
+import com.google.common.base.Splitter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Matches artifacts against the <code>includes</code> patterns of the
+ * versions goals.
+ *
+ * Each pattern is <code>groupId:artifactId:type:classifier:version</code>,
+ * trailing parts may be left out and every part may use <code>*</code>
+ * wildcards. A pattern of four parts is
+ * <code>groupId:artifactId:type:version</code>, as with the versions plugin.
+ *
+ * The patterns are compiled once into a trie with one level per part. Each
+ * node looks up literal parts in a map and only tries its wildcard children
+ * with a regular expression, so matching costs about one map lookup per part
+ * however many patterns share a groupId.
+ *
+ * @since 3.1
+ */
+public class ArtifactPatternMatcher {
+
+    private static final Splitter PATTERN_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+    private static final Splitter PART_SPLITTER = Splitter.on(':');
+    private static final int PARTS = 5;
+
+    private final Node root = new Node();
+    private final String includes;
+    private int size;
+
+    /**
+     * @param includes comma separated artifact patterns
+     */
+    public ArtifactPatternMatcher(String includes) {
+        this.includes = (null == includes) ? "" : includes;
+        for (String include : PATTERN_SPLITTER.split(this.includes)) {
+            List<String> parts = new ArrayList<>(PART_SPLITTER.splitToList(include));
+            if (parts.size() == 4) {
+                parts.add(3, "*");
+            }
+            Node node = root;
+            for (int i = 0; i < Math.min(PARTS, parts.size()); i++) {
+                node = node.child(parts.get(i));
+            }
+            node.terminal = true;
+            size++;
+        }
+    }
+
+    /**
+     * @return <code>true</code> if there are no patterns, nothing matches
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of patterns
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param groupId groupId
+     * @param artifactId artifactId
+     * @param type type, <code>null</code> if unknown
+     * @param classifier classifier, <code>null</code> if unknown, empty if
+     * none
+     * @param version version, <code>null</code> if unknown
+     * @return <code>true</code> if any pattern matches the artifact, unknown
+     * parts match any pattern part
+     */
+    public boolean matches(String groupId, String artifactId, String type, String classifier, String version) {
+        return root.matches(new String[]{groupId, artifactId, type, classifier, version}, 0);
+    }
+
+    @Override
+    public String toString() {
+        return includes;
+    }
+
+    private static final class Node {
+
+        private boolean terminal;
+        private Node any;
+        private final Map<String, Node> literals = new HashMap<>();
+        private final List<String> globParts = new ArrayList<>();
+        private final List<Pattern> globPatterns = new ArrayList<>();
+        private final List<Node> globs = new ArrayList<>();
+
+        private Node child(String part) {
+            if (part.isEmpty() || "*".equals(part)) {
+                if (null == any) {
+                    any = new Node();
+                }
+                return any;
+            }
+            if (part.indexOf('*') >= 0) {
+                int index = globParts.indexOf(part);
+                if (index < 0) {
+                    globParts.add(part);
+                    globPatterns.add(glob(part));
+                    globs.add(new Node());
+                    index = globs.size() - 1;
+                }
+                return globs.get(index);
+            }
+            Node child = literals.get(part);
+            if (null == child) {
+                child = new Node();
+                literals.put(part, child);
+            }
+            return child;
+        }
+
+        private boolean matches(String[] artifact, int depth) {
+            if (terminal) {
+                return true;
+            }
+            if (depth == PARTS) {
+                return false;
+            }
+            String part = artifact[depth];
+            if (null != any && any.matches(artifact, depth + 1)) {
+                return true;
+            }
+            if (null == part) {
+                /* unknown, every child may match */
+                for (Node child : literals.values()) {
+                    if (child.matches(artifact, depth + 1)) {
+                        return true;
+                    }
+                }
+                for (Node child : globs) {
+                    if (child.matches(artifact, depth + 1)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            Node literal = literals.get(part);
+            if (null != literal && literal.matches(artifact, depth + 1)) {
+                return true;
+            }
+            for (int i = 0; i < globs.size(); i++) {
+                if (globPatterns.get(i).matcher(part).matches() && globs.get(i).matches(artifact, depth + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @param part pattern part with <code>*</code> wildcards
+     */
+    static Pattern glob(String part) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        int star;
+        while ((star = part.indexOf('*', start)) >= 0) {
+            regex.append(Pattern.quote(part.substring(start, star))).append(".*");
+            start = star + 1;
+        }
+        regex.append(Pattern.quote(part.substring(start)));
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.versions;
+
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Versions listed in the <code>maven-metadata.xml</code> of remote
+ * repositories, cached for the Maven run.
+ *
+ * An entry younger than the TTL is used as is. An older entry is revalidated:
+ * HTTP repositories are asked with <code>If-None-Match</code> and
+ * <code>If-Modified-Since</code>, <code>file:</code> repositories compare the
+ * file's modification time and length. The metadata is only read again if it
+ * changed.
+ *
+ * @since 3.1
+ */
+public class MetadataCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetadataCache.class);
+
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 10000;
+    private static final int READ_TIMEOUT_MILLIS = 30000;
+
+    /* shared by the goals of one Maven run */
+    private static final MetadataCache SHARED = new MetadataCache(DEFAULT_TTL_MILLIS);
+
+    private final long ttlNanos;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger downloads = new AtomicInteger();
+    private final AtomicInteger revalidations = new AtomicInteger();
+
+    public MetadataCache(long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * @return the cache kept for the lifetime of the plugin's class loader
+     */
+    public static MetadataCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param repositoryUrl base URL of the repository
+     * @param groupId group of the artifact
+     * @param artifactId artifact
+     * @return versions in the repository, empty if it has none
+     * @throws IOException if the metadata cannot be read
+     */
+    public List<String> versions(String repositoryUrl, String groupId, String artifactId) throws IOException {
+        String base = repositoryUrl.endsWith("/") ? repositoryUrl : repositoryUrl + '/';
+        String url = base + groupId.replace('.', '/') + '/' + artifactId + "/maven-metadata.xml";
+
+        Entry entry = entries.get(url);
+        if (null != entry && System.nanoTime() - entry.checkedAt < ttlNanos) {
+            return entry.versions;
+        }
+        URL metadataUrl = new URL(url);
+        Entry updated = "file".equals(metadataUrl.getProtocol()) ? readFile(metadataUrl, entry) : readHttp(metadataUrl, entry);
+        entries.put(url, updated);
+        return updated.versions;
+    }
+
+    /**
+     * @return number of metadata files read
+     */
+    public int getDownloads() {
+        return downloads.get();
+    }
+
+    /**
+     * @return number of expired entries found unchanged
+     */
+    public int getRevalidations() {
+        return revalidations.get();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private Entry readFile(URL url, Entry previous) throws IOException {
+        File file;
+        try {
+            file = new File(url.toURI());
+        } catch (IllegalArgumentException | URISyntaxException ex) {
+            throw new IOException("Invalid repository URL " + url, ex);
+        }
+        if (!file.isFile()) {
+            return new Entry(ImmutableList.<String>of(), null, null);
+        }
+        String stamp = file.lastModified() + "-" + file.length();
+        if (null != previous && stamp.equals(previous.etag)) {
+            return revalidated(previous);
+        }
+        downloads.incrementAndGet();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return new Entry(parse(in, url), stamp, null);
+        }
+    }
+
+    private Entry readHttp(URL url, Entry previous) throws IOException {
+        URLConnection connection = url.openConnection();
+        if (!(connection instanceof HttpURLConnection)) {
+            throw new IOException("Unsupported repository URL " + url);
+        }
+        HttpURLConnection http = (HttpURLConnection) connection;
+        http.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        http.setReadTimeout(READ_TIMEOUT_MILLIS);
+        if (null != previous && null != previous.etag) {
+            http.setRequestProperty("If-None-Match", previous.etag);
+        }
+        if (null != previous && null != previous.lastModified) {
+            http.setRequestProperty("If-Modified-Since", previous.lastModified);
+        }
+        try {
+            int status = http.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && null != previous) {
+                return revalidated(previous);
+            }
+            if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+                return new Entry(ImmutableList.<String>of(), null, null);
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unable to get " + url + ": HTTP " + status);
+            }
+            downloads.incrementAndGet();
+            try (InputStream in = http.getInputStream()) {
+                return new Entry(parse(in, url), http.getHeaderField("ETag"), http.getHeaderField("Last-Modified"));
+            }
+        } finally {
+            http.disconnect();
+        }
+    }
+
+    private Entry revalidated(Entry previous) {
+        revalidations.incrementAndGet();
+        LOG.debug("Metadata unchanged, keeping {} versions", previous.versions.size());
+        return new Entry(previous.versions, previous.etag, previous.lastModified);
+    }
+
+    private static ImmutableList<String> parse(InputStream in, URL url) throws IOException {
+        try {
+            Metadata metadata = new MetadataXpp3Reader().read(in, false);
+            Versioning versioning = metadata.getVersioning();
+            return (null == versioning) ? ImmutableList.<String>of() : ImmutableList.copyOf(versioning.getVersions());
+        } catch (XmlPullParserException ex) {
+            throw new IOException("Invalid metadata " + url, ex);
+        }
+    }
+
+    private static final class Entry {
+
+        private final ImmutableList<String> versions;
+        private final String etag;
+        private final String lastModified;
+        private final long checkedAt = System.nanoTime();
+
+        private Entry(ImmutableList<String> versions, String etag, String lastModified) {
+            this.versions = versions;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+}
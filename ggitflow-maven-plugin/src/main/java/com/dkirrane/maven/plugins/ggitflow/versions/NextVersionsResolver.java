@@ -0,0 +1,439 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.versions;
+
+import com.dkirrane.maven.plugins.ggitflow.model.ReactorSnapshot;
+import com.google.common.base.Joiner;
+import com.google.common.base.Strings;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process replacement for <code>versions:use-next-versions</code> and
+ * <code>versions:update-parent</code>.
+ *
+ * The literal versions of the included dependencies and of parents outside
+ * the reactor are collected from the raw POMs, the metadata of every artifact
+ * is fetched concurrently through a {@link MetadataCache} and the new
+ * versions are written into the POM text, leaving its formatting alone. As
+ * with the versions-maven-plugin only the project's parent and the
+ * dependencies and managed dependencies of the project and its profiles are
+ * changed, not e.g. plugin dependencies.
+ *
+ * Dependencies get the next newer version, parents the latest one, as with
+ * the versions-maven-plugin. SNAPSHOT versions are only used if allowed.
+ *
+ * @since 3.1
+ */
+public class NextVersionsResolver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NextVersionsResolver.class);
+
+    /**
+     * Comments, CDATA, processing instructions and declarations, or a tag
+     * with its slashes and name
+     */
+    private static final Pattern MARKUP = Pattern.compile("<!--.*?-->|<!\\[CDATA\\[.*?\\]\\]>|<[?!].*?>|<(/?)([^\\s/>]+)[^>]*?(/?)>", Pattern.DOTALL);
+    private static final String PARENT_PATH = "project/parent";
+    /**
+     * Paths of the dependency elements the versions-maven-plugin updates
+     */
+    private static final Set<String> DEPENDENCY_PATHS = new HashSet<>(Arrays.asList(
+            "project/dependencies/dependency",
+            "project/dependencyManagement/dependencies/dependency",
+            "project/profiles/profile/dependencies/dependency",
+            "project/profiles/profile/dependencyManagement/dependencies/dependency"));
+    private static final Pattern VERSION = Pattern.compile("(<version\\s*>)\\s*([^<]*?)\\s*(</version\\s*>)");
+
+    private final List<String> repositoryUrls;
+    private final MetadataCache cache;
+    private final int threads;
+
+    /**
+     * @param repositoryUrls base URLs of the repositories to query
+     * @param cache metadata cache
+     * @param threads number of concurrent metadata requests
+     */
+    public NextVersionsResolver(List<String> repositoryUrls, MetadataCache cache, int threads) {
+        this.repositoryUrls = new ArrayList<>(repositoryUrls);
+        this.cache = cache;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Update the reactor's POMs in place.
+     *
+     * @param snapshot the reactor
+     * @param includes dependencies to update
+     * @param allowSnapshots if SNAPSHOT versions may be used
+     * @param updateParent if parents outside the reactor are updated
+     * @return the updates made
+     * @throws IOException if a POM cannot be read or written
+     */
+    public List<Update> update(ReactorSnapshot snapshot, ArtifactPatternMatcher includes, boolean allowSnapshots, boolean updateParent) throws IOException {
+        Map<File, List<Update>> candidates = candidates(snapshot, includes, updateParent);
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, List<ComparableVersion>> versions = fetch(artifactIds(candidates), allowSnapshots);
+
+        List<Update> updates = new ArrayList<>();
+        for (Map.Entry<File, List<Update>> entry : candidates.entrySet()) {
+            Map<String, Update> pomUpdates = new LinkedHashMap<>();
+            for (Update candidate : entry.getValue()) {
+                String newVersion = select(candidate, versions.get(candidate.getId()));
+                if (null != newVersion) {
+                    Update update = new Update(entry.getKey(), candidate.groupId, candidate.artifactId, candidate.oldVersion, newVersion, candidate.parent);
+                    pomUpdates.put(update.key(), update);
+                }
+            }
+            if (!pomUpdates.isEmpty() && rewrite(entry.getKey(), pomUpdates)) {
+                updates.addAll(pomUpdates.values());
+            }
+        }
+        return updates;
+    }
+
+    /**
+     * The artifacts {@link #update} would read the metadata of.
+     *
+     * @param snapshot the reactor
+     * @param includes dependencies to update
+     * @param updateParent if parents outside the reactor are updated
+     * @return <code>groupId:artifactId</code> of each dependency or parent
+     * that may be updated
+     * @throws IOException if a POM cannot be read
+     */
+    public Set<String> artifactIds(ReactorSnapshot snapshot, ArtifactPatternMatcher includes, boolean updateParent) throws IOException {
+        return artifactIds(candidates(snapshot, includes, updateParent));
+    }
+
+    /**
+     * Read the metadata of the given artifacts into the cache without
+     * changing any POM, so a following {@link #update} finds it there.
+     *
+     * @param artifactIds <code>groupId:artifactId</code> of the artifacts
+     */
+    public void prefetch(Set<String> artifactIds) {
+        if (!artifactIds.isEmpty()) {
+            fetch(artifactIds, true);
+        }
+    }
+
+    private static Map<File, List<Update>> candidates(ReactorSnapshot snapshot, ArtifactPatternMatcher includes, boolean updateParent) throws IOException {
+        Set<String> reactorIds = new HashSet<>();
+        for (ReactorSnapshot.Module module : snapshot.getModules()) {
+            reactorIds.add(module.getGroupId() + ':' + module.getArtifactId());
+        }
+
+        Map<File, List<Update>> candidates = new LinkedHashMap<>();
+        for (ReactorSnapshot.Module module : snapshot.getModules()) {
+            File pomFile = module.getPomFile();
+            List<Update> pomCandidates = candidates(readModel(pomFile), reactorIds, includes, updateParent);
+            if (!pomCandidates.isEmpty()) {
+                candidates.put(pomFile, pomCandidates);
+            }
+        }
+        return candidates;
+    }
+
+    private static Set<String> artifactIds(Map<File, List<Update>> candidates) {
+        Set<String> artifactIds = new LinkedHashSet<>();
+        for (List<Update> pomCandidates : candidates.values()) {
+            for (Update candidate : pomCandidates) {
+                artifactIds.add(candidate.getId());
+            }
+        }
+        return artifactIds;
+    }
+
+    private static List<Update> candidates(Model model, Set<String> reactorIds, ArtifactPatternMatcher includes, boolean updateParent) {
+        List<Update> candidates = new ArrayList<>();
+        Parent parent = model.getParent();
+        if (updateParent && null != parent && isLiteral(parent.getVersion())
+                && !reactorIds.contains(parent.getGroupId() + ':' + parent.getArtifactId())) {
+            candidates.add(new Update(null, parent.getGroupId(), parent.getArtifactId(), parent.getVersion(), null, true));
+        }
+        if (includes.isEmpty()) {
+            return candidates;
+        }
+        List<Dependency> dependencies = new ArrayList<>(model.getDependencies());
+        if (null != model.getDependencyManagement()) {
+            dependencies.addAll(model.getDependencyManagement().getDependencies());
+        }
+        for (Profile profile : model.getProfiles()) {
+            dependencies.addAll(profile.getDependencies());
+            if (null != profile.getDependencyManagement()) {
+                dependencies.addAll(profile.getDependencyManagement().getDependencies());
+            }
+        }
+        for (Dependency dependency : dependencies) {
+            String version = dependency.getVersion();
+            if (!isLiteral(version) || !isLiteral(dependency.getGroupId()) || !isLiteral(dependency.getArtifactId())
+                    || reactorIds.contains(dependency.getGroupId() + ':' + dependency.getArtifactId())) {
+                continue;
+            }
+            if (includes.matches(dependency.getGroupId(), dependency.getArtifactId(), dependency.getType(), Strings.nullToEmpty(dependency.getClassifier()), version)) {
+                candidates.add(new Update(null, dependency.getGroupId(), dependency.getArtifactId(), version, null, false));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Versions of each artifact over all repositories, fetched concurrently
+     * and sorted.
+     */
+    private Map<String, List<ComparableVersion>> fetch(Set<String> artifactIds, final boolean allowSnapshots) {
+        LOG.debug("Reading metadata of {} artifacts from {} repositories", artifactIds.size(), repositoryUrls.size());
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, artifactIds.size()), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ggitflow-metadata-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setContextClassLoader(contextClassLoader);
+                return thread;
+            }
+        });
+        try {
+            Map<String, Future<List<ComparableVersion>>> futures = new LinkedHashMap<>();
+            for (final String id : artifactIds) {
+                futures.put(id, pool.submit(new Callable<List<ComparableVersion>>() {
+                    @Override
+                    public List<ComparableVersion> call() {
+                        return versions(id, allowSnapshots);
+                    }
+                }));
+            }
+            Map<String, List<ComparableVersion>> versions = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<List<ComparableVersion>>> future : futures.entrySet()) {
+                versions.put(future.getKey(), future.getValue().get());
+            }
+            return versions;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted reading artifact metadata", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed reading artifact metadata", cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<ComparableVersion> versions(String id, boolean allowSnapshots) {
+        int colon = id.indexOf(':');
+        Set<ComparableVersion> versions = new HashSet<>();
+        for (String repositoryUrl : repositoryUrls) {
+            try {
+                for (String version : cache.versions(repositoryUrl, id.substring(0, colon), id.substring(colon + 1))) {
+                    if (allowSnapshots || !version.endsWith("-SNAPSHOT")) {
+                        versions.add(new ComparableVersion(version));
+                    }
+                }
+            } catch (IOException ex) {
+                /* as the versions plugin, a failing repository only loses its versions */
+                LOG.warn("Unable to read metadata of {} from {}: {}", id, repositoryUrl, ex.getMessage());
+            }
+        }
+        List<ComparableVersion> sorted = new ArrayList<>(versions);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * @return the next newer version for a dependency, the latest for a
+     * parent, <code>null</code> if there is none
+     */
+    private static String select(Update candidate, List<ComparableVersion> versions) {
+        ComparableVersion current = new ComparableVersion(candidate.oldVersion);
+        String selected = null;
+        for (ComparableVersion version : versions) {
+            if (version.compareTo(current) > 0) {
+                selected = version.toString();
+                if (!candidate.parent) {
+                    break;
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Replace the versions in the POM text.
+     *
+     * @return <code>true</code> if the file was changed
+     */
+    private static boolean rewrite(File pomFile, Map<String, Update> updates) throws IOException {
+        String pom = new String(Files.readAllBytes(pomFile.toPath()), StandardCharsets.UTF_8);
+        StringBuilder rewritten = new StringBuilder(pom.length() + 64);
+
+        /* follow the element path, so only the blocks the versions-maven-plugin changes are matched */
+        int start = 0;
+        Deque<String> path = new ArrayDeque<>();
+        Deque<Integer> contentStarts = new ArrayDeque<>();
+        Matcher markup = MARKUP.matcher(pom);
+        while (markup.find()) {
+            String name = markup.group(2);
+            if (null == name || !markup.group(3).isEmpty()) {
+                continue;
+            }
+            if (markup.group(1).isEmpty()) {
+                path.addLast(name);
+                contentStarts.addLast(markup.end());
+                continue;
+            }
+            String elementPath = Joiner.on('/').join(path);
+            path.pollLast();
+            Integer contentStart = contentStarts.pollLast();
+            boolean parent = PARENT_PATH.equals(elementPath);
+            if (null == contentStart || !(parent || DEPENDENCY_PATHS.contains(elementPath))) {
+                continue;
+            }
+            String block = pom.substring(contentStart, markup.start());
+            Update update = updates.get(key(element(block, "groupId"), element(block, "artifactId"), element(block, "version"), parent));
+            if (null != update) {
+                rewritten.append(pom, start, contentStart).append(setVersion(block, update.newVersion));
+                start = markup.start();
+            }
+        }
+        if (start == 0) {
+            return false;
+        }
+        rewritten.append(pom, start, pom.length());
+        Files.write(pomFile.toPath(), rewritten.toString().getBytes(StandardCharsets.UTF_8));
+        return true;
+    }
+
+    private static String element(String block, String name) {
+        Matcher matcher = Pattern.compile("<" + name + "\\s*>\\s*([^<]*?)\\s*</" + name + "\\s*>").matcher(block);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String setVersion(String block, String version) {
+        Matcher matcher = VERSION.matcher(block);
+        if (!matcher.find()) {
+            return block;
+        }
+        return block.substring(0, matcher.start(2)) + version + block.substring(matcher.end(2));
+    }
+
+    private static Model readModel(File pomFile) throws IOException {
+        try (InputStream in = Files.newInputStream(pomFile.toPath())) {
+            return new MavenXpp3Reader().read(in, false);
+        } catch (XmlPullParserException ex) {
+            throw new IOException("Unable to parse " + pomFile, ex);
+        }
+    }
+
+    private static boolean isLiteral(String value) {
+        return null != value && !value.isEmpty() && !value.contains("${");
+    }
+
+    private static String key(String groupId, String artifactId, String version, boolean parent) {
+        return (parent ? "parent " : "") + groupId + ':' + artifactId + ':' + version;
+    }
+
+    /**
+     * A version change of a dependency or parent.
+     */
+    public static final class Update {
+
+        private final File pomFile;
+        private final String groupId;
+        private final String artifactId;
+        private final String oldVersion;
+        private final String newVersion;
+        private final boolean parent;
+
+        private Update(File pomFile, String groupId, String artifactId, String oldVersion, String newVersion, boolean parent) {
+            this.pomFile = pomFile;
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.oldVersion = oldVersion;
+            this.newVersion = newVersion;
+            this.parent = parent;
+        }
+
+        private String getId() {
+            return groupId + ':' + artifactId;
+        }
+
+        private String key() {
+            return NextVersionsResolver.key(groupId, artifactId, oldVersion, parent);
+        }
+
+        public File getPomFile() {
+            return pomFile;
+        }
+
+        public String getOldVersion() {
+            return oldVersion;
+        }
+
+        public String getNewVersion() {
+            return newVersion;
+        }
+
+        public boolean isParent() {
+            return parent;
+        }
+
+        @Override
+        public String toString() {
+            return (parent ? "parent " : "") + getId() + ':' + oldVersion + " -> " + newVersion;
+        }
+    }
+}
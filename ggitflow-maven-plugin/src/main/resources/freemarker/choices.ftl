@@ -1,6 +1,6 @@
-<#macro fg color>${'\x1B'}[${color}m</#macro>
-<#macro bold>${'\x1B'}[1m</#macro>
-<#macro reset>${'\x1B'}[0m</#macro>
+<#macro fg color><#if ansi!true>${'\x1B'}[${color}m</#if></#macro>
+<#macro bold><#if ansi!true>${'\x1B'}[1m</#if></#macro>
+<#macro reset><#if ansi!true>${'\x1B'}[0m</#if></#macro>
 
 <#assign header = header + ":">
 <@fg 34/><@bold/>=====${""?right_pad(header?length, "=")}=====<@reset/>
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow;
+
+import com.dkirrane.maven.plugins.ggitflow.prompt.BatchPrompter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.maven.plugin.MojoFailureException;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class BranchPromptTest {
+
+    /**
+     * Answers with the choice at <code>index</code>, padded as typed.
+     */
+    private static class Answer extends BatchPrompter {
+
+        private final int index;
+        private String header;
+        private List<String> choices;
+
+        Answer(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String promptChoice(String header, String message, List<String> choices) throws IOException {
+            this.header = header;
+            this.choices = new ArrayList<>(choices);
+            return " " + choices.get(index) + " ";
+        }
+    }
+
+    @Test
+    public void testSelectedBranchReturned() throws MojoFailureException {
+        List<String> branches = Arrays.asList("feature/b", "feature/a", "feature/c");
+
+        Answer answer = new Answer(2);
+        assertEquals("feature/c", AbstractGitflowMojo.promptForBranch(answer, "feature", "feature/", "develop", branches));
+        assertEquals("Feature branches", answer.header);
+        assertEquals(branches, answer.choices);
+    }
+
+    @Test
+    public void testCurrentBranchIsDefault() throws MojoFailureException {
+        List<String> branches = Arrays.asList("hotfix/1.0.1", "hotfix/1.0.2");
+
+        Answer answer = new Answer(0);
+        assertEquals("hotfix/1.0.2", AbstractGitflowMojo.promptForBranch(answer, "hotfix", "hotfix/", "hotfix/1.0.2", branches));
+        assertEquals(Arrays.asList("hotfix/1.0.2", "hotfix/1.0.1"), answer.choices);
+        assertEquals("Hotfix branches", answer.header);
+    }
+
+    @Test(expected = MojoFailureException.class)
+    public void testUnreadableAnswer() throws MojoFailureException {
+        AbstractGitflowMojo.promptForBranch(new BatchPrompter(), "release", "release/", "develop", Arrays.asList("release/1.0", "release/1.1"));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow;
+
+import com.dkirrane.maven.plugins.ggitflow.git.CommitGraph;
+import com.dkirrane.maven.plugins.ggitflow.git.TemporaryRepository;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.concurrent.Future;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class MergedCheckTest {
+
+    @Rule
+    public TemporaryRepository repo = new TemporaryRepository();
+
+    private AbstractGitflowMojo mojo() throws ReflectiveOperationException {
+        AbstractGitflowMojo mojo = new AbstractGitflowMojo();
+        Field field = AbstractGitflowMojo.class.getDeclaredField("commitGraph");
+        field.setAccessible(true);
+        field.set(mojo, new CommitGraph(repo.getRoot()));
+        return mojo;
+    }
+
+    @Test
+    public void testBranchCheckedBeforeMerge() throws Exception {
+        repo.init("develop");
+        repo.commit("pom.xml", "<project/>", "develop");
+        repo.git("checkout", "-q", "-b", "release/1.0");
+        repo.commit("README", "1.0", "release");
+        repo.git("checkout", "-q", "develop");
+
+        AbstractGitflowMojo mojo = mojo();
+        Future<Boolean> merged = mojo.readBranchMerged("release/1.0", "develop");
+
+        /* the check finishes before develop is written and answers for develop as it was */
+        mojo.beforeWrite("develop");
+        assertTrue(merged.isDone());
+        repo.git("merge", "-q", "--no-ff", "-m", "merge", "release/1.0");
+        assertFalse(mojo.isBranchMerged(merged, "release/1.0", "develop"));
+
+        assertTrue(mojo.isBranchMerged(mojo.readBranchMerged("release/1.0", "develop"), "release/1.0", "develop"));
+    }
+
+    @Test
+    public void testTagCheck() throws Exception {
+        repo.init("master");
+        repo.commit("pom.xml", "<project/>", "master");
+        repo.git("tag", "1.0");
+        repo.git("checkout", "-q", "-b", "other");
+        repo.commit("README", "other", "other");
+        repo.git("tag", "1.1");
+
+        AbstractGitflowMojo mojo = mojo();
+        assertTrue(mojo.isTagMerged(mojo.readTagMerged("1.0", "master"), "1.0", "master"));
+        assertFalse(mojo.isTagMerged(mojo.readTagMerged("1.1", "master"), "1.1", "master"));
+    }
+
+    @Test
+    public void testUnknownBranchIsNotMerged() throws IOException, ReflectiveOperationException {
+        repo.init("develop");
+        repo.commit("pom.xml", "<project/>", "develop");
+
+        AbstractGitflowMojo mojo = mojo();
+        /* git cannot tell, so the merge is run as before */
+        assertFalse(mojo.isBranchMerged(mojo.readBranchMerged("release/9.9", "develop"), "release/9.9", "develop"));
+    }
+}
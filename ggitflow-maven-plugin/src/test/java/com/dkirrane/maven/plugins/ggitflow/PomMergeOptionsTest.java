@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow;
+
+import com.dkirrane.maven.plugins.ggitflow.git.GitProcess;
+import com.dkirrane.maven.plugins.ggitflow.git.TemporaryRepository;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class PomMergeOptionsTest {
+
+    @Rule
+    public TemporaryRepository repo = new TemporaryRepository();
+
+    private static String pom(String version) {
+        return "<project>\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <groupId>com.example</groupId>\n"
+                + "  <artifactId>app</artifactId>\n"
+                + "  <version>" + version + "</version>\n"
+                + "</project>\n";
+    }
+
+    private GitProcess.Result merge(String[] options, String branch) {
+        List<String> args = new ArrayList<>(Arrays.asList(options));
+        args.addAll(Arrays.asList("merge", "--no-ff", "-m", "Merge " + branch, branch));
+        return GitProcess.run(repo.getRoot(), args.toArray(new String[args.size()]));
+    }
+
+    @Test
+    public void testMergeWithOptionsOnly() throws IOException {
+        File root = repo.init("develop");
+        repo.commit("pom.xml", pom("1.1-SNAPSHOT"), "develop");
+        repo.git("checkout", "-q", "-b", "release/1.1");
+        repo.commit("pom.xml", pom("1.1"), "release version");
+        repo.git("checkout", "-q", "develop");
+        repo.commit("pom.xml", pom("1.2-SNAPSHOT"), "next development version");
+
+        File userAttributes = repo.write("user-attributes", "*.txt text\n");
+        repo.git("config", "core.attributesFile", userAttributes.getAbsolutePath());
+
+        /* a plain merge conflicts */
+        assertFalse(merge(new String[0], "release/1.1").isSuccess());
+        repo.git("merge", "--abort");
+
+        String driver = AbstractGitflowMojo.pomMergeDriverCommand();
+        assertNotNull(driver);
+        File attributes = AbstractGitflowMojo.writePomMergeAttributes(root);
+        try {
+            String copied = new String(Files.readAllBytes(attributes.toPath()), StandardCharsets.UTF_8);
+            assertTrue(copied, copied.startsWith("*.txt text\n"));
+            assertTrue(copied, copied.contains("pom.xml merge=ggitflow-pom"));
+
+            GitProcess.Result result = merge(AbstractGitflowMojo.pomMergeOptions(driver, attributes), "release/1.1");
+            assertTrue(result.getStderr(), result.isSuccess());
+            assertTrue(repo.read("pom.xml").contains("<version>1.2-SNAPSHOT</version>"));
+            assertTrue(result.getStderr(), result.getStderr().contains("ggitflow: pom.xml: kept version 1.2-SNAPSHOT over 1.1 at line 5"));
+        } finally {
+            assertTrue(attributes.delete());
+        }
+
+        /* the repository's configuration and attributes are left alone */
+        assertFalse(GitProcess.run(root, "config", "--get-regexp", "^merge\\.").isSuccess());
+        assertFalse(new File(root, ".git/info/attributes").exists() && repo.read(".git/info/attributes").contains("ggitflow"));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow;
+
+import com.dkirrane.maven.plugins.ggitflow.git.TemporaryRepository;
+import com.dkirrane.maven.plugins.ggitflow.model.ModelCache;
+import com.dkirrane.maven.plugins.ggitflow.model.RawProjectBuilder;
+import com.dkirrane.maven.plugins.ggitflow.timing.Timings;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.ProjectBuilder;
+import static org.junit.Assert.assertEquals;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class ReactorReloadTest {
+
+    @Rule
+    public TemporaryRepository repo = new TemporaryRepository();
+
+    private static String pom(String version) {
+        return "<project>\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <groupId>com.example</groupId>\n"
+                + "  <artifactId>app</artifactId>\n"
+                + "  <version>" + version + "</version>\n"
+                + "</project>\n";
+    }
+
+    @Test
+    public void testCacheHitAfterCheckoutRefreshesProject() throws Exception {
+        repo.init("develop");
+        repo.commit("pom.xml", pom("1.0-SNAPSHOT"), "develop");
+        repo.git("checkout", "-q", "-b", "feature/f");
+        repo.commit("pom.xml", pom("1.1-SNAPSHOT"), "feature");
+        repo.git("checkout", "-q", "develop");
+
+        RawProjectBuilder builder = new RawProjectBuilder();
+        AbstractGitflowMojo mojo = mojo(builder);
+
+        mojo.reloadReactorProjects();
+        repo.git("checkout", "-q", "feature/f");
+        mojo.reloadReactorProjects();
+        assertEquals("1.1-SNAPSHOT", mojo.getProject().getVersion());
+        assertEquals(2, builder.getBuilds());
+
+        /* develop's reactor is cached, the reload itself builds nothing */
+        repo.git("checkout", "-q", "develop");
+        mojo.reloadReactorProjects();
+        assertEquals(2, builder.getBuilds());
+        assertEquals("1.0-SNAPSHOT", mojo.getProjectVersion());
+
+        /* but the project is develop's, not the feature branch's left over */
+        assertEquals("1.0-SNAPSHOT", mojo.getProject().getVersion());
+        assertEquals("1.0-SNAPSHOT", mojo.getReactorProjects().get(0).getVersion());
+        assertEquals(3, builder.getBuilds());
+    }
+
+    /**
+     * A mojo as Maven injects it for the checked out branch.
+     */
+    private AbstractGitflowMojo mojo(ProjectBuilder builder) throws Exception {
+        MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        AbstractGitflowMojo mojo = new AbstractGitflowMojo();
+        mojo.session = new MavenSession(null, null, request, new DefaultMavenExecutionResult());
+        mojo.project = RawProjectBuilder.read(new File(repo.getRoot(), "pom.xml"));
+        mojo.project.setExecutionRoot(true);
+        mojo.reactorProjects = new ArrayList<>(Collections.singletonList(mojo.project));
+        mojo.useModelCache = true;
+        inject(mojo, "projectBuilder", builder);
+        inject(mojo, "timings", new Timings("reload"));
+        inject(mojo, "modelCache", new ModelCache(repo.getRoot(), new File(repo.getRoot(), ".git"), request));
+        return mojo;
+    }
+
+    private static void inject(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = AbstractGitflowMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow;
+
+import java.lang.reflect.Field;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class ReleasePipelineMojoTest {
+
+    private static void set(Object mojo, String name, Object value) throws ReflectiveOperationException {
+        Field field = ReleasePipelineMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    @Test
+    public void testPartialDeployMustBeAllowed() throws ReflectiveOperationException, MojoExecutionException {
+        ReleasePipelineMojo mojo = new ReleasePipelineMojo();
+        set(mojo, "buildGoals", "clean deploy");
+        set(mojo, "changedModulesOnly", true);
+        try {
+            /* fails before the release branch is created */
+            mojo.executeGoal();
+            fail("changedModulesOnly without allowPartialDeploy");
+        } catch (MojoFailureException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("allowPartialDeploy"));
+        }
+    }
+}
@@ -17,8 +17,16 @@ package com.dkirrane.maven.plugins.ggitflow;
 
 import com.dkirrane.gitflow.groovy.GitflowInit;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.codehaus.plexus.util.FileUtils;
 
 /**
@@ -28,6 +36,19 @@ public class SetupVerifyScriptHelper {
 
     public static final String BUILD_LOG_FILE = "build.log";
 
+    public static final String TIMINGS_FILE = "target/ggitflow-timings.json";
+
+    public static final String BUDGET_FILE = "budget.properties";
+
+    /**
+     * Budget key limiting the total number of local and remote git processes.
+     */
+    public static final String GIT_PROCESSES = "git-processes";
+
+    private static final Pattern COUNTS = Pattern.compile("\"counts\"\\s*:\\s*\\{([^}]*)\\}");
+    private static final Pattern COUNT = Pattern.compile("\"([^\"]+)\"\\s*:\\s*(\\d+)");
+    private static final Pattern VERSION = Pattern.compile("<version>([^<]*)</version>");
+
     /**
      * The absolute path to the base directory of the test project.
      */
@@ -65,6 +86,8 @@ public class SetupVerifyScriptHelper {
         GitflowInit init = new GitflowInit();
         init.setRepoDir(this.baseDirectory);
         init.executeLocal("git init");
+        /* Gitflow's default master branch, whatever init.defaultBranch is */
+        init.executeLocal("git symbolic-ref HEAD refs/heads/master");
         init.executeLocal("git add -A .");
         String[] cmtPom = {"git", "commit", "-m", "\"Commit pom.xml\""};
         init.executeLocal(cmtPom);
@@ -72,6 +95,55 @@ public class SetupVerifyScriptHelper {
 //        init.executeLocal("/usr/local/bin/stree " + this.baseDirectory.getCanonicalPath());
     }
 
+    /**
+     * Run a git command in the test project.
+     *
+     * @param command git and its arguments
+     * @return the command output
+     */
+    public String git(String... command) {
+        GitflowInit init = new GitflowInit();
+        init.setRepoDir(this.baseDirectory);
+        return init.executeLocal(command);
+    }
+
+    /**
+     * Create <code>branch</code> from the current branch and check it out.
+     */
+    public void createBranch(String branch) {
+        git("git", "checkout", "-b", branch);
+    }
+
+    public void checkout(String branch) {
+        git("git", "checkout", branch);
+    }
+
+    public void tag(String tag) {
+        git("git", "tag", tag);
+    }
+
+    /**
+     * Write a file and commit it on the current branch.
+     */
+    public void commitFile(String path, String content) throws IOException {
+        FileUtils.fileWrite(new File(baseDirectory, path), "UTF-8", content);
+        git("git", "add", path);
+        git("git", "commit", "-m", "\"Add " + path + "\"");
+    }
+
+    /**
+     * Set and commit the version of the test project's POM on the current
+     * branch. The POM must not have a parent, so its first
+     * <code>&lt;version&gt;</code> is the project version.
+     */
+    public void commitVersion(String version) throws IOException {
+        File pom = new File(baseDirectory, "pom.xml");
+        String content = FileUtils.fileRead(pom, "UTF-8");
+        FileUtils.fileWrite(pom, "UTF-8", content.replaceFirst("<version>[^<]*</version>", "<version>" + version + "</version>"));
+        git("git", "add", "pom.xml");
+        git("git", "commit", "-m", "\"Updating poms to version " + version + "\"");
+    }
+
     public void tearDown() {
         baseDirectory.deleteOnExit();
     }
@@ -86,6 +158,78 @@ public class SetupVerifyScriptHelper {
         }
     }
 
+    /**
+     * Fail if the goal spawned more git processes, Maven forks or reactor
+     * reloads than allowed by the scenario's <code>budget.properties</code>.
+     *
+     * Budget keys are the invocation kinds written to
+     * <code>target/ggitflow-timings.json</code> (<code>git</code>,
+     * <code>git-remote</code>, <code>reload</code>, <code>mojo</code>,
+     * <code>maven</code>) plus <code>git-processes</code> for local and remote
+     * git combined. Kinds without a budget are not checked.
+     *
+     * @throws Exception if a count is over budget or the files are missing
+     */
+    public void assertWithinBudget() throws Exception {
+        assertWithinBudget(BUDGET_FILE);
+    }
+
+    public void assertWithinBudget(String budgetPath) throws Exception {
+        Properties budget = new Properties();
+        try (InputStream in = new FileInputStream(new File(baseDirectory, budgetPath))) {
+            budget.load(in);
+        }
+
+        Map<String, Integer> counts = readTimingCounts();
+        System.out.println("spawn counts = " + counts);
+
+        List<String> failures = new ArrayList<>();
+        for (String key : budget.stringPropertyNames()) {
+            int limit = Integer.parseInt(budget.getProperty(key).trim());
+            int actual;
+            if (GIT_PROCESSES.equals(key)) {
+                actual = count(counts, "git") + count(counts, "git-remote");
+            } else if (counts.containsKey(key)) {
+                actual = counts.get(key);
+            } else {
+                throw new Exception(budgetPath + " has unknown key '" + key + "'. Expected one of " + counts.keySet() + " or " + GIT_PROCESSES);
+            }
+            if (actual > limit) {
+                failures.add(key + " " + actual + " > " + limit);
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new Exception("Spawn budget exceeded: " + failures + ". See " + TIMINGS_FILE + " for the individual invocations.");
+        }
+    }
+
+    /**
+     * @return invocation counts per kind from
+     * <code>target/ggitflow-timings.json</code>
+     * @throws Exception if the timings file is missing or has no counts
+     */
+    public Map<String, Integer> readTimingCounts() throws Exception {
+        File timingsFile = new File(baseDirectory, TIMINGS_FILE);
+        if (!timingsFile.isFile()) {
+            throw new Exception(TIMINGS_FILE + " does not exist. Is timingsFile passed to the goal?");
+        }
+        Matcher matcher = COUNTS.matcher(FileUtils.fileRead(timingsFile, "UTF-8"));
+        if (!matcher.find()) {
+            throw new Exception(TIMINGS_FILE + " has no counts");
+        }
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        Matcher entry = COUNT.matcher(matcher.group(1));
+        while (entry.find()) {
+            counts.put(entry.group(1), Integer.valueOf(entry.group(2)));
+        }
+        return counts;
+    }
+
+    private static int count(Map<String, Integer> counts, String kind) {
+        Integer count = counts.get(kind);
+        return (null == count) ? 0 : count;
+    }
+
     public void featureBranchExists(String branchName) throws Exception {
         GitflowInit init = new GitflowInit();
         init.setRepoDir(this.baseDirectory);
@@ -94,4 +238,50 @@ public class SetupVerifyScriptHelper {
             throw new Exception("Feature branch does not exist " + branchName);
         }
     }
+
+    public void featureBranchDeleted(String branchName) throws Exception {
+        GitflowInit init = new GitflowInit();
+        init.setRepoDir(this.baseDirectory);
+        Boolean exists = init.gitLocalBranchExists(init.getFeatureBranchPrefix() + branchName);
+        if (exists) {
+            throw new Exception("Feature branch was not deleted " + branchName);
+        }
+    }
+
+    public void tagExists(String version) throws Exception {
+        GitflowInit init = new GitflowInit();
+        init.setRepoDir(this.baseDirectory);
+        Boolean exists = init.gitTagExists(init.getVersionTagPrefix() + version);
+        if (!exists) {
+            throw new Exception("Tag does not exist " + init.getVersionTagPrefix() + version);
+        }
+    }
+
+    public void assertCurrentBranch(String branch) throws Exception {
+        String current = git("git", "rev-parse", "--abbrev-ref", "HEAD").trim();
+        if (!branch.equals(current)) {
+            throw new Exception("Current branch should be " + branch + " but was " + current);
+        }
+    }
+
+    /**
+     * Fail unless the POM committed on <code>branch</code> has
+     * <code>version</code> as its project version.
+     */
+    public void assertBranchVersion(String branch, String version) throws Exception {
+        String pom = git("git", "show", branch + ":pom.xml");
+        Matcher matcher = VERSION.matcher(pom);
+        if (!matcher.find() || !version.equals(matcher.group(1))) {
+            throw new Exception("pom.xml on " + branch + " should have version " + version);
+        }
+    }
+
+    /**
+     * Fail unless <code>path</code> is committed on <code>branch</code>.
+     */
+    public void assertBranchContains(String branch, String path) throws Exception {
+        if (git("git", "ls-tree", "--name-only", branch, path).trim().isEmpty()) {
+            throw new Exception(path + " is not on " + branch);
+        }
+    }
 }
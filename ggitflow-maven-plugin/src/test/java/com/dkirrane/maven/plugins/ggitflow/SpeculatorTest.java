@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow;
+
+import com.dkirrane.maven.plugins.ggitflow.git.GitProcess;
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class SpeculatorTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testAwait() {
+        Speculator speculator = new Speculator();
+        final AtomicBoolean ran = new AtomicBoolean();
+        speculator.submit("fail", new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("ignored");
+            }
+        });
+        speculator.submit("work", new Runnable() {
+            @Override
+            public void run() {
+                ran.set(true);
+            }
+        });
+        assertTrue(speculator.await(5, TimeUnit.SECONDS));
+        assertTrue(ran.get());
+        assertTrue(speculator.await(0, TimeUnit.SECONDS));
+        speculator.close();
+    }
+
+    @Test
+    public void testDiscardSlowWork() throws InterruptedException {
+        Speculator speculator = new Speculator();
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        speculator.submit("slow", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException ex) {
+                    interrupted.countDown();
+                }
+            }
+        });
+        assertFalse(speculator.await(50, TimeUnit.MILLISECONDS));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        speculator.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testDiscardedGitCommandIsKilled() {
+        Speculator speculator = new Speculator();
+        final File dir = tmp.getRoot();
+        final AtomicReference<GitProcess.Result> result = new AtomicReference<>();
+        speculator.submit("hang", new Runnable() {
+            @Override
+            public void run() {
+                /* sleep keeps git's stdout open, as a slow fetch would */
+                result.set(GitProcess.run(dir, "-c", "alias.hang=!sleep 30", "hang"));
+            }
+        });
+        assertFalse(speculator.await(200, TimeUnit.MILLISECONDS));
+
+        /* git was killed and the task ended before await returned */
+        assertNotNull(result.get());
+        assertEquals(-1, result.get().getExitCode());
+        speculator.close();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow;
+
+import com.dkirrane.maven.plugins.ggitflow.git.GitProcess;
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class StepSchedulerTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testWriteWaitsForConflictingRead() throws Exception {
+        StepScheduler steps = new StepScheduler();
+        final CountDownLatch release = new CountDownLatch(1);
+        Future<String> develop = steps.read("read develop", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                release.await(5, TimeUnit.SECONDS);
+                return "1.1-SNAPSHOT";
+            }
+        }, StepScheduler.branch("develop"));
+
+        /* an unrelated write does not wait */
+        steps.write(StepScheduler.branch("master"), StepScheduler.WORKTREE);
+        assertFalse(develop.isDone());
+
+        release.countDown();
+        steps.write(StepScheduler.branch("develop"));
+        assertTrue(develop.isDone());
+        assertEquals("1.1-SNAPSHOT", develop.get());
+        steps.close();
+    }
+
+    @Test
+    public void testFailedReadDoesNotFailWrite() {
+        StepScheduler steps = new StepScheduler();
+        Future<String> failing = steps.read("fail", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw new IllegalStateException("no pom");
+            }
+        }, StepScheduler.branch("develop"));
+        steps.write(StepScheduler.branch("develop"));
+        assertTrue(failing.isDone());
+        steps.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseKillsRunningGitStep() throws Exception {
+        StepScheduler steps = new StepScheduler();
+        final File dir = tmp.getRoot();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+        steps.read("hang", new Callable<GitProcess.Result>() {
+            @Override
+            public GitProcess.Result call() throws Exception {
+                started.countDown();
+                try {
+                    /* sleep keeps git's stdout open */
+                    return GitProcess.run(dir, "-c", "alias.hang=!sleep 30", "hang");
+                } finally {
+                    finished.countDown();
+                }
+            }
+        }, StepScheduler.branch("develop"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+
+        /* git was killed and the step ended before close returned */
+        steps.close();
+        assertEquals(0, finished.getCount());
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.bench;
+
+import com.dkirrane.maven.plugins.ggitflow.git.GitProcess;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Macro-benchmark for complete Gitflow lifecycles.
+ *
+ * Every iteration generates a fresh repository with
+ * {@link SyntheticRepoGenerator}, then runs the scenario's goals as separate
+ * <code>mvn -B -o</code> processes against it and its local bare origin.
+ * Warmup iterations are discarded. For each scenario the p50 and p95
+ * wall-clock time of the Maven invocations, the git processes spawned and the
+ * peak heap are read from the timings each goal writes to the file given by
+ * <code>-DtimingsFile</code>, outside the repository, and printed as a
+ * table.
+ *
+ * The plugin must be installed in the local repository first
+ * (<code>mvn install</code>) and every plugin the goals use must already be
+ * cached for offline mode.
+ *
+ * <pre>
+ * java -cp ... com.dkirrane.maven.plugins.ggitflow.bench.ScenarioRunner \
+ *     pluginVersion=3.1 modules=100 depth=2 tags=50 warmup=2 iterations=10 \
+ *     scenarios=feature,release,hotfix,support
+ * </pre>
+ */
+public class ScenarioRunner {
+
+    private static final String PLUGIN = "com.dkirrane.maven.plugins:ggitflow-maven-plugin";
+
+    private static final Pattern COUNT = Pattern.compile("\"(git|git-remote)\"\\s*:\\s*(\\d+)");
+    private static final Pattern PEAK_HEAP = Pattern.compile("\"peakHeapBytes\"\\s*:\\s*(\\d+)");
+
+    private final Map<String, Scenario> scenarios = new LinkedHashMap<>();
+
+    private SyntheticRepoGenerator generator = new SyntheticRepoGenerator();
+    private File workDir = new File("target/bench");
+    private String pluginVersion;
+    private String mvn = System.getProperty("os.name").toLowerCase().contains("win") ? "mvn.cmd" : "mvn";
+    private boolean offline = true;
+    private int warmup = 2;
+    private int iterations = 10;
+
+    public ScenarioRunner() {
+        add(new Scenario("feature")
+                .mvn("feature-start", "-DfeatureName=bench")
+                .git("commit", "--allow-empty", "-m", "bench feature commit")
+                .mvn("feature-finish", "-DfeatureName=bench"));
+        add(new Scenario("release")
+                .mvn("release-start", "-DreleaseName=1.0")
+                .mvn("release-finish", "-DreleaseName=1.0"));
+        add(new Scenario("hotfix")
+                .git("checkout", "-q", "master")
+                .mvn("hotfix-start")
+                .mvn("hotfix-finish"));
+        add(new Scenario("support")
+                .mvn("support-start", "-DstartCommit=0.1")
+                .mvn("support-tag"));
+    }
+
+    private void add(Scenario scenario) {
+        scenarios.put(scenario.name, scenario);
+    }
+
+    public ScenarioRunner setGenerator(SyntheticRepoGenerator generator) {
+        this.generator = generator;
+        return this;
+    }
+
+    public ScenarioRunner setWorkDir(File workDir) {
+        this.workDir = workDir;
+        return this;
+    }
+
+    public ScenarioRunner setPluginVersion(String pluginVersion) {
+        this.pluginVersion = pluginVersion;
+        return this;
+    }
+
+    public ScenarioRunner setMvn(String mvn) {
+        this.mvn = mvn;
+        return this;
+    }
+
+    public ScenarioRunner setOffline(boolean offline) {
+        this.offline = offline;
+        return this;
+    }
+
+    public ScenarioRunner setWarmup(int warmup) {
+        this.warmup = warmup;
+        return this;
+    }
+
+    public ScenarioRunner setIterations(int iterations) {
+        this.iterations = iterations;
+        return this;
+    }
+
+    /**
+     * Run the named scenarios.
+     *
+     * @param names scenario names, <code>feature</code>, <code>release</code>,
+     * <code>hotfix</code> or <code>support</code>
+     * @return one result per scenario
+     * @throws IOException if a repository cannot be generated or a step fails
+     * @throws InterruptedException if interrupted while waiting for Maven
+     */
+    public List<Result> run(List<String> names) throws IOException, InterruptedException {
+        if (null == pluginVersion) {
+            throw new IllegalStateException("pluginVersion is required");
+        }
+        generator.setPluginVersion(pluginVersion);
+
+        List<Result> results = new ArrayList<>();
+        for (String name : names) {
+            Scenario scenario = scenarios.get(name);
+            if (null == scenario) {
+                throw new IllegalArgumentException("Unknown scenario '" + name + "'. Expected one of " + scenarios.keySet());
+            }
+            Result result = new Result(name);
+            for (int i = 0; i < warmup + iterations; i++) {
+                boolean measured = i >= warmup;
+                System.out.printf("%s %s %d/%d%n", name, measured ? "iteration" : "warmup", measured ? i - warmup + 1 : i + 1, measured ? iterations : warmup);
+                Sample sample = runOnce(scenario, new File(workDir, name + '-' + i));
+                if (measured) {
+                    result.samples.add(sample);
+                }
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private Sample runOnce(Scenario scenario, File repoDir) throws IOException, InterruptedException {
+        FileUtils.deleteDirectory(repoDir);
+        FileUtils.deleteDirectory(new File(repoDir.getParentFile(), repoDir.getName() + ".git"));
+        generator.generate(repoDir);
+
+        Sample sample = new Sample();
+        int stepNo = 0;
+        for (String[] step : scenario.steps) {
+            stepNo++;
+            if (null == step[0]) {
+                String[] args = Arrays.copyOfRange(step, 1, step.length);
+                GitProcess.Result result = GitProcess.run(repoDir, args);
+                if (!result.isSuccess()) {
+                    throw new IOException(scenario.name + " step " + stepNo + " git " + Arrays.toString(args) + " failed: " + result.getStderr());
+                }
+                continue;
+            }
+
+            List<String> command = new ArrayList<>();
+            command.add(mvn);
+            command.add("-B");
+            if (offline) {
+                command.add("-o");
+            }
+            command.add(PLUGIN + ':' + pluginVersion + ':' + step[0]);
+            command.addAll(Arrays.asList(step).subList(1, step.length));
+
+            File log = new File(repoDir.getParentFile(), repoDir.getName() + "-step" + stepNo + '-' + step[0] + ".log");
+            File timings = new File(repoDir.getParentFile(), repoDir.getName() + "-step" + stepNo + '-' + step[0] + "-timings.json");
+            Files.deleteIfExists(timings.toPath());
+            command.add("-DtimingsFile=" + timings.getAbsolutePath());
+
+            ProcessBuilder builder = new ProcessBuilder(command);
+            builder.directory(repoDir);
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(log);
+
+            long start = System.nanoTime();
+            Process process = builder.start();
+            /* answer 'yes' to any confirmation prompt */
+            try (OutputStream in = process.getOutputStream()) {
+                for (int i = 0; i < 20; i++) {
+                    in.write("y\n".getBytes(StandardCharsets.UTF_8));
+                }
+            } catch (IOException ignored) {
+                /* Maven did not read stdin */
+            }
+            int exitCode = process.waitFor();
+            sample.wallNanos += System.nanoTime() - start;
+            if (exitCode != 0) {
+                throw new IOException(scenario.name + " step " + stepNo + ' ' + step[0] + " failed with exit code " + exitCode + ". See " + log);
+            }
+            readTimings(timings, sample);
+        }
+        return sample;
+    }
+
+    private static void readTimings(File timings, Sample sample) throws IOException {
+        if (!timings.isFile()) {
+            throw new IOException(timings + " does not exist");
+        }
+        String json = new String(Files.readAllBytes(timings.toPath()), StandardCharsets.UTF_8);
+        Matcher count = COUNT.matcher(json);
+        while (count.find()) {
+            sample.gitSpawns += Integer.parseInt(count.group(2));
+        }
+        Matcher heap = PEAK_HEAP.matcher(json);
+        if (heap.find()) {
+            sample.peakHeapBytes = Math.max(sample.peakHeapBytes, Long.parseLong(heap.group(1)));
+        }
+    }
+
+    /**
+     * A sequence of goals, with optional git commands in between.
+     */
+    private static final class Scenario {
+
+        private final String name;
+        /* first element is the goal, or null for a git command */
+        private final List<String[]> steps = new ArrayList<>();
+
+        Scenario(String name) {
+            this.name = name;
+        }
+
+        Scenario mvn(String goal, String... properties) {
+            String[] step = new String[properties.length + 1];
+            step[0] = goal;
+            System.arraycopy(properties, 0, step, 1, properties.length);
+            steps.add(step);
+            return this;
+        }
+
+        Scenario git(String... args) {
+            String[] step = new String[args.length + 1];
+            System.arraycopy(args, 0, step, 1, args.length);
+            steps.add(step);
+            return this;
+        }
+    }
+
+    private static final class Sample {
+
+        private long wallNanos;
+        private int gitSpawns;
+        private long peakHeapBytes;
+    }
+
+    /**
+     * Measured iterations of one scenario.
+     */
+    public static final class Result {
+
+        private final String scenario;
+        private final List<Sample> samples = new ArrayList<>();
+
+        Result(String scenario) {
+            this.scenario = scenario;
+        }
+
+        public String getScenario() {
+            return scenario;
+        }
+
+        /**
+         * @param percentile 0 to 100
+         * @return wall-clock milliseconds at the percentile, nearest rank
+         */
+        public long getWallMillis(int percentile) {
+            List<Long> values = new ArrayList<>();
+            for (Sample sample : samples) {
+                values.add(sample.wallNanos);
+            }
+            Collections.sort(values);
+            int rank = (int) Math.ceil(percentile / 100.0d * values.size());
+            return TimeUnit.NANOSECONDS.toMillis(values.get(Math.max(0, rank - 1)));
+        }
+
+        /**
+         * @return highest number of git processes of any iteration
+         */
+        public int getGitSpawns() {
+            int max = 0;
+            for (Sample sample : samples) {
+                max = Math.max(max, sample.gitSpawns);
+            }
+            return max;
+        }
+
+        /**
+         * @return highest peak heap of any Maven invocation
+         */
+        public long getPeakHeapBytes() {
+            long max = 0;
+            for (Sample sample : samples) {
+                max = Math.max(max, sample.peakHeapBytes);
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s %10d %10d %10d %10d", scenario, getWallMillis(50), getWallMillis(95), getGitSpawns(), getPeakHeapBytes() >> 20);
+        }
+    }
+
+    /**
+     * @param args <code>key=value</code> options: pluginVersion (required),
+     * scenarios, warmup, iterations, workDir, mvn, offline and the
+     * {@link SyntheticRepoGenerator} options modules, depth, branches, tags and
+     * bom
+     * @throws Exception if a scenario fails
+     */
+    public static void main(String[] args) throws Exception {
+        ScenarioRunner runner = new ScenarioRunner();
+        SyntheticRepoGenerator generator = new SyntheticRepoGenerator();
+        List<String> names = new ArrayList<>(runner.scenarios.keySet());
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            String value = (option.length > 1) ? option[1] : "true";
+            switch (option[0]) {
+                case "pluginVersion":
+                    runner.setPluginVersion(value);
+                    break;
+                case "scenarios":
+                    names = Arrays.asList(value.split(","));
+                    break;
+                case "warmup":
+                    runner.setWarmup(Integer.parseInt(value));
+                    break;
+                case "iterations":
+                    runner.setIterations(Integer.parseInt(value));
+                    break;
+                case "workDir":
+                    runner.setWorkDir(new File(value));
+                    break;
+                case "mvn":
+                    runner.setMvn(value);
+                    break;
+                case "offline":
+                    runner.setOffline(Boolean.parseBoolean(value));
+                    break;
+                case "modules":
+                    generator.setModules(Integer.parseInt(value));
+                    break;
+                case "depth":
+                    generator.setDepth(Integer.parseInt(value));
+                    break;
+                case "branches":
+                    generator.setBranches(Integer.parseInt(value));
+                    break;
+                case "tags":
+                    generator.setTags(Integer.parseInt(value));
+                    break;
+                case "bom":
+                    generator.setBom(Boolean.parseBoolean(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        runner.setGenerator(generator.setTags(Math.max(1, generator.getTags())));
+
+        List<Result> results = runner.run(names);
+        System.out.println();
+        System.out.println(String.format("%-10s %10s %10s %10s %10s", "Scenario", "p50 ms", "p95 ms", "git", "heap MB"));
+        for (Result result : results) {
+            System.out.println(result);
+        }
+    }
+}
@@ -0,0 +1,448 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.bench;
+
+import com.dkirrane.maven.plugins.ggitflow.git.GitProcess;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates a Gitflow repository of configurable size for scale testing.
+ *
+ * The repository contains a multi-module Maven project with
+ * <code>modules</code> leaf modules spread over <code>depth</code> levels of
+ * aggregator POMs, <code>branches</code> feature, release and support
+ * branches, <code>tags</code> historical release tags on master and an
+ * optional BOM imported by every module. A bare repository next to it is
+ * added as <code>origin</code> so every goal can run offline.
+ *
+ * The history is written with a single <code>git fast-import</code> so even
+ * 5,000 modules and thousands of tags are generated in seconds.
+ *
+ * <pre>
+ * java -cp ... com.dkirrane.maven.plugins.ggitflow.bench.SyntheticRepoGenerator \
+ *     target/repo-1000 modules=1000 depth=2 branches=30 tags=200 bom=true
+ * </pre>
+ */
+public class SyntheticRepoGenerator {
+
+    public static final String GROUP_ID = "com.dkirrane.bench";
+    public static final String ROOT_ARTIFACT_ID = "bench-root";
+    public static final String BOM_ARTIFACT_ID = "bench-bom";
+
+    private static final String COMMITTER = "ggitflow bench <bench@example.com>";
+    private static final long EPOCH = 1451606400L; // 2016-01-01
+
+    private int modules = 10;
+    private int depth = 1;
+    private int branches = 0;
+    private int tags = 0;
+    private boolean bom = false;
+    private String version = "1.0-SNAPSHOT";
+    private String pluginVersion;
+
+    private long time;
+    private int mark;
+
+    public SyntheticRepoGenerator setModules(int modules) {
+        this.modules = modules;
+        return this;
+    }
+
+    /**
+     * @param depth number of directory levels below the root POM, the leaf
+     * modules are at this level
+     * @return this generator
+     */
+    public SyntheticRepoGenerator setDepth(int depth) {
+        this.depth = Math.max(1, depth);
+        return this;
+    }
+
+    /**
+     * @param branches number of feature, release and support branches, created
+     * round robin
+     * @return this generator
+     */
+    public SyntheticRepoGenerator setBranches(int branches) {
+        this.branches = branches;
+        return this;
+    }
+
+    public SyntheticRepoGenerator setTags(int tags) {
+        this.tags = tags;
+        return this;
+    }
+
+    public int getTags() {
+        return tags;
+    }
+
+    public SyntheticRepoGenerator setBom(boolean bom) {
+        this.bom = bom;
+        return this;
+    }
+
+    public SyntheticRepoGenerator setVersion(String version) {
+        this.version = version;
+        return this;
+    }
+
+    /**
+     * @param pluginVersion ggitflow-maven-plugin version declared in the root
+     * POM, not declared if <code>null</code>
+     * @return this generator
+     */
+    public SyntheticRepoGenerator setPluginVersion(String pluginVersion) {
+        this.pluginVersion = pluginVersion;
+        return this;
+    }
+
+    /**
+     * Generate the repository into <code>repoDir</code> and its bare origin
+     * into <code>repoDir.git</code> next to it.
+     *
+     * @param repoDir working directory of the repository, must not exist
+     * @return the bare origin repository
+     * @throws IOException if generation fails
+     */
+    public File generate(File repoDir) throws IOException {
+        if (repoDir.exists()) {
+            throw new IOException(repoDir + " already exists");
+        }
+        if (!repoDir.mkdirs()) {
+            throw new IOException("Failed to create " + repoDir);
+        }
+        File originDir = new File(repoDir.getParentFile(), repoDir.getName() + ".git");
+
+        time = EPOCH;
+        mark = 0;
+
+        git(repoDir, "init", "-q");
+        git(repoDir, "config", "user.name", "ggitflow bench");
+        git(repoDir, "config", "user.email", "bench@example.com");
+        git(repoDir, "config", "gitflow.branch.master", "master");
+        git(repoDir, "config", "gitflow.branch.develop", "develop");
+        git(repoDir, "config", "gitflow.prefix.feature", "feature/");
+        git(repoDir, "config", "gitflow.prefix.release", "release/");
+        git(repoDir, "config", "gitflow.prefix.hotfix", "hotfix/");
+        git(repoDir, "config", "gitflow.prefix.support", "support/");
+        git(repoDir, "config", "gitflow.prefix.versiontag", "");
+
+        GitProcess.Result result = GitProcess.runWithInput(repoDir, fastImportStream(), "fast-import", "--quiet");
+        if (!result.isSuccess()) {
+            throw new IOException("git fast-import failed: " + result.getStderr());
+        }
+
+        git(repoDir, "symbolic-ref", "HEAD", "refs/heads/develop");
+        git(repoDir, "reset", "-q", "--hard");
+
+        git(originDir.getParentFile(), "init", "-q", "--bare", originDir.getAbsolutePath());
+        git(repoDir, "remote", "add", "origin", originDir.getAbsolutePath());
+        git(repoDir, "push", "-q", "--all", "-u", "origin");
+        git(repoDir, "push", "-q", "--tags", "origin");
+        return originDir;
+    }
+
+    private String fastImportStream() {
+        StringBuilder stream = new StringBuilder(1 << 20);
+
+        Map<String, String> files = pomFiles();
+        int initial = commit(stream, "refs/heads/master", null, "Initial commit. pom version " + version, files);
+
+        int master = initial;
+        for (int i = 1; i <= tags; i++) {
+            String tag = "0." + i;
+            master = commit(stream, "refs/heads/master", master, "Release " + tag, null);
+            stream.append("tag ").append(tag).append('\n')
+                    .append("from :").append(master).append('\n')
+                    .append("tagger ").append(COMMITTER).append(' ').append(time).append(" +0000\n");
+            data(stream, "Tag " + tag);
+        }
+
+        int develop = commit(stream, "refs/heads/develop", master, "Start develop", null);
+
+        String[] prefixes = {"feature/", "release/", "support/"};
+        for (int i = 0; i < branches; i++) {
+            String prefix = prefixes[i % prefixes.length];
+            String name;
+            int from;
+            if ("support/".equals(prefix)) {
+                name = prefix + "0." + (i + 1);
+                from = master;
+            } else if ("release/".equals(prefix)) {
+                name = prefix + "1." + i;
+                from = develop;
+            } else {
+                name = prefix + "JIRA-" + i;
+                from = develop;
+            }
+            commit(stream, "refs/heads/" + name, from, "Work on " + name, null);
+        }
+        stream.append("done\n");
+        return stream.toString();
+    }
+
+    private int commit(StringBuilder stream, String ref, Integer from, String message, Map<String, String> files) {
+        int commitMark = ++mark;
+        time += 60;
+        stream.append("commit ").append(ref).append('\n')
+                .append("mark :").append(commitMark).append('\n')
+                .append("committer ").append(COMMITTER).append(' ').append(time).append(" +0000\n");
+        data(stream, message);
+        if (null != from) {
+            stream.append("from :").append(from).append('\n');
+        }
+        if (null != files) {
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                stream.append("M 100644 inline ").append(file.getKey()).append('\n');
+                data(stream, file.getValue());
+            }
+        }
+        stream.append('\n');
+        return commitMark;
+    }
+
+    private static void data(StringBuilder stream, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        stream.append("data ").append(bytes.length).append('\n').append(content).append('\n');
+    }
+
+    /**
+     * Lay the leaf modules out as a tree with the same fan-out at every level.
+     *
+     * @return POM path to content, parents before children
+     */
+    private Map<String, String> pomFiles() {
+        int fanout = Math.max(2, (int) Math.ceil(Math.pow(Math.max(1, modules), 1.0d / depth)));
+
+        Map<String, List<String>> children = new LinkedHashMap<>();
+        Map<String, String> leafParents = new LinkedHashMap<>();
+        children.put("", new ArrayList<String>());
+        if (bom) {
+            children.get("").add(BOM_ARTIFACT_ID);
+        }
+        for (int i = 0; i < modules; i++) {
+            String parent = "";
+            int divisor = (int) Math.pow(fanout, depth - 1);
+            for (int level = 1; level < depth; level++) {
+                String dir = parent + "group-" + (i / divisor) + "/";
+                String dirName = dir.substring(parent.length(), dir.length() - 1);
+                if (!children.containsKey(dir)) {
+                    children.put(dir, new ArrayList<String>());
+                    children.get(parent).add(dirName);
+                }
+                parent = dir;
+                divisor /= fanout;
+            }
+            String leaf = "module-" + i;
+            children.get(parent).add(leaf);
+            leafParents.put(parent + leaf + "/", parent);
+        }
+
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put(".gitignore", "target/\n");
+        for (Map.Entry<String, List<String>> aggregator : children.entrySet()) {
+            String dir = aggregator.getKey();
+            files.put(dir + "pom.xml", aggregatorPom(dir, aggregator.getValue()));
+        }
+        if (bom) {
+            files.put(BOM_ARTIFACT_ID + "/pom.xml", bomPom(leafParents.keySet()));
+        }
+        String previous = null;
+        for (Map.Entry<String, String> leaf : leafParents.entrySet()) {
+            String dir = leaf.getKey();
+            String parentDir = leaf.getValue();
+            /* each module depends on the previous one in the same aggregator */
+            String dependency = (null != previous && parentDir.equals(leafParents.get(previous))) ? artifactId(previous) : null;
+            files.put(dir + "pom.xml", leafPom(dir, parentDir, dependency));
+            previous = dir;
+        }
+        return files;
+    }
+
+    private String aggregatorPom(String dir, List<String> modules) {
+        StringBuilder pom = header();
+        if (dir.isEmpty()) {
+            gav(pom, ROOT_ARTIFACT_ID, true);
+        } else {
+            parent(pom, parentOf(dir));
+            gav(pom, artifactId(dir), false);
+        }
+        pom.append("    <packaging>pom</packaging>\n\n");
+        pom.append("    <modules>\n");
+        for (String module : modules) {
+            pom.append("        <module>").append(module).append("</module>\n");
+        }
+        pom.append("    </modules>\n");
+        if (dir.isEmpty()) {
+            pom.append("\n    <properties>\n")
+                    .append("        <project.build.sourceEncoding>UTF-8</project.build.sourceEncoding>\n")
+                    .append("    </properties>\n");
+            if (null != pluginVersion) {
+                pom.append("\n    <build>\n        <plugins>\n            <plugin>\n")
+                        .append("                <groupId>com.dkirrane.maven.plugins</groupId>\n")
+                        .append("                <artifactId>ggitflow-maven-plugin</artifactId>\n")
+                        .append("                <version>").append(pluginVersion).append("</version>\n")
+                        .append("            </plugin>\n        </plugins>\n    </build>\n");
+            }
+        }
+        return pom.append("</project>\n").toString();
+    }
+
+    private String bomPom(Iterable<String> leaves) {
+        StringBuilder pom = header();
+        parent(pom, "");
+        gav(pom, BOM_ARTIFACT_ID, false);
+        pom.append("    <packaging>pom</packaging>\n\n");
+        pom.append("    <dependencyManagement>\n        <dependencies>\n");
+        for (String leaf : leaves) {
+            dependency(pom, "            ", artifactId(leaf), "${project.version}", null);
+        }
+        pom.append("        </dependencies>\n    </dependencyManagement>\n");
+        return pom.append("</project>\n").toString();
+    }
+
+    private String leafPom(String dir, String parentDir, String dependency) {
+        StringBuilder pom = header();
+        parent(pom, parentDir);
+        gav(pom, artifactId(dir), false);
+        if (bom) {
+            pom.append("    <dependencyManagement>\n        <dependencies>\n");
+            dependency(pom, "            ", BOM_ARTIFACT_ID, "${project.version}", "import");
+            pom.append("        </dependencies>\n    </dependencyManagement>\n\n");
+        }
+        if (null != dependency) {
+            pom.append("    <dependencies>\n");
+            dependency(pom, "        ", dependency, bom ? null : "${project.version}", null);
+            pom.append("    </dependencies>\n");
+        }
+        return pom.append("</project>\n").toString();
+    }
+
+    private static StringBuilder header() {
+        return new StringBuilder(1024)
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"")
+                .append(" xsi:schemaLocation=\"http://maven.apache.org/POM/4.0.0 http://maven.apache.org/xsd/maven-4.0.0.xsd\">\n")
+                .append("    <modelVersion>4.0.0</modelVersion>\n\n");
+    }
+
+    private void parent(StringBuilder pom, String parentDir) {
+        pom.append("    <parent>\n")
+                .append("        <groupId>").append(GROUP_ID).append("</groupId>\n")
+                .append("        <artifactId>").append(parentDir.isEmpty() ? ROOT_ARTIFACT_ID : artifactId(parentDir)).append("</artifactId>\n")
+                .append("        <version>").append(version).append("</version>\n");
+        if (!parentDir.isEmpty()) {
+            pom.append("        <relativePath>../pom.xml</relativePath>\n");
+        }
+        pom.append("    </parent>\n\n");
+    }
+
+    private void gav(StringBuilder pom, String artifactId, boolean withVersion) {
+        pom.append("    <groupId>").append(GROUP_ID).append("</groupId>\n")
+                .append("    <artifactId>").append(artifactId).append("</artifactId>\n");
+        if (withVersion) {
+            pom.append("    <version>").append(version).append("</version>\n");
+        }
+        pom.append('\n');
+    }
+
+    private static void dependency(StringBuilder pom, String indent, String artifactId, String version, String scope) {
+        pom.append(indent).append("<dependency>\n")
+                .append(indent).append("    <groupId>").append(GROUP_ID).append("</groupId>\n")
+                .append(indent).append("    <artifactId>").append(artifactId).append("</artifactId>\n");
+        if (null != version) {
+            pom.append(indent).append("    <version>").append(version).append("</version>\n");
+        }
+        if (null != scope) {
+            pom.append(indent).append("    <type>pom</type>\n")
+                    .append(indent).append("    <scope>").append(scope).append("</scope>\n");
+        }
+        pom.append(indent).append("</dependency>\n");
+    }
+
+    /**
+     * @param dir module directory relative to the root ending in '/'
+     * @return unique artifactId for the module
+     */
+    private static String artifactId(String dir) {
+        return "bench-" + dir.substring(0, dir.length() - 1).replace('/', '-');
+    }
+
+    private static String parentOf(String dir) {
+        int slash = dir.lastIndexOf('/', dir.length() - 2);
+        return (slash < 0) ? "" : dir.substring(0, slash + 1);
+    }
+
+    private static void git(File dir, String... args) throws IOException {
+        GitProcess.Result result = GitProcess.run(dir, args);
+        if (!result.isSuccess()) {
+            throw new IOException("git " + args[0] + " failed: " + result.getStderr());
+        }
+    }
+
+    /**
+     * @param args target directory followed by <code>key=value</code> options
+     * modules, depth, branches, tags, bom, version and pluginVersion
+     * @throws IOException if generation fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SyntheticRepoGenerator <dir> [modules=N] [depth=D] [branches=M] [tags=K] [bom=true] [version=V] [pluginVersion=V]");
+            System.exit(1);
+        }
+        SyntheticRepoGenerator generator = new SyntheticRepoGenerator();
+        for (int i = 1; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            String value = (option.length > 1) ? option[1] : "true";
+            switch (option[0]) {
+                case "modules":
+                    generator.setModules(Integer.parseInt(value));
+                    break;
+                case "depth":
+                    generator.setDepth(Integer.parseInt(value));
+                    break;
+                case "branches":
+                    generator.setBranches(Integer.parseInt(value));
+                    break;
+                case "tags":
+                    generator.setTags(Integer.parseInt(value));
+                    break;
+                case "bom":
+                    generator.setBom(Boolean.parseBoolean(value));
+                    break;
+                case "version":
+                    generator.setVersion(value);
+                    break;
+                case "pluginVersion":
+                    generator.setPluginVersion(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        File repoDir = new File(args[0]).getAbsoluteFile();
+        long start = System.nanoTime();
+        File origin = generator.generate(repoDir);
+        System.out.printf("Generated %s (origin %s) in %d ms%n", repoDir, origin, (System.nanoTime() - start) / 1000000);
+    }
+}
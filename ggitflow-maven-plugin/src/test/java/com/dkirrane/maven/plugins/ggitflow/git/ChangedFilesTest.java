@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class ChangedFilesTest {
+
+    private static final Set<String> VERSIONS = new HashSet<>(Arrays.asList("1.0", "1.1-SNAPSHOT"));
+
+    @Test
+    public void testVersionOnly() {
+        String diff = "diff --git a/pom.xml b/pom.xml\n"
+                + "index 1111111..2222222 100644\n"
+                + "--- a/pom.xml\n"
+                + "+++ b/pom.xml\n"
+                + "@@ -7 +7 @@\n"
+                + "-    <version>1.0</version>\n"
+                + "+    <version>1.1-SNAPSHOT</version>\n"
+                + "diff --git a/core/pom.xml b/core/pom.xml\n"
+                + "index 3333333..4444444 100644\n"
+                + "--- a/core/pom.xml\n"
+                + "+++ b/core/pom.xml\n"
+                + "@@ -9 +9 @@\n"
+                + "-        <version>1.0</version>\n"
+                + "+        <version>1.1-SNAPSHOT</version>\n"
+                + "@@ -20,0 +21,4 @@\n"
+                + "+        <dependency>\n"
+                + "+            <groupId>junit</groupId>\n"
+                + "+            <artifactId>junit</artifactId>\n"
+                + "+        </dependency>\n"
+                + "diff --git a/app/pom.xml b/app/pom.xml\n"
+                + "--- a/app/pom.xml\n"
+                + "+++ b/app/pom.xml\n"
+                + "@@ -30 +30 @@\n"
+                + "-            <version>4.11</version>\n"
+                + "+            <version>4.12</version>\n";
+
+        assertEquals(Collections.singleton("pom.xml"), ChangedFiles.versionOnly(diff, VERSIONS));
+    }
+
+    @Test
+    public void testEmptyDiff() {
+        assertEquals(0, ChangedFiles.versionOnly("", VERSIONS).size());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class CommitGraphTest {
+
+    @Rule
+    public TemporaryRepository repo = new TemporaryRepository();
+
+    private CommitGraph graph() throws IOException {
+        repo.init("develop");
+        repo.commit("a.txt", "a\n", "initial");
+        repo.git("tag", "1.0");
+        repo.git("checkout", "-q", "-b", "release/1.1");
+        repo.commit("a.txt", "b\n", "release");
+        repo.git("checkout", "-q", "develop");
+        return new CommitGraph(repo.getRoot());
+    }
+
+    @Test
+    public void testMergedInto() throws IOException {
+        CommitGraph graph = graph();
+        assertEquals(Collections.singleton("refs/tags/1.0"),
+                graph.mergedInto("develop", Arrays.asList("refs/tags/1.0", "refs/heads/release/1.1")));
+        assertTrue(graph.isAncestor("refs/tags/1.0", "develop"));
+        assertFalse(graph.isAncestor("refs/heads/release/1.1", "develop"));
+    }
+
+    @Test
+    public void testFailureIsNotNotMerged() throws IOException {
+        CommitGraph graph = graph();
+        assertNull(graph.mergedInto("missing", Arrays.asList("refs/tags/1.0")));
+        assertNull(graph.isAncestor("refs/tags/1.0", "missing"));
+    }
+
+    @Test
+    public void testExistingGraphIsKept() throws IOException {
+        CommitGraph graph = graph();
+        repo.git("commit-graph", "write", "--reachable");
+        File file = new File(repo.getRoot(), ".git/objects/info/commit-graph");
+        long modified = file.lastModified();
+        graph.write();
+        assertEquals(modified, file.lastModified());
+        assertFalse(new File(repo.getRoot(), ".git/objects/info/commit-graphs").exists());
+    }
+
+    @Test
+    public void testMissingGraphIsWritten() throws IOException {
+        CommitGraph graph = graph();
+        graph.write();
+        assertTrue(new File(repo.getRoot(), ".git/objects/info/commit-graphs/commit-graph-chain").isFile());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class PomMergeDriverTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static String pom(String version, String dependencyVersion, String name) {
+        return "<project>\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <groupId>com.example</groupId>\n"
+                + "  <artifactId>app</artifactId>\n"
+                + "  <version>" + version + "</version>\n"
+                + "  <dependencies>\n"
+                + "    <dependency>\n"
+                + "      <groupId>com.example</groupId>\n"
+                + "      <artifactId>lib</artifactId>\n"
+                + "      <version>" + dependencyVersion + "</version>\n"
+                + "    </dependency>\n"
+                + "  </dependencies>\n"
+                + "  <name>" + name + "</name>\n"
+                + "</project>\n";
+    }
+
+    @Test
+    public void testResolveVersionOnlyConflict() {
+        List<String> lines = PomMergeDriver.splitLines("<project>\n"
+                + "<<<<<<< ours\n"
+                + "  <version>1.2-SNAPSHOT</version>\n"
+                + "||||||| base\n"
+                + "  <version>1.1-SNAPSHOT</version>\n"
+                + "=======\n"
+                + "  <version>1.1</version>\n"
+                + ">>>>>>> theirs\n"
+                + "</project>\n");
+        List<String> resolved = new ArrayList<>();
+        assertEquals(0, PomMergeDriver.resolve(lines, 7, "1.2-SNAPSHOT", "1.1", resolved));
+        assertEquals(PomMergeDriver.splitLines("<project>\n  <version>1.2-SNAPSHOT</version>\n</project>\n"), lines);
+        assertEquals(Arrays.asList("kept version 1.2-SNAPSHOT over 1.1 at line 2"), resolved);
+    }
+
+    @Test
+    public void testKeepExternalVersionConflict() {
+        String merged = "<project>\n"
+                + "<<<<<<< ours\n"
+                + "      <version>2.1-SNAPSHOT</version>\n"
+                + "=======\n"
+                + "      <version>2.0</version>\n"
+                + ">>>>>>> theirs\n"
+                + "</project>\n";
+        List<String> lines = PomMergeDriver.splitLines(merged);
+        List<String> resolved = new ArrayList<>();
+        assertEquals(1, PomMergeDriver.resolve(lines, 7, "1.2-SNAPSHOT", "1.1", resolved));
+        assertEquals(PomMergeDriver.splitLines(merged), lines);
+        assertTrue(resolved.isEmpty());
+    }
+
+    @Test
+    public void testKeepOtherConflicts() {
+        String merged = "<project>\n"
+                + "<<<<<<< ours\n"
+                + "  <version>1.2-SNAPSHOT</version>\n"
+                + "  <name>develop</name>\n"
+                + "=======\n"
+                + "  <version>1.1</version>\n"
+                + "  <name>release</name>\n"
+                + ">>>>>>> theirs\n"
+                + "</project>\n";
+        List<String> lines = PomMergeDriver.splitLines(merged);
+        assertEquals(1, PomMergeDriver.resolve(lines, 7, "1.2-SNAPSHOT", "1.1", new ArrayList<String>()));
+        assertEquals(PomMergeDriver.splitLines(merged), lines);
+    }
+
+    @Test
+    public void testMerge() throws IOException, InterruptedException {
+        File dir = tmp.getRoot();
+        /* the dependency is on a module of the reactor */
+        File base = write(dir, "base", pom("1.1-SNAPSHOT", "1.1-SNAPSHOT", "app"));
+        File develop = write(dir, "develop", pom("1.2-SNAPSHOT", "1.2-SNAPSHOT", "app"));
+        File release = write(dir, "release", pom("1.1", "1.1", "app"));
+        List<String> resolved = new ArrayList<>();
+        assertEquals(0, PomMergeDriver.merge(base, develop, release, 7, resolved));
+        assertEquals(pom("1.2-SNAPSHOT", "1.2-SNAPSHOT", "app"), read(develop));
+        assertEquals(2, resolved.size());
+
+        /* an external dependency both branches moved is left to the user */
+        base = write(dir, "base", pom("1.1-SNAPSHOT", "2.0-SNAPSHOT", "app"));
+        develop = write(dir, "develop", pom("1.2-SNAPSHOT", "2.1-SNAPSHOT", "app"));
+        release = write(dir, "release", pom("1.1", "2.0", "app"));
+        assertEquals(1, PomMergeDriver.merge(base, develop, release, 7, new ArrayList<String>()));
+        assertTrue(read(develop).contains("<version>1.2-SNAPSHOT</version>\n  <dependencies>"));
+        assertTrue(read(develop).contains("<<<<<<<"));
+
+        /* a release version is never kept e.g. merging into master */
+        File master = write(dir, "master", pom("1.0", "1.0", "app"));
+        release = write(dir, "release", pom("1.1", "1.1", "app"));
+        assertTrue(PomMergeDriver.merge(base, master, release, 7, new ArrayList<String>()) > 0);
+        assertTrue(read(master).contains("<<<<<<<"));
+
+        /* changes besides versions merge as usual */
+        develop = write(dir, "develop", pom("1.2-SNAPSHOT", "2.0-SNAPSHOT", "app"));
+        release = write(dir, "release", pom("1.1", "2.0-SNAPSHOT", "renamed"));
+        assertEquals(0, PomMergeDriver.merge(base, develop, release, 7, new ArrayList<String>()));
+        assertEquals(pom("1.2-SNAPSHOT", "2.0-SNAPSHOT", "renamed"), read(develop));
+    }
+
+    private static File write(File dir, String name, String content) throws IOException {
+        File file = new File(dir, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
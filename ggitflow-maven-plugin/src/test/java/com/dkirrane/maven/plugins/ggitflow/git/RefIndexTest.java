@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class RefIndexTest {
+
+    private final RefIndex index = new RefIndex(
+            Arrays.asList("master", "feature/b", "develop", "feature/a", "release/1.0", "features", "hotfix/1.0.1"),
+            Arrays.asList("1.0", "0.9"),
+            Arrays.asList("feature/", "release/", "hotfix/", "support/"));
+
+    @Test
+    public void testBranchesByPrefix() {
+        assertEquals(Arrays.asList("feature/a", "feature/b"), index.branches("feature/"));
+        assertEquals(Arrays.asList("release/1.0"), index.branches("release/"));
+        assertTrue(index.branches("support/").isEmpty());
+        assertSame(index.branches("feature/"), index.branches("feature/"));
+    }
+
+    @Test
+    public void testComplete() {
+        assertEquals(Arrays.asList("feature/a", "feature/b", "features"), index.branches("feature"));
+        assertEquals(Arrays.asList("develop"), index.branches("d"));
+        assertTrue(index.branches("x").isEmpty());
+        assertEquals(7, index.branches("").size());
+    }
+
+    @Test
+    public void testExists() {
+        assertTrue(index.hasBranch("feature/a"));
+        assertFalse(index.hasBranch("feature/"));
+        assertTrue(index.hasTag("0.9"));
+        assertFalse(index.hasTag("master"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() {
+        index.branches("feature/").add("feature/c");
+    }
+
+    @Test
+    public void testEmpty() {
+        RefIndex empty = new RefIndex(Collections.<String>emptyList(), Collections.<String>emptyList(),
+                Arrays.asList("feature/"));
+        assertTrue(empty.branches("feature/").isEmpty());
+        assertFalse(empty.hasBranch("master"));
+    }
+}
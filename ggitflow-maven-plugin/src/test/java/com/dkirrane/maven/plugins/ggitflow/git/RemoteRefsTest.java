@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class RemoteRefsTest {
+
+    private static final RefIndex LOCAL = new RefIndex(
+            Arrays.asList("master", "develop", "release/1.0", "feature/a"),
+            Arrays.asList("1.0"),
+            Collections.<String>emptyList());
+
+    private static RemoteRefs remote() {
+        return new RemoteRefs(Arrays.asList(
+                "1111111111111111111111111111111111111111\trefs/heads/master",
+                "2222222222222222222222222222222222222222\trefs/heads/develop",
+                "3333333333333333333333333333333333333333\trefs/heads/release/1.0",
+                "4444444444444444444444444444444444444444\trefs/tags/0.9",
+                "5555555555555555555555555555555555555555\trefs/tags/0.9^{}"));
+    }
+
+    @Test
+    public void testParse() {
+        RemoteRefs refs = remote();
+        assertTrue(refs.hasBranch("release/1.0"));
+        assertFalse(refs.hasBranch("feature/a"));
+        assertTrue(refs.hasTag("0.9"));
+        assertFalse(refs.hasTag("0.9^{}"));
+    }
+
+    @Test
+    public void testRecordPush() {
+        RemoteRefs refs = remote();
+        assertTrue(refs.recordPush("origin", new String[]{"git", "push", "origin", "master", "develop", "1.0"}, LOCAL));
+        assertTrue(refs.hasTag("1.0"));
+        assertTrue(refs.recordPush("origin", new String[]{"git", "push", "origin", ":release/1.0"}, LOCAL));
+        assertFalse(refs.hasBranch("release/1.0"));
+        assertTrue(refs.recordPush("origin", new String[]{"git", "push", "-u", "origin", "feature/a"}, LOCAL));
+        assertTrue(refs.hasBranch("feature/a"));
+        assertTrue(refs.recordPush("origin", new String[]{"git", "push", "--delete", "origin", "feature/a"}, LOCAL));
+        assertFalse(refs.hasBranch("feature/a"));
+        assertTrue(refs.recordPush("origin", new String[]{"git", "push", "origin", "+HEAD:refs/heads/support/1"}, LOCAL));
+        assertTrue(refs.hasBranch("support/1"));
+    }
+
+    @Test
+    public void testUnclearPush() {
+        RemoteRefs refs = remote();
+        assertFalse(refs.recordPush("origin", new String[]{"git", "push"}, LOCAL));
+        assertFalse(refs.recordPush("origin", new String[]{"git", "push", "origin"}, LOCAL));
+        assertFalse(refs.recordPush("origin", new String[]{"git", "push", "--tags", "origin"}, LOCAL));
+        assertFalse(refs.recordPush("origin", new String[]{"git", "push", "origin", "unknown"}, LOCAL));
+        assertTrue(refs.recordPush("origin", new String[]{"git", "push", "upstream", "develop"}, LOCAL));
+    }
+}
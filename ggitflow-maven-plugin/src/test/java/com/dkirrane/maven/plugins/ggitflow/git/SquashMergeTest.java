@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class SquashMergeTest {
+
+    private static final String MESSAGE = "[prefix]Merge branch 'feature/f' into develop[suffix]";
+
+    @Rule
+    public TemporaryRepository repo = new TemporaryRepository();
+
+    @Rule
+    public TemporaryRepository other = new TemporaryRepository();
+
+    /**
+     * A feature branch of two commits off develop.
+     */
+    private void createFeature() throws IOException {
+        createFeature(repo);
+    }
+
+    private static void createFeature(TemporaryRepository repo) throws IOException {
+        Assume.assumeTrue(SquashMerge.supports(GitProcess.run(repo.getRoot(), "version").getStdout().trim()));
+        repo.init("develop");
+        repo.commit("a.txt", "a\n", "initial");
+        repo.git("checkout", "-q", "-b", "feature/f");
+        repo.commit("b.txt", "b\n", "add b");
+        repo.commit("b.txt", "b2\n", "change b");
+    }
+
+    @Test
+    public void testSupports() {
+        assertTrue(SquashMerge.supports("git version 2.38.0"));
+        assertTrue(SquashMerge.supports("git version 2.45.1.windows.1"));
+        assertTrue(SquashMerge.supports("git version 3.0.0"));
+        assertFalse(SquashMerge.supports("git version 2.37.3"));
+        assertFalse(SquashMerge.supports("git version 1.9.5"));
+        assertFalse(SquashMerge.supports(""));
+    }
+
+    @Test
+    public void testSquashWithoutCheckout() throws IOException {
+        createFeature();
+        repo.git("checkout", "-q", "develop");
+        repo.commit("c.txt", "c\n", "add c");
+        repo.git("checkout", "-q", "feature/f");
+
+        String squash = SquashMerge.squash(repo.getRoot(), "feature/f", "develop", MESSAGE);
+        assertNotNull(squash);
+        assertEquals("refs/heads/feature/f", repo.git("symbolic-ref", "HEAD"));
+        assertEquals(squash, repo.git("rev-parse", "develop"));
+        assertEquals("1", repo.git("rev-list", "--count", "--no-merges", "develop~1..develop"));
+        assertEquals("b2", repo.git("show", "develop:b.txt"));
+        assertEquals("c", repo.git("show", "develop:c.txt"));
+        assertEquals(MESSAGE, squashMessage(repo));
+    }
+
+    @Test
+    public void testSquashCheckedOutTarget() throws IOException {
+        createFeature();
+        repo.git("checkout", "-q", "develop");
+        assertNotNull(SquashMerge.squash(repo.getRoot(), "feature/f", "develop", "Merge feature/f"));
+        assertEquals("b2\n", repo.read("b.txt"));
+        assertEquals("", repo.git("status", "--porcelain"));
+    }
+
+    @Test
+    public void testConflictChangesNothing() throws IOException {
+        createFeature();
+        repo.git("checkout", "-q", "develop");
+        repo.commit("b.txt", "other\n", "conflicting b");
+        String develop = repo.git("rev-parse", "develop");
+
+        assertNull(SquashMerge.squash(repo.getRoot(), "feature/f", "develop", "Merge feature/f"));
+        assertEquals(develop, repo.git("rev-parse", "develop"));
+        assertEquals("", repo.git("status", "--porcelain"));
+    }
+
+    @Test
+    public void testCommitHooksChangeNothing() throws IOException {
+        createFeature();
+        File hooks = repo.newFolder("hooks");
+        File hook = new File(hooks, "commit-msg");
+        Files.write(hook.toPath(), "#!/bin/sh\nexit 0\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(hook.setExecutable(true));
+        repo.git("config", "core.hooksPath", hooks.getAbsolutePath());
+        assertTrue(SquashMerge.hasCommitHooks(repo.getRoot()));
+        String develop = repo.git("rev-parse", "develop");
+
+        assertNull(SquashMerge.squash(repo.getRoot(), "feature/f", "develop", MESSAGE));
+        assertEquals(develop, repo.git("rev-parse", "develop"));
+
+        assertTrue(hook.setExecutable(false));
+        assertFalse(SquashMerge.hasCommitHooks(repo.getRoot()));
+    }
+
+    /**
+     * The in memory squash, followed by the steps the feature finish takes
+     * after it, leaves the same refs, tree and message as finishing with
+     * <code>git merge --squash</code> and <code>git commit</code>.
+     */
+    @Test
+    public void testSameResultAsMergeSquash() throws IOException {
+        createFeature(repo);
+        createFeature(other);
+
+        assertNotNull(SquashMerge.squash(repo.getRoot(), "feature/f", "develop", MESSAGE));
+        repo.git("checkout", "-q", "develop");
+        repo.git("branch", "-D", "feature/f");
+
+        other.git("checkout", "-q", "develop");
+        other.git("merge", "--squash", "feature/f");
+        other.git("commit", "-m", MESSAGE);
+        other.git("branch", "-D", "feature/f");
+
+        assertEquals(other.git("for-each-ref", "--format=%(refname)"), repo.git("for-each-ref", "--format=%(refname)"));
+        assertEquals(other.git("symbolic-ref", "HEAD"), repo.git("symbolic-ref", "HEAD"));
+        assertEquals(other.git("rev-parse", "develop^{tree}"), repo.git("rev-parse", "develop^{tree}"));
+        assertEquals(other.git("rev-parse", "develop~1^{tree}"), repo.git("rev-parse", "develop~1^{tree}"));
+        assertEquals(other.git("rev-list", "--count", "develop"), repo.git("rev-list", "--count", "develop"));
+        assertEquals(squashMessage(other), squashMessage(repo));
+        assertEquals("", repo.git("status", "--porcelain"));
+        assertEquals("", other.git("status", "--porcelain"));
+    }
+
+    private static String squashMessage(TemporaryRepository repo) {
+        return repo.git("log", "-1", "--format=%B", "develop");
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class SshMultiplexerTest {
+
+    /**
+     * Runs the remote git command locally. A control master, or an ssh that
+     * makes itself one, leaves a process behind that holds the descriptors
+     * it was started with, as OpenSSH's backgrounded master does.
+     */
+    private static final String FAKE_SSH = "#!/bin/sh\n"
+            + "echo \"$*\" >> \"$(dirname \"$0\")/ssh.log\"\n"
+            + "master=no\n"
+            + "while [ $# -gt 0 ]; do\n"
+            + "  case \"$1\" in\n"
+            + "    -M) master=yes ;;\n"
+            + "    -o) shift; case \"$1\" in ControlMaster=auto|ControlMaster=yes) master=yes ;; esac ;;\n"
+            + "    -O|-p) shift ;;\n"
+            + "    -*) ;;\n"
+            + "    *) break ;;\n"
+            + "  esac\n"
+            + "  shift\n"
+            + "done\n"
+            + "if [ \"$master\" = yes ]; then sleep 15 & fi\n"
+            + "[ $# -gt 1 ] || exit 0\n"
+            + "shift\n"
+            + "cmd=\"$*\"\n"
+            + "eval \"git ${cmd#git-}\"\n";
+
+    @Rule
+    public TemporaryRepository repo = new TemporaryRepository();
+
+    @Test
+    public void testIsSsh() {
+        assertTrue(SshMultiplexer.isSsh("ssh://git@example.com:2222/repo.git"));
+        assertTrue(SshMultiplexer.isSsh("git+ssh://example.com/repo.git"));
+        assertTrue(SshMultiplexer.isSsh("git@github.com:dkirrane/ggitflow-maven-plugin.git"));
+        assertTrue(SshMultiplexer.isSsh("example.com:repo.git"));
+        assertFalse(SshMultiplexer.isSsh("https://github.com/dkirrane/ggitflow-maven-plugin.git"));
+        assertFalse(SshMultiplexer.isSsh("file:///srv/git/repo.git"));
+        assertFalse(SshMultiplexer.isSsh("/srv/git/repo.git"));
+        assertFalse(SshMultiplexer.isSsh("./repos/a:b"));
+        assertFalse(SshMultiplexer.isSsh("C:/git/repo.git"));
+        assertFalse(SshMultiplexer.isSsh(""));
+    }
+
+    @Test
+    public void testFileRemoteIsNotShared() {
+        repo.init("master");
+        repo.git("remote", "add", "origin", repo.getRoot().getAbsolutePath());
+        assertNull(SshMultiplexer.open(repo.getRoot(), "origin"));
+    }
+
+    @Test
+    public void testWrap() throws IOException {
+        /* no connection is made, the master is "started" by true */
+        SshMultiplexer multiplexer = new SshMultiplexer("true", repo.newFolder("control").toPath(), SshMultiplexer.target("git@example.com:repo.git"));
+        try {
+            String[] wrapped = multiplexer.wrap(new String[]{"git", "push", "origin", "develop"});
+            assertEquals(6, wrapped.length);
+            assertEquals("-c", wrapped[1]);
+            assertEquals("core.sshCommand=" + multiplexer.getSshCommand(), wrapped[2]);
+            assertEquals("push", wrapped[3]);
+            assertTrue(multiplexer.getSshCommand().startsWith("true -o ControlMaster=no -o ControlPath="));
+            assertEquals("ls", multiplexer.wrap(new String[]{"ls"})[0]);
+        } finally {
+            multiplexer.close();
+        }
+    }
+
+    @Test
+    public void testTarget() {
+        assertEquals(Arrays.asList("-p", "2222", "git@example.com"), SshMultiplexer.target("ssh://git@example.com:2222/repo.git"));
+        assertEquals(Arrays.asList("example.com"), SshMultiplexer.target("git+ssh://example.com/repo.git"));
+        assertEquals(Arrays.asList("-p", "22", "::1"), SshMultiplexer.target("ssh://[::1]:22/repo.git"));
+        assertEquals(Arrays.asList("git@github.com"), SshMultiplexer.target("git@github.com:dkirrane/ggitflow-maven-plugin.git"));
+    }
+
+    @Test(timeout = 10000)
+    public void testMasterDoesNotHoldGitOutput() throws IOException {
+        repo.init("master");
+        repo.commit("README", "readme", "initial");
+        String url = "ssh://git@example.com" + repo.getRoot().getAbsolutePath();
+        repo.git("remote", "add", "origin", url);
+
+        File bin = repo.newFolder("bin");
+        File ssh = new File(bin, "ssh");
+        Files.write(ssh.toPath(), FAKE_SSH.getBytes(StandardCharsets.UTF_8));
+        assertTrue(ssh.setExecutable(true));
+
+        SshMultiplexer multiplexer = new SshMultiplexer(ssh.getPath(), repo.newFolder("control").toPath(), SshMultiplexer.target(url));
+        try {
+            /* reads ls-remote's output to the end, which would wait for a master git's ssh forked */
+            RemoteRefs refs = RemoteRefs.load(repo.getRoot(), "origin", multiplexer.getSshCommand());
+            assertNotNull(refs);
+            assertTrue(refs.hasBranch("master"));
+            assertNotNull(RemoteRefs.load(repo.getRoot(), "origin", multiplexer.getSshCommand()));
+        } finally {
+            multiplexer.close();
+        }
+
+        List<String> calls = Files.readAllLines(new File(bin, "ssh.log").toPath(), StandardCharsets.UTF_8);
+        assertEquals(3, calls.size());
+        assertTrue(calls.get(0), calls.get(0).startsWith("-M -N -f "));
+        assertTrue(calls.get(0), calls.get(0).endsWith(" git@example.com"));
+        assertTrue(calls.get(1), calls.get(1).startsWith("-o ControlMaster=no "));
+        assertTrue(calls.get(2), calls.get(2).startsWith("-o ControlMaster=no "));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.junit.Assert.assertTrue;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * A Git repository in a temporary folder that is deleted after each test.
+ *
+ * <pre>
+ * &#64;Rule
+ * public TemporaryRepository repo = new TemporaryRepository();
+ * </pre>
+ *
+ * @author dkirrane
+ */
+public class TemporaryRepository extends TemporaryFolder {
+
+    /**
+     * Create an empty repository on <code>branch</code> with a committer
+     * identity set.
+     *
+     * @param branch initial branch
+     * @return the repository directory
+     */
+    public File init(String branch) {
+        git("init", "-q");
+        git("config", "user.email", "test@example.com");
+        git("config", "user.name", "test");
+        git("checkout", "-q", "-b", branch);
+        return getRoot();
+    }
+
+    /**
+     * Run git in the repository and fail the test if it fails.
+     *
+     * @param args git arguments
+     * @return standard output, trimmed
+     */
+    public String git(String... args) {
+        GitProcess.Result result = GitProcess.run(getRoot(), args);
+        assertTrue("git " + args[0] + ": " + result.getStderr(), result.isSuccess());
+        return result.getStdout().trim();
+    }
+
+    /**
+     * Write a file and commit it on the current branch.
+     *
+     * @param path file path relative to the repository
+     * @param content file content
+     * @param message commit message
+     * @throws IOException if the file cannot be written
+     */
+    public void commit(String path, String content, String message) throws IOException {
+        write(path, content);
+        git("add", path);
+        git("commit", "-q", "-m", message);
+    }
+
+    /**
+     * @param path file path relative to the repository
+     * @param content file content
+     * @return the file
+     * @throws IOException if the file cannot be written
+     */
+    public File write(String path, String content) throws IOException {
+        File file = new File(getRoot(), path);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * @param path file path relative to the repository
+     * @return the file's content
+     * @throws IOException if the file cannot be read
+     */
+    public String read(String path) throws IOException {
+        return new String(Files.readAllBytes(new File(getRoot(), path).toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class ChangedModulesTest {
+
+    private final File repoDir = new File("repo").getAbsoluteFile();
+    private final Map<File, Model> models = new LinkedHashMap<>();
+
+    public ChangedModulesTest() {
+        module("root", null);
+        Model web = module("web", "root");
+        Model app = module("app", "root");
+        module("core", "root");
+        module("tools", "root");
+        dependency(web, "app");
+        dependency(app, "core");
+    }
+
+    @Test
+    public void testChangedModuleWithDependents() throws Exception {
+        List<String> selected = select("core/src/main/java/Core.java");
+        assertEquals(Arrays.asList("root", "core", "app", "web"), selected);
+    }
+
+    @Test
+    public void testDependentPullsInRequirements() throws Exception {
+        List<String> selected = select("web/src/main/webapp/index.html");
+        assertEquals(Arrays.asList("root", "core", "app", "web"), selected);
+    }
+
+    @Test
+    public void testRootChangeSelectsAll() throws Exception {
+        assertEquals(5, select("README.md").size());
+        assertEquals(5, select("docs/guide.md").size());
+    }
+
+    @Test
+    public void testNothingChanged() throws Exception {
+        assertTrue(ChangedModules.select(ReactorSnapshot.of(models), repoDir, Collections.<String>emptyList()).isEmpty());
+        assertEquals(Arrays.asList("root", "tools"), select("tools/pom.xml"));
+    }
+
+    private List<String> select(String... paths) throws Exception {
+        List<String> artifactIds = new ArrayList<>();
+        for (ReactorSnapshot.Module module : ChangedModules.select(ReactorSnapshot.of(models), repoDir, Arrays.asList(paths))) {
+            artifactIds.add(module.getArtifactId());
+        }
+        return artifactIds;
+    }
+
+    private Model module(String artifactId, String parentArtifactId) {
+        Model model = new Model();
+        model.setGroupId("g");
+        model.setArtifactId(artifactId);
+        model.setVersion("1.0-SNAPSHOT");
+        File dir = repoDir;
+        if (null != parentArtifactId) {
+            Parent parent = new Parent();
+            parent.setGroupId("g");
+            parent.setArtifactId(parentArtifactId);
+            parent.setVersion("1.0-SNAPSHOT");
+            model.setParent(parent);
+            dir = new File(repoDir, artifactId);
+        }
+        models.put(new File(dir, "pom.xml"), model);
+        return model;
+    }
+
+    private static void dependency(Model model, String artifactId) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId("g");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1.0-SNAPSHOT");
+        model.addDependency(dependency);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.model;
+
+import com.dkirrane.maven.plugins.ggitflow.git.TemporaryRepository;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.model.Activation;
+import org.apache.maven.model.ActivationFile;
+import org.apache.maven.model.ActivationProperty;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
+import org.apache.maven.project.MavenProject;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class ModelCacheTest {
+
+    @Rule
+    public TemporaryRepository repo = new TemporaryRepository();
+
+    private final MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+
+    private File baseDir;
+    private File parentPom;
+    private MavenProject project;
+
+    /**
+     * A single module reactor whose parent POM is outside the reactor, e.g.
+     * in the local repository.
+     */
+    private List<MavenProject> reactor() throws IOException {
+        File root = repo.init("develop");
+        baseDir = new File(root, "app");
+        assertTrue(baseDir.mkdir());
+        repo.write("app/pom.xml", "<project/>");
+        parentPom = repo.write("parent-1.0-SNAPSHOT.pom", "<project/>");
+
+        Properties system = new Properties();
+        system.setProperty("java.version", "1.7.0");
+        request.setSystemProperties(system);
+
+        MavenProject parent = project("parent", parentPom);
+        project = project("app", new File(baseDir, "pom.xml"));
+        project.setParent(parent);
+        return Arrays.asList(project);
+    }
+
+    private static MavenProject project(String artifactId, File pomFile) {
+        Model model = new Model();
+        model.setGroupId("com.example");
+        model.setArtifactId(artifactId);
+        model.setVersion("1.0-SNAPSHOT");
+        MavenProject mavenProject = new MavenProject(model);
+        mavenProject.setFile(pomFile);
+        return mavenProject;
+    }
+
+    private ModelCache cache() {
+        return new ModelCache(baseDir, new File(repo.getRoot(), ".git"), request);
+    }
+
+    @Test
+    public void testHit() throws IOException {
+        List<MavenProject> projects = reactor();
+        String key = cache().key();
+        assertNotNull(key);
+        cache().put(key, projects);
+        assertEquals("app", cache().getSnapshot(key).getRoot().getArtifactId());
+    }
+
+    @Test
+    public void testKeyIncludesSettingsAndPlatform() throws IOException {
+        reactor();
+        String key = cache().key();
+
+        File settings = repo.write("settings.xml", "<settings/>");
+        request.setUserSettingsFile(settings);
+        String withSettings = cache().key();
+        assertNotEquals(key, withSettings);
+        repo.write("settings.xml", "<settings><offline>true</offline></settings>");
+        assertNotEquals(withSettings, cache().key());
+
+        request.getSystemProperties().setProperty("java.version", "1.8.0");
+        assertNotEquals(withSettings, cache().key());
+
+        request.setInactiveProfiles(Arrays.asList("slow"));
+        assertNotEquals(withSettings, cache().key());
+    }
+
+    @Test
+    public void testExternalParentChanged() throws IOException {
+        List<MavenProject> projects = reactor();
+        ModelCache cache = cache();
+        String key = cache.key();
+        cache.put(key, projects);
+
+        repo.write(parentPom.getName(), "<project><name>deployed again</name></project>");
+        assertEquals(key, cache.key());
+        assertNull(cache.getSnapshot(key));
+        assertNull(cache().getSnapshot(key));
+    }
+
+    @Test
+    public void testActivationPropertyChanged() throws IOException {
+        List<MavenProject> projects = reactor();
+        Activation activation = new Activation();
+        ActivationProperty property = new ActivationProperty();
+        property.setName("!env.CI");
+        activation.setProperty(property);
+        Profile profile = new Profile();
+        profile.setId("local");
+        profile.setActivation(activation);
+        project.getModel().addProfile(profile);
+
+        ModelCache cache = cache();
+        String key = cache.key();
+        cache.put(key, projects);
+        assertNotNull(cache().getSnapshot(key));
+
+        request.getSystemProperties().setProperty("env.CI", "true");
+        assertEquals(key, cache.key());
+        assertNull(cache.getSnapshot(key));
+        assertNull(cache().getSnapshot(key));
+    }
+
+    @Test
+    public void testFileActivationNotCached() throws IOException {
+        List<MavenProject> projects = reactor();
+        Activation activation = new Activation();
+        ActivationFile file = new ActivationFile();
+        file.setExists("${basedir}/src/main/webapp");
+        activation.setFile(file);
+        Profile profile = new Profile();
+        profile.setId("war");
+        profile.setActivation(activation);
+        project.getParent().getModel().addProfile(profile);
+
+        ModelCache cache = cache();
+        String key = cache.key();
+        assertEquals("app", cache.put(key, projects).getRoot().getArtifactId());
+        assertNull(cache.getSnapshot(key));
+        assertNull(cache().getSnapshot(key));
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuildingException;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuildingResult;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class ParallelProjectBuilderTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private File pom(String dir, String artifactId, String parent, String modules) throws IOException {
+        File pomDir = dir.isEmpty() ? tmp.getRoot() : new File(tmp.getRoot(), dir);
+        pomDir.mkdirs();
+        File pomFile = new File(pomDir, "pom.xml");
+        String content = "<project>\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + (null == parent ? "" : "  <parent><groupId>com.example</groupId><artifactId>" + parent + "</artifactId><version>1.0-SNAPSHOT</version></parent>\n")
+                + "  <groupId>com.example</groupId>\n"
+                + "  <artifactId>" + artifactId + "</artifactId>\n"
+                + "  <version>1.0-SNAPSHOT</version>\n"
+                + modules
+                + "</project>\n";
+        Files.write(pomFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return pomFile;
+    }
+
+    @Test
+    public void testRootIsExecutionRoot() throws IOException, ProjectBuildingException {
+        File root = pom("", "root", null, "  <modules><module>core</module><module>app</module></modules>\n");
+        pom("core", "core", "root", "");
+        pom("app", "app", "root", "");
+
+        RawProjectBuilder builder = new RawProjectBuilder();
+        List<MavenProject> projects = new ParallelProjectBuilder(builder, 2)
+                .build(root, new DefaultProjectBuildingRequest(), Collections.<String>emptyList());
+
+        assertEquals(3, projects.size());
+        assertEquals(3, builder.getBuilds());
+        assertEquals("root", projects.get(0).getArtifactId());
+        assertTrue(projects.get(0).isExecutionRoot());
+        assertFalse(projects.get(1).isExecutionRoot());
+        assertFalse(projects.get(2).isExecutionRoot());
+        assertSame(projects.get(0), projects.get(1).getParent());
+
+        /* the snapshot no longer falls back to the first project */
+        assertEquals("root", ReactorSnapshot.of(projects).getRoot().getArtifactId());
+    }
+
+    @Test
+    public void testConditionalModulesNeedRecursiveBuild() throws IOException, ProjectBuildingException {
+        File root = pom("", "root", null, "  <profiles><profile><id>it</id>"
+                + "<activation><property><name>it</name></property></activation>"
+                + "<modules><module>it</module></modules></profile></profiles>\n");
+        pom("it", "it", "root", "");
+
+        RawProjectBuilder builder = new RawProjectBuilder();
+        assertNull(new ParallelProjectBuilder(builder, 2)
+                .build(root, new DefaultProjectBuildingRequest(), Collections.<String>emptyList()));
+        assertEquals(0, builder.getBuilds());
+    }
+
+    @Test
+    public void testReactorBomNeedsRecursiveBuild() throws IOException, ProjectBuildingException {
+        File root = pom("", "root", null, "  <modules><module>bom</module><module>app</module></modules>\n");
+        pom("bom", "bom", "root", "");
+        pom("app", "app", "root", "  <dependencyManagement><dependencies><dependency>"
+                + "<groupId>${project.groupId}</groupId><artifactId>bom</artifactId><version>${project.version}</version>"
+                + "<type>pom</type><scope>import</scope></dependency></dependencies></dependencyManagement>\n");
+
+        RawProjectBuilder builder = new RawProjectBuilder();
+        assertNull(new ParallelProjectBuilder(builder, 2)
+                .build(root, new DefaultProjectBuildingRequest(), Collections.<String>emptyList()));
+        assertEquals(0, builder.getBuilds());
+    }
+
+    @Test
+    public void testModuleFailingAloneNeedsRecursiveBuild() throws IOException, ProjectBuildingException {
+        File root = pom("", "root", null, "  <modules><module>core</module><module>app</module></modules>\n");
+        pom("core", "core", "root", "");
+        final File app = pom("app", "app", "root", "  <dependencies><dependency>"
+                + "<groupId>com.example</groupId><artifactId>core</artifactId><version>1.0-SNAPSHOT</version>"
+                + "</dependency></dependencies>\n");
+
+        /* as if core 1.0-SNAPSHOT were needed but not installed yet */
+        RawProjectBuilder builder = new RawProjectBuilder() {
+            @Override
+            public ProjectBuildingResult build(File pomFile, ProjectBuildingRequest request) throws ProjectBuildingException {
+                if (pomFile.getAbsoluteFile().equals(app.getAbsoluteFile())) {
+                    throw new ProjectBuildingException("com.example:app:1.0-SNAPSHOT", "core not found", pomFile);
+                }
+                return super.build(pomFile, request);
+            }
+        };
+        assertNull(new ParallelProjectBuilder(builder, 2)
+                .build(root, new DefaultProjectBuildingRequest(), Collections.<String>emptyList()));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.building.ModelProblem;
+import org.apache.maven.model.building.ModelSource;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.project.DependencyResolutionResult;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingException;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuildingResult;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * A {@link ProjectBuilder} that turns each POM file into a project of its raw
+ * model, without inheritance, interpolation or modules, and counts the POMs
+ * it builds.
+ *
+ * @author dkirrane
+ */
+public class RawProjectBuilder implements ProjectBuilder {
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    /**
+     * @return number of POM files built so far
+     */
+    public int getBuilds() {
+        return builds.get();
+    }
+
+    /**
+     * @param pomFile POM file
+     * @return a project of the file's raw model
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public static MavenProject read(File pomFile) throws IOException {
+        try (InputStream in = Files.newInputStream(pomFile.toPath())) {
+            Model model = new MavenXpp3Reader().read(in);
+            model.setPomFile(pomFile);
+            MavenProject project = new MavenProject(model);
+            project.setFile(pomFile);
+            return project;
+        } catch (XmlPullParserException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public List<ProjectBuildingResult> build(List<File> pomFiles, boolean recursive, ProjectBuildingRequest request) throws ProjectBuildingException {
+        List<ProjectBuildingResult> results = new ArrayList<>();
+        for (File pomFile : pomFiles) {
+            results.add(build(pomFile, request));
+        }
+        return results;
+    }
+
+    @Override
+    public ProjectBuildingResult build(final File pomFile, ProjectBuildingRequest request) throws ProjectBuildingException {
+        builds.incrementAndGet();
+        final MavenProject project;
+        try {
+            project = read(pomFile);
+        } catch (IOException ex) {
+            throw new ProjectBuildingException(pomFile.getPath(), ex.getMessage(), ex);
+        }
+        return new ProjectBuildingResult() {
+            @Override
+            public String getProjectId() {
+                return project.getId();
+            }
+
+            @Override
+            public File getPomFile() {
+                return pomFile;
+            }
+
+            @Override
+            public MavenProject getProject() {
+                return project;
+            }
+
+            @Override
+            public List<ModelProblem> getProblems() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public DependencyResolutionResult getDependencyResolutionResult() {
+                return null;
+            }
+        };
+    }
+
+    @Override
+    public ProjectBuildingResult build(Artifact artifact, ProjectBuildingRequest request) throws ProjectBuildingException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ProjectBuildingResult build(Artifact artifact, boolean allowStubModel, ProjectBuildingRequest request) throws ProjectBuildingException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ProjectBuildingResult build(ModelSource modelSource, ProjectBuildingRequest request) throws ProjectBuildingException {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.model;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.DuplicateProjectException;
+import org.codehaus.plexus.util.dag.CycleDetectedException;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class ReactorSorterTest {
+
+    private final Map<File, Model> models = new LinkedHashMap<>();
+
+    @Test
+    public void testSortByParentDependencyAndPlugin() throws Exception {
+        Model root = module("root", null);
+        Model app = module("app", "root");
+        Model core = module("core", "root");
+        Model tools = module("tools", "root");
+        dependency(app, "core", "1.0-SNAPSHOT");
+        Plugin plugin = new Plugin();
+        plugin.setGroupId("g");
+        plugin.setArtifactId("tools");
+        core.setBuild(new Build());
+        core.getBuild().addPlugin(plugin);
+
+        ReactorSnapshot snapshot = ReactorSnapshot.of(models);
+        int[] order = ReactorSorter.sort(snapshot);
+        assertArrayEquals(new int[]{0, 3, 2, 1}, order);
+        assertSame(snapshot.getBuildOrder(), snapshot.getBuildOrder());
+        assertArrayEquals(order, ReactorSorter.sort(snapshot));
+    }
+
+    @Test
+    public void testOtherVersionIsNotAnEdge() throws Exception {
+        module("root", null);
+        Model app = module("app", "root");
+        module("core", "root");
+        dependency(app, "core", "0.9");
+
+        assertArrayEquals(new int[]{0, 1, 2}, ReactorSorter.sort(ReactorSnapshot.of(models)));
+    }
+
+    @Test
+    public void testTiesKeepSnapshotOrder() throws Exception {
+        module("api", null);
+        Model impl = module("impl", null);
+        module("other", null);
+        dependency(impl, "api", "1.0-SNAPSHOT");
+
+        /* impl is ready only after api, but still comes before other */
+        assertArrayEquals(new int[]{0, 1, 2}, ReactorSorter.sort(ReactorSnapshot.of(models)));
+    }
+
+    @Test
+    public void testCycle() throws Exception {
+        module("root", null);
+        Model a = module("a", "root");
+        Model b = module("b", "root");
+        dependency(a, "b", "1.0-SNAPSHOT");
+        dependency(b, "a", "1.0-SNAPSHOT");
+        try {
+            ReactorSorter.sort(ReactorSnapshot.of(models));
+            fail("Expected a cycle");
+        } catch (CycleDetectedException ex) {
+            assertTrue(ex.getCycle().contains("g:a:1.0-SNAPSHOT"));
+            assertTrue(ex.getCycle().contains("g:b:1.0-SNAPSHOT"));
+        }
+    }
+
+    @Test(expected = DuplicateProjectException.class)
+    public void testDuplicate() throws Exception {
+        module("root", null);
+        Model copy = module("copy", "root");
+        copy.setArtifactId("root");
+        ReactorSorter.sort(ReactorSnapshot.of(models));
+    }
+
+    private Model module(String artifactId, String parentArtifactId) {
+        Model model = new Model();
+        model.setGroupId("g");
+        model.setArtifactId(artifactId);
+        model.setVersion("1.0-SNAPSHOT");
+        if (null != parentArtifactId) {
+            Parent parent = new Parent();
+            parent.setGroupId("g");
+            parent.setArtifactId(parentArtifactId);
+            parent.setVersion("1.0-SNAPSHOT");
+            model.setParent(parent);
+        }
+        models.put(new File(artifactId, "pom.xml"), model);
+        return model;
+    }
+
+    private static void dependency(Model model, String artifactId, String version) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId("g");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion(version);
+        model.addDependency(dependency);
+    }
+}
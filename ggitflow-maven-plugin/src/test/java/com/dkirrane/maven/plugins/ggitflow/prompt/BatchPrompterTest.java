@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.prompt;
+
+import java.io.IOException;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class BatchPrompterTest {
+
+    private final Prompter prompter = new BatchPrompter();
+
+    @Test
+    public void testDefaults() throws IOException {
+        assertEquals("1.1-SNAPSHOT", prompter.promptWithDefault("Please enter the next development version? ", "1.1-SNAPSHOT"));
+        assertFalse(prompter.promptYesNo("Do you want to continue"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testChoiceFails() throws IOException {
+        prompter.promptChoice("Release branches", "Please select a release branch to finish", Arrays.asList("release/1.0", "release/1.1"));
+    }
+}
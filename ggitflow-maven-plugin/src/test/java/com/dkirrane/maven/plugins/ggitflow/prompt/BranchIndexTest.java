@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.prompt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class BranchIndexTest {
+
+    private final BranchIndex index = new BranchIndex(Arrays.asList(
+            "feature/login-page", "feature/JIRA-123-payments", "feature/bar", "feature/logout", "feature/payment-retry"));
+
+    @Test
+    public void testSearch() {
+        assertArrayEquals(new int[]{0, 3}, index.search("log"));
+        assertArrayEquals(new int[]{1, 4}, index.search("PAYMENT"));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, index.search(""));
+        assertArrayEquals(new int[]{3}, index.search("logout"));
+    }
+
+    @Test
+    public void testNarrow() {
+        int[] matches = index.search("feature/");
+        assertEquals(5, matches.length);
+        matches = index.narrow(matches, "feature/l");
+        assertArrayEquals(new int[]{0, 3}, matches);
+        assertArrayEquals(new int[]{0}, index.narrow(matches, "feature/login"));
+    }
+
+    @Test
+    public void testSubsequence() {
+        assertArrayEquals(new int[]{2}, index.search("fbar"));
+        assertArrayEquals(new int[0], index.search("zzz"));
+    }
+
+    @Test
+    public void testComplete() {
+        assertEquals(Arrays.asList("feature/login-page", "feature/logout"), index.complete("feature/lo"));
+    }
+
+    @Test
+    public void testManyBranches() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            names.add("feature/TEAM" + (i % 50) + "-" + i + "-work");
+        }
+        BranchIndex large = new BranchIndex(names);
+        assertEquals(1, large.search("-4321-").length);
+        assertEquals(100, large.search("team7-").length);
+    }
+}
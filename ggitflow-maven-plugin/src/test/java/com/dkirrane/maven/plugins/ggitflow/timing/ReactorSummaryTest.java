@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.timing;
+
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class ReactorSummaryTest {
+
+    @Test
+    public void testParse() {
+        String output = "[INFO] Building core 1.0\n"
+                + "[INFO] BUILD FAILURE\n"
+                + "[INFO] ------------------------------------------------------------------------\n"
+                + "[INFO] Reactor Summary for parent 1.0:\n"
+                + "[INFO] \n"
+                + "[INFO] parent ............................................. SUCCESS [  0.312 s]\n"
+                + "[INFO] core ............................................... SUCCESS [01:02 min]\n"
+                + "[INFO] app ................................................ FAILURE [  2.500 s]\n"
+                + "[INFO] web ................................................ SKIPPED\n"
+                + "[INFO] ------------------------------------------------------------------------\n"
+                + "[INFO] Total time:  01:05 min\n";
+
+        ReactorSummary summary = ReactorSummary.parse(output);
+        List<ReactorSummary.Module> modules = summary.getModules();
+        assertEquals(4, modules.size());
+        assertEquals("parent", modules.get(0).getName());
+        assertEquals(312, modules.get(0).getMillis());
+        assertEquals(62000, modules.get(1).getMillis());
+        assertEquals(-1, modules.get(3).getMillis());
+        assertEquals(2, summary.getFailures().size());
+        assertTrue(summary.table().get(0).startsWith("core "));
+    }
+
+    @Test
+    public void testMaven30Format() {
+        String output = "[INFO] Reactor Summary:\n"
+                + "[INFO]\n"
+                + "[INFO] \u001B[1mparent\u001B[m ........................ SUCCESS [1.234s]\n"
+                + "[INFO] core .......................... SUCCESS [0.5s]\n"
+                + "[INFO] BUILD SUCCESS\n";
+
+        ReactorSummary summary = ReactorSummary.parse(output);
+        assertEquals(2, summary.getModules().size());
+        assertEquals(1234, summary.getModules().get(0).getMillis());
+        assertEquals(500, summary.getModules().get(1).getMillis());
+        assertTrue(summary.getFailures().isEmpty());
+    }
+
+    @Test
+    public void testSingleModule() {
+        assertTrue(ReactorSummary.parse("[INFO] BUILD SUCCESS\n").getModules().isEmpty());
+        assertTrue(ReactorSummary.parse(null).getModules().isEmpty());
+    }
+
+    @Test
+    public void testMillis() {
+        assertEquals(3720000, ReactorSummary.millis("01:02", "h"));
+        assertEquals(45, ReactorSummary.millis("45", "ms"));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.versions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author dkirrane
+ */
+public class ArtifactPatternMatcherTest {
+
+    @Test
+    public void testMatches() {
+        ArtifactPatternMatcher matcher = new ArtifactPatternMatcher("com.corp:*, org.*:lib-*:jar, g:a:war:1.*, x:y:jar:tests:*");
+
+        assertEquals(4, matcher.size());
+        assertTrue(matcher.matches("com.corp", "anything", "pom", "", "1.0"));
+        assertFalse(matcher.matches("com.corpx", "anything", "jar", "", "1.0"));
+        assertTrue(matcher.matches("org.other", "lib-core", "jar", "", "2.0"));
+        assertFalse(matcher.matches("org.other", "lib-core", "war", "", "2.0"));
+        assertFalse(matcher.matches("org.other", "core", "jar", "", "2.0"));
+
+        /* four parts are groupId:artifactId:type:version */
+        assertTrue(matcher.matches("g", "a", "war", "", "1.2"));
+        assertFalse(matcher.matches("g", "a", "war", "", "2.0"));
+
+        assertTrue(matcher.matches("x", "y", "jar", "tests", "1"));
+        assertFalse(matcher.matches("x", "y", "jar", "", "1"));
+    }
+
+    @Test
+    public void testUnknownParts() {
+        ArtifactPatternMatcher matcher = new ArtifactPatternMatcher("g:a:war");
+
+        assertTrue(matcher.matches("g", "a", null, null, null));
+        assertFalse(matcher.matches("g", "b", null, null, null));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(new ArtifactPatternMatcher(null).isEmpty());
+        assertTrue(new ArtifactPatternMatcher(" , ").isEmpty());
+        assertFalse(new ArtifactPatternMatcher("").matches("g", "a", "jar", "", "1"));
+    }
+
+    @Test
+    public void testManyPatterns() {
+        StringBuilder includes = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            includes.append("com.corp.group").append(i).append(":artifact-").append(i).append("-*,");
+        }
+        includes.append("org.*:shared");
+        ArtifactPatternMatcher matcher = new ArtifactPatternMatcher(includes.toString());
+
+        int matched = 0;
+        for (int i = 0; i < 5000; i++) {
+            if (matcher.matches("com.corp.group" + (i % 1000), "artifact-" + (i % 1000) + "-core", "jar", "", "1.0")) {
+                matched++;
+            }
+        }
+        assertEquals(2500, matched);
+        assertTrue(matcher.matches("org.acme", "shared", "jar", "", "1.0"));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2016 dkirrane.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dkirrane.maven.plugins.ggitflow.versions;
+
+import com.dkirrane.maven.plugins.ggitflow.model.ReactorSnapshot;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Runs the resolver against a <code>file:</code> repository.
+ *
+ * @author dkirrane
+ */
+public class NextVersionsResolverTest {
+
+    private static final String POM = "<project>\n"
+            + "  <modelVersion>4.0.0</modelVersion>\n"
+            + "  <parent>\n"
+            + "    <groupId>com.corp</groupId>\n"
+            + "    <artifactId>corp-parent</artifactId>\n"
+            + "    <version>1</version>\n"
+            + "  </parent>\n"
+            + "  <groupId>g</groupId>\n"
+            + "  <artifactId>app</artifactId>\n"
+            + "  <version>1.0-SNAPSHOT</version>\n"
+            + "  <dependencies>\n"
+            + "    <!-- keep -->\n"
+            + "    <dependency>\n"
+            + "      <groupId>com.corp</groupId>\n"
+            + "      <artifactId>lib</artifactId>\n"
+            + "      <version>2.0-SNAPSHOT</version>\n"
+            + "    </dependency>\n"
+            + "    <dependency>\n"
+            + "      <groupId>org.other</groupId>\n"
+            + "      <artifactId>other</artifactId>\n"
+            + "      <version>1.0</version>\n"
+            + "    </dependency>\n"
+            + "  </dependencies>\n"
+            + "</project>\n";
+
+    private final File dir;
+    private final File repo;
+
+    public NextVersionsResolverTest() throws IOException {
+        dir = Files.createTempDirectory("next-versions").toFile();
+        repo = new File(dir, "repo");
+        metadata("com.corp", "corp-parent", "1", "2", "3", "4-SNAPSHOT");
+        metadata("com.corp", "lib", "1.0", "2.0-SNAPSHOT", "2.0", "2.1", "3.0-SNAPSHOT");
+        metadata("org.other", "other", "1.0", "1.1");
+    }
+
+    @Test
+    public void testReleaseVersions() throws Exception {
+        File pomFile = pom();
+        List<NextVersionsResolver.Update> updates = resolver(new MetadataCache(MetadataCache.DEFAULT_TTL_MILLIS))
+                .update(snapshot(pomFile), new ArtifactPatternMatcher("com.corp:*"), false, true);
+
+        assertEquals(2, updates.size());
+        String pom = new String(Files.readAllBytes(pomFile.toPath()), StandardCharsets.UTF_8);
+        assertEquals(POM.replace("<version>1</version>", "<version>3</version>")
+                .replace("<version>2.0-SNAPSHOT</version>", "<version>2.0</version>"), pom);
+    }
+
+    @Test
+    public void testSnapshotVersions() throws Exception {
+        File pomFile = pom();
+        resolver(new MetadataCache(MetadataCache.DEFAULT_TTL_MILLIS))
+                .update(snapshot(pomFile), new ArtifactPatternMatcher("*:lib:jar:*"), true, false);
+
+        String pom = new String(Files.readAllBytes(pomFile.toPath()), StandardCharsets.UTF_8);
+        assertEquals(POM.replace("<version>2.0-SNAPSHOT</version>", "<version>2.0</version>"), pom);
+    }
+
+    @Test
+    public void testPluginDependenciesKeepTheirVersion() throws Exception {
+        String plugin = "  <build>\n"
+                + "    <plugins>\n"
+                + "      <plugin>\n"
+                + "        <groupId>org.other</groupId>\n"
+                + "        <artifactId>other-plugin</artifactId>\n"
+                + "        <dependencies>\n"
+                + "          <dependency>\n"
+                + "            <groupId>com.corp</groupId>\n"
+                + "            <artifactId>lib</artifactId>\n"
+                + "            <version>2.0-SNAPSHOT</version>\n"
+                + "          </dependency>\n"
+                + "        </dependencies>\n"
+                + "      </plugin>\n"
+                + "    </plugins>\n"
+                + "  </build>\n"
+                + "  <!-- <dependency><groupId>com.corp</groupId><artifactId>lib</artifactId><version>2.0-SNAPSHOT</version></dependency> -->\n"
+                + "</project>\n";
+        String original = POM.replace("</project>\n", plugin);
+        File pomFile = pom(original);
+        resolver(new MetadataCache(MetadataCache.DEFAULT_TTL_MILLIS))
+                .update(snapshot(pomFile), new ArtifactPatternMatcher("*:lib:jar:*"), false, false);
+
+        /* as versions:use-next-versions, only the project's dependency changes */
+        String pom = new String(Files.readAllBytes(pomFile.toPath()), StandardCharsets.UTF_8);
+        assertEquals(original.replaceFirst("<version>2.0-SNAPSHOT</version>", "<version>2.0</version>"), pom);
+    }
+
+    @Test
+    public void testNoMatch() throws Exception {
+        File pomFile = pom();
+        MetadataCache cache = new MetadataCache(MetadataCache.DEFAULT_TTL_MILLIS);
+        assertTrue(resolver(cache).update(snapshot(pomFile), new ArtifactPatternMatcher("org.none:*"), false, false).isEmpty());
+        assertEquals(0, cache.getDownloads());
+    }
+
+    @Test
+    public void testCacheRevalidation() throws Exception {
+        String url = repo.toURI().toString();
+        MetadataCache cache = new MetadataCache(MetadataCache.DEFAULT_TTL_MILLIS);
+        cache.versions(url, "org.other", "other");
+        cache.versions(url, "org.other", "other");
+        assertEquals(1, cache.getDownloads());
+
+        MetadataCache expiring = new MetadataCache(0);
+        expiring.versions(url, "org.other", "other");
+        expiring.versions(url, "org.other", "other");
+        assertEquals(1, expiring.getDownloads());
+        assertEquals(1, expiring.getRevalidations());
+
+        metadata("org.other", "other", "1.0", "1.1", "1.2");
+        assertEquals(Arrays.asList("1.0", "1.1", "1.2"), expiring.versions(url, "org.other", "other"));
+        assertEquals(2, expiring.getDownloads());
+    }
+
+    private NextVersionsResolver resolver(MetadataCache cache) {
+        return new NextVersionsResolver(Arrays.asList(repo.toURI().toString()), cache, 4);
+    }
+
+    private File pom() throws IOException {
+        return pom(POM);
+    }
+
+    private File pom(String content) throws IOException {
+        File pomFile = new File(dir, "pom.xml");
+        Files.write(pomFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return pomFile;
+    }
+
+    private static ReactorSnapshot snapshot(File pomFile) throws Exception {
+        Map<File, Model> models = new LinkedHashMap<>();
+        try (InputStream in = Files.newInputStream(pomFile.toPath())) {
+            models.put(pomFile, new MavenXpp3Reader().read(in));
+        }
+        return ReactorSnapshot.of(models);
+    }
+
+    private void metadata(String groupId, String artifactId, String... versions) throws IOException {
+        File artifactDir = new File(repo, groupId.replace('.', '/') + '/' + artifactId);
+        artifactDir.mkdirs();
+        StringBuilder xml = new StringBuilder("<metadata><groupId>").append(groupId).append("</groupId><artifactId>")
+                .append(artifactId).append("</artifactId><versioning><versions>");
+        for (String version : versions) {
+            xml.append("<version>").append(version).append("</version>");
+        }
+        xml.append("</versions></versioning></metadata>");
+        File file = new File(artifactDir, "maven-metadata.xml");
+        Files.write(file.toPath(), xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}